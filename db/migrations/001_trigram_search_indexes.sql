@@ -0,0 +1,13 @@
+-- Indice trigram per la ricerca utenti per nome (UserDAO.searchUsersByName). Le carte si cercano
+-- nell'indice in memoria di CardService, quindi cards.card_name non ha un indice trigram (vedi 009).
+-- Con pg_trgm un GIN su gin_trgm_ops serve anche i filtri ILIKE '%...%', che altrimenti fanno un seq scan.
+-- Idempotente: si puo' rilanciare su un DB gia' migrato.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm
+    ON users USING gin (username gin_trgm_ops);
+
+-- Carte lette per gioco (CardDAO.getCardsByGameType, da cui si costruiscono gli indici di ricerca)
+CREATE INDEX IF NOT EXISTS idx_cards_tcg_id
+    ON cards (tcg_id);
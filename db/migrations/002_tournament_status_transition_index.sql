@@ -0,0 +1,5 @@
+-- Indice per le transizioni di stato automatiche (TournamentDAO.applyStatusTransitions):
+-- ogni UPDATE filtra per stato e per data, cosi' legge solo i tornei che stanno davvero cambiando.
+
+CREATE INDEX IF NOT EXISTS idx_tournaments_status_dates
+    ON tournaments (status_id, start_date, deadline);
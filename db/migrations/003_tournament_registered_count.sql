@@ -0,0 +1,12 @@
+-- Contatore denormalizzato degli iscritti: capienza, liste e transizioni READY/APPROVED
+-- non devono piu' contare (o caricare) le righe di registrations.
+-- Mantenuto da RegistrationDAO.createRegistration / deleteRegistration nella stessa transazione.
+
+-- Vincolo dichiarato con la colonna: con IF NOT EXISTS la migrazione si puo' rieseguire
+ALTER TABLE tournaments
+    ADD COLUMN IF NOT EXISTS registered_count INTEGER NOT NULL DEFAULT 0
+        CONSTRAINT tournaments_registered_count_check CHECK (registered_count >= 0);
+
+-- Allineamento iniziale con le iscrizioni esistenti
+UPDATE tournaments t
+SET registered_count = (SELECT COUNT(*) FROM registrations r WHERE r.tournament_id = t.tournament_id);
@@ -0,0 +1,5 @@
+-- Un utente si iscrive al massimo una volta a un torneo: vincolo usato da
+-- RegistrationDAO.admitRegistration (INSERT ... ON CONFLICT (tournament_id, user_id) DO NOTHING).
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_registrations_tournament_user
+    ON registrations (tournament_id, user_id);
@@ -0,0 +1,18 @@
+-- Lista d'attesa FIFO per i tornei pieni (RegistrationDAO, sezione 8).
+-- position e' crescente globalmente: l'ordine di arrivo per torneo e' ORDER BY position,
+-- e la testa si legge dall'indice (tournament_id, position) senza scansioni.
+
+CREATE TABLE IF NOT EXISTS waitlist (
+    tournament_id INTEGER   NOT NULL REFERENCES tournaments (tournament_id) ON DELETE CASCADE,
+    user_id       INTEGER   NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
+    reg_deck      INTEGER   NOT NULL REFERENCES decks (deck_id) ON DELETE CASCADE,
+    queued_at     TIMESTAMP NOT NULL DEFAULT now(),
+    position      BIGSERIAL NOT NULL,
+    PRIMARY KEY (tournament_id, user_id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_waitlist_tournament_position
+    ON waitlist (tournament_id, position);
+
+CREATE INDEX IF NOT EXISTS idx_waitlist_user
+    ON waitlist (user_id);
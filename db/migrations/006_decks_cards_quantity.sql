@@ -0,0 +1,24 @@
+-- Copie delle carte nei mazzi: una riga per carta distinta con il numero di copie
+-- invece di una riga per copia. Mantenuta da DeckDAO (upsert in incremento, cancellazione a zero copie).
+
+-- Vincolo dichiarato con la colonna: con IF NOT EXISTS la migrazione si puo' rieseguire
+ALTER TABLE decks_cards
+    ADD COLUMN IF NOT EXISTS quantity INTEGER NOT NULL DEFAULT 1
+        CONSTRAINT decks_cards_quantity_check CHECK (quantity >= 1);
+
+-- Eventuali righe ripetute diventano copie della stessa riga
+UPDATE decks_cards dc
+SET quantity = d.copies
+FROM (SELECT deck_id, card_id, COUNT(*) AS copies
+      FROM decks_cards
+      GROUP BY deck_id, card_id
+      HAVING COUNT(*) > 1) d
+WHERE dc.deck_id = d.deck_id AND dc.card_id = d.card_id;
+
+DELETE FROM decks_cards a
+USING decks_cards b
+WHERE a.deck_id = b.deck_id AND a.card_id = b.card_id AND a.ctid < b.ctid;
+
+-- Target degli ON CONFLICT (deck_id, card_id) di DeckDAO
+CREATE UNIQUE INDEX IF NOT EXISTS decks_cards_deck_card_uniq
+    ON decks_cards (deck_id, card_id);
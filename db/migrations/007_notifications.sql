@@ -0,0 +1,18 @@
+-- Notifiche non ancora lette, persistite da NotificationInbox (se configurata con NotificationDAO)
+-- per sopravvivere ai riavvii. Le righe vengono cancellate alla lettura o alla scadenza (TTL).
+-- tcg_id NULL = notifica valida per qualsiasi gioco selezionato.
+
+CREATE TABLE IF NOT EXISTS notifications (
+    notification_id BIGSERIAL PRIMARY KEY,
+    user_id         INTEGER   NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
+    tcg_id          INTEGER   NULL,
+    message         TEXT      NOT NULL,
+    created_at      TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_user
+    ON notifications (user_id, notification_id);
+
+-- Pulizia per scadenza e ripristino all'avvio (WHERE created_at > ?)
+CREATE INDEX IF NOT EXISTS idx_notifications_created_at
+    ON notifications (created_at);
@@ -0,0 +1,29 @@
+-- La tabella notifications fa anche da outbox: i servizi scrivono le notifiche dei cambi di stato e delle
+-- cancellazioni dei tornei nella stessa transazione della modifica (dispatched_at NULL), e
+-- NotificationDispatcher le preleva in background e le consegna alle caselle in memoria.
+-- Le righe scritte direttamente da NotificationInbox sono gia' consegnate (dispatched_at = created_at).
+
+-- Colonna e allineamento delle righe gia' presenti (scritte dalla casella, quindi gia' consegnate) nello
+-- stesso passo: rieseguendo la migrazione l'UPDATE non deve toccare le righe ancora in attesa nell'outbox
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND table_name = 'notifications'
+          AND column_name = 'dispatched_at'
+    ) THEN
+        ALTER TABLE notifications
+            ADD COLUMN dispatched_at TIMESTAMP NULL;
+
+        UPDATE notifications
+        SET dispatched_at = created_at;
+    END IF;
+END
+$$;
+
+-- Coda dell'outbox: solo le righe ancora da consegnare, in ordine di id
+CREATE INDEX IF NOT EXISTS idx_notifications_outbox
+    ON notifications (notification_id)
+    WHERE dispatched_at IS NULL;
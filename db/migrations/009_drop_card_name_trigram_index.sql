@@ -0,0 +1,5 @@
+-- Nessuna query filtra piu' cards.card_name con ILIKE: la ricerca carte passa dall'indice in memoria di
+-- CardService. L'indice trigram creato dalle versioni precedenti di 001 rallentava solo le scritture su cards.
+-- Idempotente: si puo' rilanciare.
+
+DROP INDEX IF EXISTS idx_cards_card_name_trgm;
@@ -12,6 +12,7 @@ import Controllers.security.ControllerGuards;
 import Controllers.session.UserSession;
 import DomainModel.user.User;
 import DomainModel.user.Role;
+import ORM.dao.UnitOfWork;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -46,6 +47,8 @@ public class AdminController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- MENU ADMIN ---");
             System.out.println("1) Gestione Carte");
             System.out.println("2) Gestione Utenti");
@@ -80,6 +83,8 @@ public class AdminController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             User freshUser = userService.getUser(caller.getUserId());
             printPersonalData(freshUser);
             System.out.println("1) Modifica username");
@@ -142,6 +147,8 @@ public class AdminController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- GESTIONE UTENTI ---");
             System.out.println("1) Visualizza tutti gli utenti");
             System.out.println("2) Cerca utente per nome");
@@ -312,7 +319,7 @@ public class AdminController {
 
     private void printTournamentDetails(List<Tournament> tournaments) {
         for (Tournament tournament : tournaments) {
-            int registrationsCount = tournament.getRegistrations() == null ? 0 : tournament.getRegistrations().size();
+            int registrationsCount = tournament.getRegisteredCount();
 
             System.out.println("----------------------");
             System.out.println("ID: " + tournament.getTournamentId());
@@ -334,6 +341,8 @@ public class AdminController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- GESTIONE CARTE ---");
             System.out.println("1) Consulta catalogo");
             System.out.println("2) Cerca Carta");
@@ -371,6 +380,7 @@ public class AdminController {
 
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             System.out.println("\nAzioni catalogo:");
             System.out.println("1) Modifica carta");
             System.out.println("2) Cancella carta");
@@ -406,6 +416,7 @@ public class AdminController {
 
             boolean running = true;
             while (running) {
+                UnitOfWork.nextRequest();
                 System.out.println("\nOpzioni carta:");
                 System.out.println("1) Modifica carta");
                 System.out.println("2) Cancella carta");
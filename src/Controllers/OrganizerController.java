@@ -8,9 +8,13 @@ import DomainModel.tournament.Tournament;
 import DomainModel.tournament.TournamentStatus;
 import DomainModel.user.Role;
 import DomainModel.user.User;
+import ORM.dao.UnitOfWork;
 import Services.tournament.RegistrationService;
+import Services.tournament.TournamentNotifications;
 import Services.tournament.TournamentService;
 import Services.user.UserService;
+import Utils.primitive.IntArrayList;
+import Utils.primitive.IntHashSet;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
@@ -49,6 +53,8 @@ public class OrganizerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- MENU ORGANIZER ---");
             System.out.println("1) Crea Torneo");
             System.out.println("2) Gestisci Torneo");
@@ -81,6 +87,8 @@ public class OrganizerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             User freshUser = userService.getUser(caller.getUserId());
             printPersonalData(freshUser);
             System.out.println("1) Modifica username");
@@ -140,10 +148,10 @@ public class OrganizerController {
 
     private void gestisciTorneoMenu() throws SQLException {
         User caller = ControllerGuards.requireRole(Role.ORGANIZER);
-        tournamentStatusController.syncTournamentStatuses();
 
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             System.out.println("\n--- GESTISCI TORNEO ---");
             System.out.println("1) Tornei PENDING");
             System.out.println("2) Tornei APPROVED");
@@ -175,6 +183,7 @@ public class OrganizerController {
     private void pendingTournamentsMenu(User caller) throws SQLException {
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Tournament> tournaments = getOrganizerTournamentsByStatus(caller, TournamentStatus.PENDING);
             System.out.println("\n--- TORNEI PENDING ---");
             printTournamentDetails(tournaments);
@@ -201,6 +210,7 @@ public class OrganizerController {
     private void approvedTournamentsMenu(User caller) throws SQLException {
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Tournament> tournaments = getOrganizerTournamentsByStatus(caller, TournamentStatus.APPROVED);
             System.out.println("\n--- TORNEI APPROVED ---");
             printTournamentDetails(tournaments);
@@ -230,6 +240,7 @@ public class OrganizerController {
     private void rejectedTournamentsMenu(User caller) throws SQLException {
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Tournament> tournaments = getOrganizerTournamentsByStatus(caller, TournamentStatus.REJECTED);
             System.out.println("\n--- TORNEI REJECTED ---");
             printTournamentDetails(tournaments);
@@ -254,6 +265,7 @@ public class OrganizerController {
     private void readyTournamentsMenu(User caller) throws SQLException {
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Tournament> tournaments = getOrganizerTournamentsByStatus(caller, TournamentStatus.READY);
             System.out.println("\n--- TORNEI READY ---");
             printTournamentDetails(tournaments);
@@ -293,6 +305,7 @@ public class OrganizerController {
     private void partecipantiMenu(User caller, Tournament target) throws SQLException {
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Registration> participants = registrationService.getRegistrationsByTournament(caller, target.getTournamentId());
             System.out.println("\n--- PARTECIPANTI TORNEO ID " + target.getTournamentId() + " ---");
             printParticipants(participants);
@@ -417,7 +430,10 @@ public class OrganizerController {
         System.out.print("Confermi eliminazione torneo? (si/no): ");
         String confirm = scanner.nextLine().trim().toLowerCase();
         if (confirm.equals("si") || confirm.equals("s")) {
-            notifyTournamentDeletedToParticipants(caller, target);
+            // Con l'outbox le notifiche le scrive il servizio, nella transazione della cancellazione
+            if (!tournamentService.hasNotificationOutbox()) {
+                notifyTournamentDeletedToParticipants(caller, target);
+            }
             tournamentService.deleteTournament(caller, tournamentId);
             System.out.println("Torneo eliminato con successo.");
             return;
@@ -437,13 +453,17 @@ public class OrganizerController {
             return;
         }
 
-        String message = "Il torneo ID " + tournament.getTournamentId()
-                + " - Nome: " + tournament.getName() + " e' stato cancellato dall'organizzatore.";
+        String message = TournamentNotifications.tournamentDeleted(tournament.getTournamentId(), tournament.getName());
 
-        participants.stream()
-                .map(r -> r.getUser().getUserId())
-                .distinct()
-                .forEach(userId -> UserSession.addNotificationForUser(userId, message, tournament.getGameType()));
+        IntHashSet seen = new IntHashSet(participants.size());
+        IntArrayList userIds = new IntArrayList(participants.size());
+        for (Registration r : participants) {
+            int userId = r.getUser().getUserId();
+            if (seen.add(userId)) {
+                userIds.add(userId);
+            }
+        }
+        UserSession.addNotificationForUsers(userIds, message, tournament.getGameType());
     }
 
     private void createTournamentFlow() throws SQLException {
@@ -574,7 +594,7 @@ public class OrganizerController {
         }
 
         for (Tournament tournament : tournaments) {
-            int registrationsCount = tournament.getRegistrations() == null ? 0 : tournament.getRegistrations().size();
+            int registrationsCount = tournament.getRegisteredCount();
             System.out.println("----------------------");
             System.out.println("ID: " + tournament.getTournamentId());
             System.out.println("Nome: " + tournament.getName());
@@ -6,10 +6,12 @@ import DomainModel.GameType;
 import DomainModel.card.Card;
 import DomainModel.card.Deck;
 import DomainModel.tournament.Registration;
+import DomainModel.tournament.RegistrationResult;
 import DomainModel.tournament.Tournament;
 import DomainModel.tournament.TournamentStatus;
 import DomainModel.user.Role;
 import DomainModel.user.User;
+import ORM.dao.UnitOfWork;
 import Services.card.CardService;
 import Services.card.DeckService;
 import Services.tournament.RegistrationService;
@@ -56,6 +58,8 @@ public class PlayerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- MENU PLAYER ---");
             System.out.println("1) Gestione Mazzi");
             System.out.println("2) Catalogo Carte");
@@ -90,6 +94,8 @@ public class PlayerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             User freshUser = userService.getUser(caller.getUserId());
             printPersonalData(freshUser);
             System.out.println("1) Modifica username");
@@ -161,6 +167,8 @@ public class PlayerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             List<Deck> myDecks = getMyDecksForSessionGameType(caller);
             printDeckNames(myDecks);
 
@@ -200,6 +208,7 @@ public class PlayerController {
 
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             System.out.println("\n--- AZIONI MAZZO ---");
             System.out.println("1) Modifica mazzo");
             System.out.println("2) Elimina mazzo");
@@ -227,6 +236,8 @@ public class PlayerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- MODIFICA MAZZO ---");
             System.out.println("1) Cambia nome mazzo");
             System.out.println("2) Aggiungi carta");
@@ -283,7 +294,7 @@ public class PlayerController {
                 .orElseThrow(() -> new IllegalArgumentException("Carta non trovata nel catalogo selezionato."));
 
         deckService.addCardToDeck(caller, deckId, selectedCard.getName());
-        System.out.println("Carta aggiunta al mazzo.");
+        System.out.println("Copia aggiunta al mazzo.");
     }
 
     private void rimuoviCartaDalMazzoFlow(User caller, int deckId) throws SQLException {
@@ -298,8 +309,8 @@ public class PlayerController {
             throw new IllegalArgumentException("ID carta non valido.");
         }
 
-        deckService.removeCardFromDeck(caller, deckId, cardId);
-        System.out.println("Carta rimossa dal mazzo.");
+        deckService.removeCardCopies(caller, deckId, cardId, 1);
+        System.out.println("Copia rimossa dal mazzo.");
     }
 
     private void eliminaMazzoFlow(User caller, int deckId) throws SQLException {
@@ -343,13 +354,20 @@ public class PlayerController {
     }
 
     private void stampaCarteNelMazzo(int deckId) throws SQLException {
-        List<Card> cardsInDeck = deckService.getCardsInDeck(deckId);
+        Deck deck = deckService.getDeckById(deckId);
         System.out.println("\n--- CARTE NEL MAZZO ---");
-        if (cardsInDeck.isEmpty()) {
+        if (deck.getCards().isEmpty()) {
             System.out.println("Nessuna carta presente nel mazzo.");
             return;
         }
-        printCardsWithId(cardsInDeck);
+        for (Card card : deck.getCards()) {
+            System.out.println("----------------------");
+            System.out.println("ID: " + card.getCardId());
+            System.out.println("Nome: " + card.getName());
+            System.out.println("Copie: " + deck.getQuantity(card));
+        }
+        System.out.println("----------------------");
+        System.out.println("Totale carte: " + deck.getDeckSize());
     }
 
     private void printDeckNames(List<Deck> decks) {
@@ -385,6 +403,8 @@ public class PlayerController {
         boolean running = true;
 
         while (running) {
+
+            UnitOfWork.nextRequest();
             System.out.println("\n--- CATALOGO CARTE ---");
             System.out.println("1) Visualizza tutte le carte");
             System.out.println("2) Cerca carta per nome");
@@ -426,14 +446,16 @@ public class PlayerController {
             throw new IllegalStateException("GameType non selezionato in sessione.");
         }
 
-        tournamentStatusController.syncTournamentStatuses();
         showPendingNotifications();
 
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Tournament> approvedTournaments = tournamentService.getAllTournaments(caller).stream()
                     .filter(t -> t.getGameType() == sessionGameType)
-                    .filter(t -> t.getStatus() == TournamentStatus.APPROVED)
+                    // Anche i tornei pieni con iscrizioni ancora aperte: ci si puo' mettere in lista d'attesa
+                    .filter(t -> t.getStatus() == TournamentStatus.APPROVED
+                            || (t.getStatus() == TournamentStatus.READY && t.isFull() && t.isRegistrationOpen()))
                     .toList();
 
             System.out.println("\n--- CHECK TORNEI ---");
@@ -471,6 +493,7 @@ public class PlayerController {
 
         boolean chooseDeck = true;
         while (chooseDeck) {
+            UnitOfWork.nextRequest();
             System.out.println("\nScegli il mazzo:");
             List<Deck> myDecks = getMyDecksForSessionGameType(caller);
             printDeckNames(myDecks);
@@ -500,8 +523,14 @@ public class PlayerController {
                         String confirm = scanner.nextLine().trim().toLowerCase();
                         if (confirm.equals("si") || confirm.equals("s")) {
                             Registration registration = new Registration(selectedTournament, caller, selectedDeck);
-                            registrationService.registerUserToTournament(caller, selectedTournament.getTournamentId(), registration);
-                            System.out.println("Iscrizione completata con successo.");
+                            RegistrationResult result = registrationService.tryRegisterUserToTournament(
+                                    caller, selectedTournament.getTournamentId(), registration);
+                            switch (result) {
+                                case ACCEPTED -> System.out.println("Iscrizione completata con successo.");
+                                case FULL -> offriListaAttesa(caller, selectedTournament, registration);
+                                case DUPLICATE -> System.out.println("Sei gia' iscritto a questo torneo.");
+                                case CLOSED -> System.out.println("Le iscrizioni a questo torneo sono chiuse.");
+                            }
                             chooseDeck = false;
                         } else if (confirm.equals("no") || confirm.equals("n")) {
                             System.out.println("Iscrizione annullata. Torno alla lista mazzi.");
@@ -518,6 +547,22 @@ public class PlayerController {
         }
     }
 
+    private void offriListaAttesa(User caller, Tournament tournament, Registration registration) throws SQLException {
+        System.out.print("Torneo pieno. Vuoi entrare in lista d'attesa? (si/no): ");
+        String confirm = scanner.nextLine().trim().toLowerCase();
+        if (!confirm.equals("si") && !confirm.equals("s")) {
+            System.out.println("Iscrizione annullata.");
+            return;
+        }
+
+        int position = registrationService.joinWaitlist(caller, tournament.getTournamentId(), registration);
+        if (position == 0) {
+            System.out.println("Si e' appena liberato un posto: iscrizione completata con successo.");
+        } else {
+            System.out.println("Sei in lista d'attesa (posizione " + position + "). Verrai iscritto e notificato appena si libera un posto.");
+        }
+    }
+
     private List<Deck> getMyDecksForSessionGameType(User caller) throws SQLException {
         GameType sessionGameType = UserSession.getInstance().getGameType();
         if (sessionGameType == null) {
@@ -530,11 +575,11 @@ public class PlayerController {
     }
 
     private void mieiTorneiFlow(User caller) throws SQLException {
-        tournamentStatusController.syncTournamentStatuses();
         showPendingNotifications();
 
         boolean running = true;
         while (running) {
+            UnitOfWork.nextRequest();
             List<Tournament> myTournaments = registrationService.getRegistrationsByUser(caller, caller.getUserId())
                     .stream()
                     .map(Registration::getTournament)
@@ -592,7 +637,7 @@ public class PlayerController {
         }
 
         for (Tournament tournament : tournaments) {
-            int registrationsCount = tournament.getRegistrations() == null ? 0 : tournament.getRegistrations().size();
+            int registrationsCount = tournament.getRegisteredCount();
             System.out.println("----------------------");
             System.out.println("ID: " + tournament.getTournamentId());
             System.out.println("Nome: " + tournament.getName());
@@ -2,6 +2,7 @@ package Controllers;
 
 import Controllers.security.ControllerGuards;
 import DomainModel.user.Role;
+import ORM.dao.UnitOfWork;
 
 import java.sql.SQLException;
 
@@ -24,10 +25,16 @@ public class RoleMenuController {
     public void showRoleMenu() throws SQLException {
         Role role = ControllerGuards.requireLoggedIn().getRole();
 
-        switch (role) {
-            case PLAYER -> playerController.playerMenu();
-            case ADMIN -> adminController.adminMenu();
-            case ORGANIZER -> organizerController.organizerMenu();
+        // Scope delle richieste dell'utente: ogni giro di menu ne inizia una nuova (UnitOfWork.nextRequest)
+        UnitOfWork requests = UnitOfWork.begin();
+        try {
+            switch (role) {
+                case PLAYER -> playerController.playerMenu();
+                case ADMIN -> adminController.adminMenu();
+                case ORGANIZER -> organizerController.organizerMenu();
+            }
+        } finally {
+            requests.close();
         }
     }
 }
@@ -1,8 +1,11 @@
 package Controllers;
 
 import Controllers.session.UserSession;
+import Services.tournament.RegistrationService;
+import Services.tournament.TournamentNotifications;
 import Services.tournament.TournamentService;
 import Services.tournament.TournamentStatusChangeEvent;
+import Services.tournament.WaitlistPromotion;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -10,25 +13,50 @@ import java.util.List;
 public class TournamentStatusController {
 
     private final TournamentService tournamentService;
+    private final RegistrationService registrationService;   // null = promozioni sempre consegnate in memoria
 
     public TournamentStatusController(TournamentService tournamentService) {
+        this(tournamentService, null);
+    }
+
+    public TournamentStatusController(TournamentService tournamentService, RegistrationService registrationService) {
         this.tournamentService = tournamentService;
+        this.registrationService = registrationService;
     }
 
-    public void syncTournamentStatuses() throws SQLException {
+    // Aggiorna gli stati e notifica gli iscritti; restituisce il numero di cambi di stato.
+    // In esecuzione normale e' chiamata da TournamentStatusScheduler, non dai menu.
+    public int syncTournamentStatuses() throws SQLException {
         List<TournamentStatusChangeEvent> events = tournamentService.updateTournamentStatusesAutomatically();
+        publish(events);
+        return events.size();
+    }
+
+    // Notifica agli iscritti i cambi di stato (usata anche da TournamentTransitionTimer).
+    // Con l'outbox collegato le notifiche sono gia' state scritte dal servizio: le consegna NotificationDispatcher.
+    public void publish(List<TournamentStatusChangeEvent> events) {
+        if (tournamentService.hasNotificationOutbox()) {
+            return;
+        }
         for (TournamentStatusChangeEvent e : events) {
             if (e.getRegisteredUserIds().isEmpty()) {
                 continue;
             }
+            UserSession.addNotificationForUsers(
+                    e.getRegisteredUserIds(), TournamentNotifications.statusChanged(e), e.getGameType());
+        }
+    }
 
-            String message = "Il torneo ID " + e.getTournamentId()
-                    + " - Nome: " + e.getTournamentName()
-                    + " ha cambiato stato da " + e.getOldStatus() + " a " + e.getNewStatus() + ".";
-
-            for (int userId : e.getRegisteredUserIds()) {
-                UserSession.addNotificationForUser(userId, message, e.getGameType());
-            }
+    // Notifica all'utente promosso dalla lista d'attesa (collegata a RegistrationService in Main).
+    // Con l'outbox collegato la notifica e' gia' stata scritta nella transazione della promozione.
+    public void notifyWaitlistPromotion(WaitlistPromotion promotion) {
+        if (registrationService != null && registrationService.hasNotificationOutbox()) {
+            return;
         }
+        UserSession.addNotificationForUser(
+                promotion.userId(),
+                TournamentNotifications.waitlistPromoted(promotion.tournamentId(), promotion.tournamentName()),
+                promotion.gameType()
+        );
     }
 }
@@ -1,23 +1,23 @@
 package Controllers.session;
 
 import DomainModel.GameType;
+import DomainModel.user.Notification;
 import DomainModel.user.User;
+import Services.user.NotificationInbox;
+import Utils.primitive.IntArrayList;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class UserSession {
 
     private static UserSession instance;
-    private static User currentUser;
-    private GameType currentGameType;
-    private static final Map<Integer, List<SessionNotification>> notificationsByUserId = new HashMap<>();
+    private static volatile User currentUser;
+    private volatile GameType currentGameType;
+    private static volatile NotificationInbox notifications = new NotificationInbox();
 
     private UserSession() {}
 
-    public static UserSession getInstance() {
+    public static synchronized UserSession getInstance() {
         if (instance == null) {
             instance = new UserSession();
         }
@@ -84,46 +84,32 @@ public class UserSession {
         return getAndClearNotificationsForCurrentUser(null);
     }
 
+    // Le notifiche arrivano anche dai thread dello scheduler/timer: la casella e' thread-safe (vedi NotificationInbox)
     public static void addNotificationForUser(int userId, String message, GameType gameType) {
-        notificationsByUserId
-                .computeIfAbsent(userId, key -> new ArrayList<>())
-                .add(new SessionNotification(message, gameType));
+        notifications.add(userId, message, gameType);
+    }
+
+    // Stessa notifica a piu' utenti (cambi di stato, cancellazioni): un solo passaggio sulla casella
+    public static void addNotificationForUsers(IntArrayList userIds, String message, GameType gameType) {
+        notifications.addAll(userIds, message, gameType);
     }
 
     public static List<String> getAndClearNotificationsForCurrentUser(GameType selectedGameType) {
-        if (!isLoggedIn()) {
+        User user = currentUser;
+        if (user == null) {
             return List.of();
         }
-
-        int userId = currentUser.getUserId();
-        List<SessionNotification> notifications = notificationsByUserId.getOrDefault(userId, new ArrayList<>());
-
-        List<SessionNotification> matching = notifications.stream()
-                .filter(n -> selectedGameType == null || n.gameType == null || n.gameType == selectedGameType)
-                .toList();
-
-        List<SessionNotification> notMatching = notifications.stream()
-                .filter(n -> !(selectedGameType == null || n.gameType == null || n.gameType == selectedGameType))
-                .toList();
-
-        if (notMatching.isEmpty()) {
-            notificationsByUserId.remove(userId);
-        } else {
-            notificationsByUserId.put(userId, new ArrayList<>(notMatching));
-        }
-
-        return matching.stream()
-                .map(n -> n.message)
+        return notifications.drain(user.getUserId(), selectedGameType).stream()
+                .map(Notification::message)
                 .toList();
     }
 
-    private static class SessionNotification {
-        private final String message;
-        private final GameType gameType;
+    // Casella usata da tutte le sessioni; Main la sostituisce con una persistente
+    public static void setNotificationInbox(NotificationInbox inbox) {
+        notifications = inbox;
+    }
 
-        private SessionNotification(String message, GameType gameType) {
-            this.message = message;
-            this.gameType = gameType;
-        }
+    public static NotificationInbox getNotificationInbox() {
+        return notifications;
     }
 }
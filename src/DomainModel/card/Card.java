@@ -43,6 +43,7 @@ public class Card {
 
 
     //Sovrascrivo equals per confrontare le carte in base al loro ID
+    // (hashCode coerente: le carte si possono usare in HashSet/HashMap; l'id non va cambiato mentre sono dentro)
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -50,4 +51,9 @@ public class Card {
         Card card = (Card) o;
         return cardId == card.cardId;
     }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(cardId);
+    }
 }
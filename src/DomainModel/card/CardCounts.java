@@ -0,0 +1,43 @@
+package DomainModel.card;
+
+import Utils.primitive.Int2IntHashMap;
+
+/*
+ * Copie per carta di un Deck: cardId -> numero di copie su una mappa primitiva (niente boxing),
+ * piu' il totale delle copie tenuto aggiornato a ogni modifica.
+ * Una carta arrivata a zero copie esce dalla mappa.
+ */
+final class CardCounts {
+
+    private final Int2IntHashMap counts = new Int2IntHashMap();
+    private int total;   // copie totali
+
+    int get(int cardId) {
+        return counts.get(cardId);
+    }
+
+    //Somma delta alle copie di cardId (delta negativo = rimozione); a zero la voce sparisce.
+    // Ritorna il nuovo numero di copie.
+    int add(int cardId, int delta) {
+        int current = counts.get(cardId);
+        int updated = current + delta;
+        if (updated <= 0) {
+            if (current > 0) {
+                counts.remove(cardId);
+                total -= current;
+            }
+            return 0;
+        }
+        counts.put(cardId, updated);
+        total += delta;
+        return updated;
+    }
+
+    int size() { return counts.size(); }
+    int total() { return total; }
+
+    void clear() {
+        counts.clear();
+        total = 0;
+    }
+}
@@ -0,0 +1,4 @@
+package DomainModel.card;
+
+// Carta di un mazzo con il numero di copie (una riga di decks_cards)
+public record CardQuantity(Card card, int quantity) { }
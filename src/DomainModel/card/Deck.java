@@ -4,13 +4,15 @@ import DomainModel.GameType;
 import DomainModel.user.User;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Deck {
     private int deckId;
     private String deckName;
     private User owner;              // molti-a-uno
-    private List<Card> cards;        // molti-a-molti
+    private final List<Card> cards = new ArrayList<>();            // molti-a-molti: carte distinte, in ordine di inserimento
+    private final CardCounts quantities = new CardCounts();        // cardId -> copie
     private GameType gameType;
 
     //COSTRUTTORI
@@ -25,7 +27,6 @@ public class Deck {
         this.deckName = deckName;
         this.owner = owner;
         this.gameType = gameType;
-        this.cards = new ArrayList<>();
     }
 
 
@@ -33,7 +34,7 @@ public class Deck {
         this.deckId = deckId;
         this.deckName = deckName;
         this.owner = owner;
-        this.cards = cards;
+        replaceCards(cards);
         this.gameType = gameType;
     }
 
@@ -41,48 +42,77 @@ public class Deck {
     public int getDeckId() { return deckId; }
     public String getDeckName() { return deckName; }
     public User getOwner() { return owner; }
-    public List<Card> getCards() { return cards; }
+    public List<Card> getCards() { return Collections.unmodifiableList(cards); }   // una voce per carta distinta
     public GameType getGameType() { return gameType; }
 
     //SETTER
     public void setDeckId(int deckId) { this.deckId = deckId; }
     public void setDeckName(String deckName) { this.deckName = deckName; }
-    public void setCards(List<Card> cards) { this.cards = cards; }
     public void setGameType(GameType gameType) { this.gameType = gameType; }
 
+    //Ogni elemento della lista vale una copia (una carta ripetuta = piu' copie)
+    public void setCards(List<Card> cards) {
+        replaceCards(cards);
+    }
+
 
     //Mostra testualmente il deck
     public String displayDeck() {
         return "Deck{" +
                 "deckName='" + deckName + '\'' +
                 ", owner=" + owner.getUsername() +
-                ", cards=" + cards.stream().map(Card::getName).toList() +
+                ", cards=" + cards.stream().map(c -> getQuantity(c) + "x " + c.getName()).toList() +
                 '}';
     }
 
-    //CRUD: aggiungi carta
+    //CRUD: aggiungi una copia della carta
     public void addCard(Card card) {
+        addCopies(card, 1);
+    }
+
+    public void addCopies(Card card, int copies) {
         if (card == null) return;
-        if (cards.contains(card)) {
-            System.out.println("Carta già presente nel deck: " + card.getName());
-            return;
+        if (copies < 1) {
+            throw new IllegalArgumentException("Il numero di copie deve essere positivo.");
         }
-        cards.add(card);
+        putCopies(card, copies);
     }
 
-    //CRUD: rimuovi carta
+    //CRUD: rimuovi una copia della carta (all'ultima la carta esce dal deck)
     public void removeCard(Card card) {
-        cards.remove(card);
+        removeCopies(card, 1);
+    }
+
+    public void removeCopies(Card card, int copies) {
+        if (card == null || copies < 1) return;
+        int cardId = card.getCardId();
+        if (quantities.get(cardId) > 0 && quantities.add(cardId, -copies) == 0) {
+            cards.removeIf(c -> c.getCardId() == cardId);
+        }
     }
 
-    // Verifica se il deck contiene una carta specifica (ricerca per oggetto Card)
+    // Verifica se il deck contiene una carta specifica (per id, O(1))
     public boolean containsCard(Card card) {
-        return cards.contains(card);
+        return card != null && quantities.get(card.getCardId()) > 0;
+    }
+
+    // Copie della carta nel deck (0 se assente)
+    public int getQuantity(Card card) {
+        return card == null ? 0 : quantities.get(card.getCardId());
     }
 
-    // Ottieni il numero totale di carte nel deck
+    public int getQuantity(int cardId) {
+        return quantities.get(cardId);
+    }
+
+    // Ottieni il numero totale di carte nel deck (copie comprese)
     public int getDeckSize() {
-        return cards.size();
+        return quantities.total();
+    }
+
+    // Numero di carte distinte
+    public int getDistinctCardCount() {
+        return quantities.size();
     }
 
 
@@ -94,5 +124,32 @@ public class Deck {
         Deck deck = (Deck) o;
         return deckId == deck.deckId;
     }
-}
 
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(deckId);
+    }
+
+    // ====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    //Private: usati anche dal costruttore, che non deve chiamare metodi sovrascrivibili
+    private void replaceCards(List<Card> cards) {
+        this.cards.clear();
+        quantities.clear();
+        if (cards != null) {
+            for (Card card : cards) {
+                if (card != null) {
+                    putCopies(card, 1);
+                }
+            }
+        }
+    }
+
+    private void putCopies(Card card, int copies) {
+        if (quantities.get(card.getCardId()) == 0) {
+            cards.add(card);
+        }
+        quantities.add(card.getCardId(), copies);
+    }
+}
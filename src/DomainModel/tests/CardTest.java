@@ -6,7 +6,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -35,6 +37,18 @@ class CardTest {
         assertTrue(a.equals(b));
     }
 
+    @Test
+    void hashCodeIsConsistentWithEquals() {
+        Card a = new Card("A", GameType.MAGIC);
+        Card b = new Card("A copy", GameType.MAGIC);
+        a.setCardId(7);
+        b.setCardId(7);
+
+        assertEquals(a.hashCode(), b.hashCode());
+        Set<Card> set = new HashSet<>(List.of(a));
+        assertTrue(set.contains(b));
+    }
+
     @Test
     void printCardsHandlesEmptyList() {
         ByteArrayOutputStream output = new ByteArrayOutputStream();
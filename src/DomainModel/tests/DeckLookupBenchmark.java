@@ -0,0 +1,122 @@
+package DomainModel.tests;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import DomainModel.card.Deck;
+import DomainModel.user.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/*
+ * Microbenchmark (non e' un test JUnit: si lancia a mano con il main).
+ * Caricamento in blocco di mazzi da 100 carte distinte, come farebbe DeckDAO.getDeckById
+ * leggendo le righe del join (qui con copie ripetute), seguito da 100 controlli di appartenenza:
+ *   - list:  vecchio approccio, dedup e ricerca con List.contains (O(n) per riga)
+ *   - set:   dedup con HashSet<Card> (possibile ora che Card ha hashCode)
+ *   - deck:  Deck con mappa primitiva cardId -> copie
+ * Riscaldamento e misura sono separati per lasciare lavorare il JIT; il risultato di ogni giro
+ * finisce in un accumulatore stampato alla fine, cosi' il lavoro non puo' essere eliminato.
+ */
+public class DeckLookupBenchmark {
+
+    private static final int DECK_SIZE = 100;
+    private static final int COPIES = 3;
+    private static final int DECKS_PER_ROUND = 20_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        List<Card> rows = buildRows(new Random(42));
+        List<Card> probes = new ArrayList<>(rows.subList(0, DECK_SIZE));
+        Collections.shuffle(probes, new Random(7));
+
+        run("list", () -> loadWithList(rows, probes));
+        run("set ", () -> loadWithSet(rows, probes));
+        run("deck", () -> loadWithDeck(rows, probes));
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static int loadWithList(List<Card> rows, List<Card> probes) {
+        List<Card> cards = new ArrayList<>();
+        for (Card card : rows) {
+            if (!cards.contains(card)) {
+                cards.add(card);
+            }
+        }
+        int hits = 0;
+        for (Card probe : probes) {
+            if (cards.contains(probe)) hits++;
+        }
+        return hits + cards.size();
+    }
+
+    private static int loadWithSet(List<Card> rows, List<Card> probes) {
+        Set<Card> cards = new HashSet<>();
+        cards.addAll(rows);
+        int hits = 0;
+        for (Card probe : probes) {
+            if (cards.contains(probe)) hits++;
+        }
+        return hits + cards.size();
+    }
+
+    private static int loadWithDeck(List<Card> rows, List<Card> probes) {
+        Deck deck = new Deck("bench", new User("bench"), GameType.MAGIC);
+        for (Card card : rows) {
+            deck.addCard(card);
+        }
+        int hits = 0;
+        for (Card probe : probes) {
+            if (deck.containsCard(probe)) hits++;
+        }
+        return hits + deck.getDistinctCardCount();
+    }
+
+    private static void run(String label, Workload workload) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round(workload);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            best = Math.min(best, round(workload));
+        }
+        System.out.printf("%s  %8.1f ns/mazzo%n", label, (double) best / DECKS_PER_ROUND);
+    }
+
+    private static long round(Workload workload) {
+        long start = System.nanoTime();
+        for (int i = 0; i < DECKS_PER_ROUND; i++) {
+            sink += workload.load();
+        }
+        return System.nanoTime() - start;
+    }
+
+    //Righe del join: DECK_SIZE carte distinte con id sparsi, ognuna ripetuta COPIES volte
+    private static List<Card> buildRows(Random random) {
+        List<Card> distinct = new ArrayList<>();
+        int id = 0;
+        for (int i = 0; i < DECK_SIZE; i++) {
+            id += 1 + random.nextInt(50);
+            Card card = new Card("Card " + id, GameType.MAGIC);
+            card.setCardId(id);
+            distinct.add(card);
+        }
+        List<Card> rows = new ArrayList<>(distinct);
+        for (int c = 1; c < COPIES; c++) {
+            rows.addAll(distinct);
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        int load();
+    }
+}
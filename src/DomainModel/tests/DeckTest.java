@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DeckTest {
@@ -40,7 +41,7 @@ class DeckTest {
     }
 
     @Test
-    void addCardDoesNotDuplicateSameCardId() {
+    void sameCardIdAddsCopiesInsteadOfEntries() {
         Deck deck = new Deck(1, "MyDeck", new User("alice"), new ArrayList<>(), GameType.YUGIOH);
         Card first = new Card("A", GameType.YUGIOH);
         Card second = new Card("B", GameType.YUGIOH);
@@ -49,7 +50,53 @@ class DeckTest {
 
         deck.addCard(first);
         deck.addCard(second);
-        assertEquals(1, deck.getDeckSize());
+        assertEquals(1, deck.getDistinctCardCount());
+        assertEquals(1, deck.getCards().size());
+        assertEquals(2, deck.getQuantity(5));
+        assertEquals(2, deck.getDeckSize());
+    }
+
+    @Test
+    void copiesAreCountedAndRemovedOneAtATime() {
+        Deck deck = new Deck("MyDeck", new User("alice"), GameType.MAGIC);
+        Card bolt = new Card("Lightning Bolt", GameType.MAGIC);
+        bolt.setCardId(7);
+        Card island = new Card("Island", GameType.MAGIC);
+        island.setCardId(8);
+
+        deck.addCopies(bolt, 4);
+        deck.addCopies(island, 20);
+        assertEquals(24, deck.getDeckSize());
+        assertEquals(2, deck.getDistinctCardCount());
+
+        deck.removeCopies(bolt, 3);
+        assertEquals(1, deck.getQuantity(bolt));
+        deck.removeCard(bolt);
+        assertFalse(deck.containsCard(bolt));
+        assertEquals(1, deck.getCards().size());
+        assertEquals(20, deck.getDeckSize());
+
+        assertThrows(IllegalArgumentException.class, () -> deck.addCopies(island, 0));
+    }
+
+    @Test
+    void largeDeckKeepsCountsAcrossGrowthAndRemovals() {
+        Deck deck = new Deck("Big", new User("alice"), GameType.POKEMON);
+        for (int id = 1; id <= 500; id++) {
+            Card card = new Card("C" + id, GameType.POKEMON);
+            card.setCardId(id * 31);
+            deck.addCopies(card, id % 4 + 1);
+        }
+        for (int id = 1; id <= 500; id += 2) {
+            Card card = new Card("C" + id, GameType.POKEMON);
+            card.setCardId(id * 31);
+            deck.removeCopies(card, 4);
+        }
+
+        assertEquals(250, deck.getDistinctCardCount());
+        for (int id = 1; id <= 500; id++) {
+            assertEquals(id % 2 == 0 ? id % 4 + 1 : 0, deck.getQuantity(id * 31));
+        }
     }
 
     @Test
@@ -60,9 +107,11 @@ class DeckTest {
         card.setCardId(1);
         deck.addCard(card);
 
+        deck.addCard(card);
+
         String text = deck.displayDeck();
         assertTrue(text.contains("DeckA"));
         assertTrue(text.contains("alice"));
-        assertTrue(text.contains("Pikachu"));
+        assertTrue(text.contains("2x Pikachu"));
     }
 }
@@ -8,9 +8,14 @@ import DomainModel.user.User;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RegistrationTest {
 
@@ -43,4 +48,27 @@ class RegistrationTest {
         assertEquals(user, registration.getUser());
         assertEquals(date, registration.getRegistrationDate());
     }
+
+    @Test
+    void entitiesCanBeUsedAsHashKeys() {
+        Tournament tournament = new Tournament("Cup", GameType.MAGIC);
+        tournament.setTournamentId(3);
+        User user = new User("player");
+        user.setUserId(9);
+
+        // Copie distinte dello stesso torneo/utente (es. caricate da query diverse)
+        Tournament sameTournament = new Tournament("Cup (copy)", GameType.MAGIC);
+        sameTournament.setTournamentId(3);
+        User sameUser = new User("player");
+        sameUser.setUserId(9);
+
+        Map<Registration, String> byRegistration = new HashMap<>();
+        byRegistration.put(new Registration(tournament, user, null), "first");
+        assertEquals("first", byRegistration.get(new Registration(sameTournament, sameUser, null)));
+
+        Set<User> users = new HashSet<>(Set.of(user));
+        assertTrue(users.contains(sameUser));
+        assertEquals(tournament.hashCode(), sameTournament.hashCode());
+        assertEquals(tournament, sameTournament);
+    }
 }
@@ -1,14 +1,30 @@
 package DomainModel.tests;
 
 import DomainModel.tournament.Tournament;
+import DomainModel.tournament.TournamentStatus;
 import DomainModel.tournament.observer.TournamentObserver;
+import DomainModel.tournament.observer.TournamentObserverBus;
 import DomainModel.tournament.observer.TournamentSubject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TournamentSubjectTest {
 
+    @AfterEach
+    void restoreSynchronousBus() {
+        TournamentObserverBus.install(null);
+    }
+
     @Test
     void notifyObserversCallsAllRegisteredObservers() {
         TournamentSubject subject = new TournamentSubject();
@@ -35,8 +51,81 @@ class TournamentSubjectTest {
         assertEquals(0, a.calls);
     }
 
+    @Test
+    void suppressedScopeSkipsNotifications() {
+        Tournament tournament = new Tournament("Cup");
+        CounterObserver a = new CounterObserver();
+        tournament.addObserver(a);
+
+        try (TournamentObserverBus.Suppression ignored = TournamentObserverBus.suppress()) {
+            try (TournamentObserverBus.Suppression nested = TournamentObserverBus.suppress()) {
+                tournament.setStatus(TournamentStatus.APPROVED);
+            }
+            tournament.setStatus(TournamentStatus.READY);
+        }
+        assertEquals(0, a.calls);
+
+        tournament.setStatus(TournamentStatus.ONGOING);
+        assertEquals(1, a.calls);
+    }
+
+    @Test
+    void asyncBusDeliversSnapshotsInOrderOffTheCallerThread() throws Exception {
+        TournamentObserverBus bus = TournamentObserverBus.async();
+        TournamentObserverBus.install(bus);
+        Tournament tournament = new Tournament("Cup");
+        List<TournamentStatus> seen = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        tournament.addObserver(t -> {
+            seen.add(t.getStatus());
+            threads.add(Thread.currentThread());
+            done.countDown();
+        });
+
+        tournament.setStatus(TournamentStatus.APPROVED);
+        tournament.setStatus(TournamentStatus.READY);
+        tournament.setStatus(TournamentStatus.ONGOING);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(TournamentStatus.APPROVED, TournamentStatus.READY, TournamentStatus.ONGOING), seen);
+        assertTrue(threads.stream().noneMatch(t -> t == Thread.currentThread()));
+        bus.close();
+    }
+
+    @Test
+    void fullQueueDropsEventsAfterBackpressureTimeout() throws Exception {
+        TournamentObserverBus bus = TournamentObserverBus.async(
+                Executors.newSingleThreadExecutor(), 2, Duration.ofMillis(10));
+        TournamentObserverBus.install(bus);
+        Tournament tournament = new Tournament("Cup");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CounterObserver counter = new CounterObserver();
+        tournament.addObserver(t -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            counter.update(t);
+        });
+
+        tournament.setStatus(TournamentStatus.APPROVED);   // in consegna, bloccato
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            tournament.setStatus(TournamentStatus.READY);  // 2 in coda, 2 scartati
+        }
+        assertEquals(2, bus.getDroppedCount());
+
+        release.countDown();
+        bus.close();
+        assertEquals(3, counter.calls);
+    }
+
     private static class CounterObserver implements TournamentObserver {
-        int calls;
+        volatile int calls;
 
         @Override
         public void update(Tournament tournament) {
@@ -14,6 +14,8 @@ import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TournamentTest {
@@ -42,6 +44,22 @@ class TournamentTest {
         assertFalse(t.isFull());
     }
 
+    @Test
+    void capacityUsesCounterWhenRegistrationsAreNotLoaded() {
+        Tournament t = new Tournament("Cup", GameType.MAGIC);
+        t.setCapacity(2);
+
+        t.setRegisteredCount(1);
+        assertFalse(t.isFull());
+        t.setRegisteredCount(2);
+        assertTrue(t.isFull());
+
+        // Con la lista caricata vale la lista
+        t.setRegistrations(new ArrayList<>());
+        assertEquals(0, t.getRegisteredCount());
+        assertFalse(t.isFull());
+    }
+
     @Test
     void dateChecksWork() {
         Tournament t = new Tournament("Cup", GameType.YUGIOH);
@@ -70,6 +88,41 @@ class TournamentTest {
         assertEquals(TournamentStatus.APPROVED, observer.lastTournament.getStatus());
     }
 
+    @Test
+    void hydrationConstructorSetsStateWithoutNotifying() {
+        Tournament t = new Tournament(7, "Cup", "desc", 16, LocalDate.of(2026, 5, 1),
+                LocalDate.of(2026, 5, 10), TournamentStatus.READY, 12, GameType.MAGIC);
+        TestObserver observer = new TestObserver();
+        t.addObserver(observer);
+
+        assertEquals(7, t.getTournamentId());
+        assertEquals(TournamentStatus.READY, t.getStatus());
+        assertEquals(12, t.getRegisteredCount());
+        assertNull(t.getRegistrations());
+        assertFalse(observer.called);
+
+        Tournament copy = t.snapshot();
+        t.setStatus(TournamentStatus.ONGOING);
+        assertEquals(TournamentStatus.READY, copy.getStatus());
+        assertTrue(observer.called);
+    }
+
+    @Test
+    void snapshotKeepsTheRegistrationsOfTheMomentItWasTaken() {
+        Tournament t = new Tournament("Cup", GameType.MAGIC);
+        t.setCapacity(4);
+        t.setRegistrations(new ArrayList<>());
+        t.addRegistration(new Registration(t, new User("p1"), null));
+
+        Tournament copy = t.snapshot();
+        t.addRegistration(new Registration(t, new User("p2"), null));
+
+        assertEquals(1, copy.getRegisteredCount());
+        assertEquals(2, t.getRegisteredCount());
+        assertThrows(UnsupportedOperationException.class,
+                () -> copy.getRegistrations().add(new Registration(t, new User("p3"), null)));
+    }
+
     private static class TestObserver implements TournamentObserver {
         boolean called;
         Tournament lastTournament;
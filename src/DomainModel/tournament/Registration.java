@@ -29,4 +29,21 @@ public class Registration {
     public void setUser(User user) { this.user = user; }
     public void setRegistrationDate(LocalDateTime registrationDate) { this.registrationDate = registrationDate; }
 
+
+    //Un'iscrizione e' identificata dalla coppia (torneo, utente), come il vincolo unico su registrations
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Registration)) return false;
+        Registration other = (Registration) o;
+        return tournamentId() == other.tournamentId() && userId() == other.userId();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * tournamentId() + userId();
+    }
+
+    private int tournamentId() { return tournament == null ? 0 : tournament.getTournamentId(); }
+    private int userId() { return user == null ? 0 : user.getUserId(); }
 }
@@ -0,0 +1,9 @@
+package DomainModel.tournament;
+
+// Esito di una richiesta di iscrizione a un torneo (vedi RegistrationDAO.admitRegistration)
+public enum RegistrationResult {
+    ACCEPTED,    // iscrizione registrata, posto occupato
+    FULL,        // nessun posto libero
+    DUPLICATE,   // utente gia' iscritto
+    CLOSED;      // torneo non APPROVED o deadline passata
+}
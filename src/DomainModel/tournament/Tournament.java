@@ -16,6 +16,7 @@ public class Tournament extends TournamentSubject {
     private LocalDate startDate;
     private TournamentStatus status;
     private List<Registration> registrations;
+    private int registeredCount;     // contatore denormalizzato (tournaments.registered_count)
     private GameType gameType;
 
     // COSTRUTTORI
@@ -43,6 +44,21 @@ public class Tournament extends TournamentSubject {
         this.status = TournamentStatus.PENDING;
     }
 
+    // Ricostruzione dal DB (riga di tournaments): lo stato viene assegnato direttamente, senza notifiche.
+    // Nessun observer e' allocato finche' non se ne aggiunge uno (TournamentSubject parte dall'array vuoto condiviso)
+    public Tournament(int tournamentId, String name, String description, int capacity, LocalDate deadline,
+                      LocalDate startDate, TournamentStatus status, int registeredCount, GameType gameType) {
+        this.tournamentId = tournamentId;
+        this.tournamentName = name;
+        this.description = description;
+        this.capacity = capacity;
+        this.deadline = deadline;
+        this.startDate = startDate;
+        this.status = status;
+        this.registeredCount = registeredCount;
+        this.gameType = gameType;
+    }
+
     // GETTER
     public int getTournamentId() { return tournamentId; }
     public String getName() { return tournamentName; }
@@ -53,6 +69,8 @@ public class Tournament extends TournamentSubject {
     public LocalDate getStartDate() { return startDate; }
     public TournamentStatus getStatus() { return status; }
     public List<Registration> getRegistrations() { return registrations; }
+    // Numero di iscritti: dalla lista se caricata, altrimenti dal contatore letto dal DB
+    public int getRegisteredCount() { return registrations != null ? registrations.size() : registeredCount; }
     public GameType getGameType() { return gameType; }
 
 
@@ -69,9 +87,21 @@ public class Tournament extends TournamentSubject {
         notifyObservers(this); // notifica tutti gli iscritti
     }
     public void setRegistrations(List<Registration> registrations) { this.registrations = registrations; }
+    public void setRegisteredCount(int registeredCount) { this.registeredCount = registeredCount; }
     public void setGameType(GameType gameType) { this.gameType = gameType; }
 
 
+    // Copia dei campi senza observer (consegna asincrona: lo stato visto dagli observer e' quello del cambio).
+    // Le iscrizioni sono copiate in una lista immutabile: quella del torneo puo' cambiare mentre l'observer la legge
+    public Tournament snapshot() {
+        Tournament copy = new Tournament(tournamentId, tournamentName, description, capacity, deadline,
+                                         startDate, status, registeredCount, gameType);
+        copy.organizer = organizer;
+        copy.registrations = registrations == null ? null : List.copyOf(registrations);
+        return copy;
+    }
+
+
     // Registration handling
     public void addRegistration(Registration r) {
         this.registrations.add(r);
@@ -86,10 +116,25 @@ public class Tournament extends TournamentSubject {
     }
 
     public boolean isFull() {
-        return registrations.size() >= capacity;
+        return getRegisteredCount() >= capacity;
     }
 
     public boolean isStarted() {
         return LocalDate.now().isAfter(startDate);
     }
+
+
+    //Sovrascrivo equals/hashCode per confrontare i tornei in base al loro ID
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Tournament)) return false;
+        Tournament tournament = (Tournament) o;
+        return tournamentId == tournament.tournamentId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(tournamentId);
+    }
 }
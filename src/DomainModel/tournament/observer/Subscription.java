@@ -0,0 +1,86 @@
+package DomainModel.tournament.observer;
+
+import DomainModel.tournament.Tournament;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Un observer iscritto a un torneo. La coda nasce solo alla prima consegna asincrona;
+// scheduled garantisce un solo giro di consegna alla volta (eventi in ordine, mai in parallelo)
+final class Subscription {
+    private static final int MAX_EVENTS_PER_RUN = 64;   // poi si cede il thread agli altri observer
+
+    private final TournamentObserver observer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile BlockingQueue<Tournament> queue;
+
+    Subscription(TournamentObserver observer) {
+        this.observer = observer;
+    }
+
+    TournamentObserver observer() {
+        return observer;
+    }
+
+    void enqueue(Tournament event, TournamentObserverBus bus) {
+        BlockingQueue<Tournament> q = queue(bus);
+        boolean accepted;
+        try {
+            accepted = q.offer(event, bus.backpressureTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            bus.dropped();
+            return;
+        }
+        schedule(bus);
+    }
+
+    private BlockingQueue<Tournament> queue(TournamentObserverBus bus) {
+        BlockingQueue<Tournament> q = queue;
+        if (q == null) {
+            synchronized (this) {
+                if (queue == null) {
+                    queue = new LinkedBlockingQueue<>(bus.queueCapacity());
+                }
+                q = queue;
+            }
+        }
+        return q;
+    }
+
+    private void schedule(TournamentObserverBus bus) {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            bus.executor().execute(() -> drain(bus));
+        } catch (RejectedExecutionException e) {
+            // Bus chiuso: gli eventi restano in coda e partono con il prossimo bus
+            scheduled.set(false);
+        }
+    }
+
+    private void drain(TournamentObserverBus bus) {
+        Tournament event;
+        int handled = 0;
+        while (handled < MAX_EVENTS_PER_RUN && (event = queue.poll()) != null) {
+            handled++;
+            try {
+                observer.update(event);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Observer del torneo " + event.getTournamentId() + " fallito: " + e.getMessage());
+            }
+        }
+        scheduled.set(false);
+        // Eventi arrivati dopo l'ultimo poll (o lasciati per il limite del giro)
+        if (!queue.isEmpty()) {
+            schedule(bus);
+        }
+    }
+}
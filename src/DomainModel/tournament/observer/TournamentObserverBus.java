@@ -0,0 +1,166 @@
+package DomainModel.tournament.observer;
+
+import DomainModel.tournament.Tournament;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Modalita' di consegna delle notifiche di TournamentSubject, condivisa da tutti i tornei della JVM.
+ *
+ * - Sincrona (predefinita): gli observer vengono chiamati sul thread che cambia lo stato, come prima.
+ * - Asincrona (async): ogni iscrizione (torneo, observer) ha una coda limitata e viene servita da un executor
+ *   (di default un virtual thread per giro), un giro alla volta: l'ordine degli eventi per observer e' mantenuto
+ *   e un observer lento non blocca chi cambia lo stato. A coda piena chi pubblica attende al massimo
+ *   backpressureTimeout, poi l'evento viene scartato e contato (getDroppedCount).
+ *   Gli observer ricevono una copia del torneo al momento del cambio (Tournament.snapshot).
+ *
+ * suppress() disattiva le notifiche sul thread corrente finche' lo scope e' aperto (es. quando i DAO
+ * ricostruiscono i tornei dal DB: impostare lo stato letto non e' un cambio di stato).
+ */
+public final class TournamentObserverBus implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final Duration DEFAULT_BACKPRESSURE_TIMEOUT = Duration.ofMillis(50);
+
+    private static final TournamentObserverBus SYNCHRONOUS = new TournamentObserverBus(null, 0, Duration.ZERO);
+    private static volatile TournamentObserverBus installed = SYNCHRONOUS;
+    private static final ThreadLocal<Suppression> suppression = new ThreadLocal<>();
+
+    private final ExecutorService executor;   // null = consegna sincrona
+    private final int queueCapacity;
+    private final Duration backpressureTimeout;
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private TournamentObserverBus(ExecutorService executor, int queueCapacity, Duration backpressureTimeout) {
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.backpressureTimeout = backpressureTimeout;
+    }
+
+    // ====================================================================================
+    // CREAZIONE / INSTALLAZIONE
+    // ====================================================================================
+    public static TournamentObserverBus synchronous() {
+        return SYNCHRONOUS;
+    }
+
+    public static TournamentObserverBus async() {
+        return async(Executors.newVirtualThreadPerTaskExecutor(), DEFAULT_QUEUE_CAPACITY, DEFAULT_BACKPRESSURE_TIMEOUT);
+    }
+
+    // L'executor passa al bus: close() lo arresta
+    public static TournamentObserverBus async(ExecutorService executor, int queueCapacity, Duration backpressureTimeout) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor obbligatorio per la consegna asincrona.");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("La capacita' della coda deve essere positiva.");
+        }
+        if (backpressureTimeout == null || backpressureTimeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout di backpressure non valido.");
+        }
+        return new TournamentObserverBus(executor, queueCapacity, backpressureTimeout);
+    }
+
+    public static void install(TournamentObserverBus bus) {
+        installed = bus == null ? SYNCHRONOUS : bus;
+    }
+
+    public static TournamentObserverBus current() {
+        return installed;
+    }
+
+    // Arresta l'executor (gli eventi gia' accodati vengono consegnati) e torna alla consegna sincrona
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        if (installed == this) {
+            installed = SYNCHRONOUS;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ====================================================================================
+    // SOPPRESSIONE
+    // ====================================================================================
+    // try (TournamentObserverBus.Suppression ignored = TournamentObserverBus.suppress()) { ... }
+    public static Suppression suppress() {
+        Suppression current = suppression.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        Suppression scope = new Suppression();
+        suppression.set(scope);
+        return scope;
+    }
+
+    public static boolean isSuppressed() {
+        return suppression.get() != null;
+    }
+
+    public static final class Suppression implements AutoCloseable {
+        private int depth = 1;
+
+        private Suppression() { }
+
+        @Override
+        public void close() {
+            if (--depth == 0) {
+                suppression.remove();
+            }
+        }
+    }
+
+    // ====================================================================================
+    // CONSEGNA
+    // ====================================================================================
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    // Eventi scartati per coda piena dall'installazione del bus
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    void publish(Subscription[] subscriptions, Tournament tournament) {
+        if (executor == null) {
+            for (Subscription subscription : subscriptions) {
+                subscription.observer().update(tournament);
+            }
+            return;
+        }
+        Tournament snapshot = tournament.snapshot();
+        for (Subscription subscription : subscriptions) {
+            subscription.enqueue(snapshot, this);
+        }
+    }
+
+    int queueCapacity() {
+        return queueCapacity;
+    }
+
+    Duration backpressureTimeout() {
+        return backpressureTimeout;
+    }
+
+    void dropped() {
+        droppedCount.incrementAndGet();
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+}
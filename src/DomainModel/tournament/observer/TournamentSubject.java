@@ -1,23 +1,40 @@
 package DomainModel.tournament.observer;
 
 import DomainModel.tournament.Tournament;
-import java.util.ArrayList;
-import java.util.List;
 
+// Registro copy-on-write: notifyObservers legge l'array corrente senza lock; add/remove (rari) lo ricopiano.
+// La consegna dipende dal bus installato (TournamentObserverBus): sincrona di default.
 public class TournamentSubject {
-    private final List<TournamentObserver> observers = new ArrayList<>();
+    private static final Subscription[] NONE = new Subscription[0];
 
-    public void addObserver(TournamentObserver observer) {
-        observers.add(observer);
+    private volatile Subscription[] subscriptions = NONE;
+
+    public synchronized void addObserver(TournamentObserver observer) {
+        Subscription[] current = subscriptions;
+        Subscription[] updated = new Subscription[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = new Subscription(observer);
+        subscriptions = updated;
     }
 
-    public void removeObserver(TournamentObserver observer) {
-        observers.remove(observer);
+    public synchronized void removeObserver(TournamentObserver observer) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].observer().equals(observer)) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated.length == 0 ? NONE : updated;
+                return;
+            }
+        }
     }
 
     public void notifyObservers(Tournament tournament) {
-        for (TournamentObserver observer : observers) {
-            observer.update(tournament);
+        Subscription[] current = subscriptions;
+        if (current.length == 0 || TournamentObserverBus.isSuppressed()) {
+            return;
         }
+        TournamentObserverBus.current().publish(current, tournament);
     }
 }
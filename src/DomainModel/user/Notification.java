@@ -0,0 +1,9 @@
+package DomainModel.user;
+
+import DomainModel.GameType;
+
+import java.time.Instant;
+
+// Messaggio per un utente, consegnato al prossimo accesso. gameType null = valido per ogni gioco;
+// notificationId 0 = non (ancora) persistito nella tabella notifications
+public record Notification(long notificationId, int userId, String message, GameType gameType, Instant createdAt) { }
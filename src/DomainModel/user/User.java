@@ -64,5 +64,20 @@ public class User {
         }
     }
 
+
+    //Sovrascrivo equals/hashCode per confrontare gli utenti in base al loro ID
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof User)) return false;
+        User user = (User) o;
+        return userId == user.userId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(userId);
+    }
+
 }
 
@@ -2,6 +2,10 @@ import Services.card.CardService;
 import Services.card.DeckService;
 import Services.tournament.RegistrationService;
 import Services.tournament.TournamentService;
+import Services.tournament.TournamentStatusScheduler;
+import Services.tournament.TournamentTransitionTimer;
+import Services.user.NotificationDispatcher;
+import Services.user.NotificationInbox;
 import Services.user.UserService;
 import Controllers.AdminController;
 import Controllers.GuestController;
@@ -9,21 +13,77 @@ import Controllers.OrganizerController;
 import Controllers.PlayerController;
 import Controllers.RoleMenuController;
 import Controllers.TournamentStatusController;
+import Controllers.session.UserSession;
+import DomainModel.tournament.observer.TournamentObserverBus;
 import ORM.connection.DatabaseConnection;
+import ORM.dao.NotificationDAO;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Scanner;
 
 public class Main {
 
     private static final Scanner scanner = new Scanner(System.in);
-    private static final UserService userService = new UserService(DatabaseConnection.getConnection());
-    private static final CardService cardService = new CardService(DatabaseConnection.getConnection());
-    private static final DeckService deckService = new DeckService(DatabaseConnection.getConnection());
-    private static final TournamentService tournamentService = new TournamentService(DatabaseConnection.getConnection());
-    private static final RegistrationService registrationService = new RegistrationService(DatabaseConnection.getConnection());
-    private static final TournamentStatusController tournamentStatusController = new TournamentStatusController(tournamentService);
+    private static final UserService userService = new UserService(DatabaseConnection.getDataSource());
+    private static final CardService cardService = new CardService(DatabaseConnection.getDataSource());
+    private static final DeckService deckService = new DeckService(DatabaseConnection.getDataSource());
+    private static final TournamentService tournamentService = new TournamentService(DatabaseConnection.getDataSource());
+    private static final RegistrationService registrationService = new RegistrationService(DatabaseConnection.getDataSource());
+    private static final TournamentStatusController tournamentStatusController = new TournamentStatusController(tournamentService, registrationService);
+
+    // Transizioni di stato guidate dalle scadenze di ogni torneo
+    private static final TournamentTransitionTimer transitionTimer =
+            new TournamentTransitionTimer(tournamentService, tournamentStatusController::publish);
+
+    // Sweep completo di riconciliazione (es. modifiche fatte direttamente sul DB); con il timer attivo
+    // basta raramente: intervallo in minuti configurabile con -Dtournament.sync.minutes.
+    // Nello stesso giro vengono eliminate le notifiche scadute.
+    private static final TournamentStatusScheduler statusScheduler = new TournamentStatusScheduler(
+            () -> {
+                int changes = tournamentStatusController.syncTournamentStatuses();
+                UserSession.getNotificationInbox().purgeExpired();
+                return changes;
+            },
+            Duration.ofMinutes(Long.getLong("tournament.sync.minutes", 360)),
+            Duration.ofSeconds(30)
+    );
 
     public static void main(String[] args) {
+        // Notifiche salvate nella tabella notifications (sopravvivono ai riavvii); le notifiche ai partecipanti
+        // dei tornei e ai promossi dalla lista d'attesa passano dall'outbox e le consegna il dispatcher.
+        // -Dnotifications.persist=false per tenerle solo in memoria
+        NotificationDispatcher notificationDispatcher = null;
+        if (Boolean.parseBoolean(System.getProperty("notifications.persist", "true"))) {
+            NotificationDAO notificationDAO = new NotificationDAO(DatabaseConnection.getDataSource());
+            NotificationInbox inbox = new NotificationInbox(notificationDAO);
+            try {
+                inbox.restore();
+            } catch (SQLException e) {
+                System.err.println("❌ Ripristino notifiche fallito: " + e.getMessage());
+            }
+            UserSession.setNotificationInbox(inbox);
+
+            notificationDispatcher = new NotificationDispatcher(notificationDAO, inbox);
+            tournamentService.setNotificationOutbox(notificationDAO, notificationDispatcher::wakeUp);
+            registrationService.setNotificationOutbox(notificationDAO, notificationDispatcher::wakeUp);
+            notificationDispatcher.start();
+        }
+
+        // Observer dei tornei chiamati fuori dal thread che cambia lo stato (code limitate per observer)
+        TournamentObserverBus observerBus = TournamentObserverBus.async();
+        TournamentObserverBus.install(observerBus);
+
+        tournamentService.setTransitionTimer(transitionTimer);
+        registrationService.setTransitionTimer(transitionTimer);
+        registrationService.setPromotionListener(tournamentStatusController::notifyWaitlistPromotion);
+        statusScheduler.start();
+        try {
+            transitionTimer.start();
+        } catch (SQLException e) {
+            System.err.println("❌ Avvio timer transizioni tornei fallito: " + e.getMessage());
+        }
+
         PlayerController playerController = new PlayerController(
                 scanner, cardService, deckService, tournamentService, registrationService, tournamentStatusController, userService
         );
@@ -39,5 +99,12 @@ public class Main {
         while (running) {
             running = guestController.showWelcomeMenuAndHandleSelection();
         }
+        transitionTimer.close();
+        statusScheduler.close();
+        if (notificationDispatcher != null) {
+            notificationDispatcher.close();
+        }
+        observerBus.close();
+        DatabaseConnection.closeConnection();
     }
 }
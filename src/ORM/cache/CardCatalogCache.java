@@ -0,0 +1,199 @@
+package ORM.cache;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Cache di secondo livello del catalogo carte, condivisa da tutti i servizi (CardService, DeckService).
+ *
+ * Tre viste sullo stesso catalogo:
+ *  - per id    : LRU limitata a maxCards voci
+ *  - per nome  : indice nome -> id, allineato alla LRU
+ *  - per gioco : lista completa delle carte di un GameType, tenuta solo se non supera maxCardsPerGameType
+ *
+ * Il catalogo cambia dalle operazioni admin e dagli import dei mazzi, che passano da CachingCardDAO e
+ * invalidano qui le voci interessate (write-through). Le istanze Card in cache vanno considerate in sola lettura.
+ * Ogni gioco ha una versione che cresce a ogni invalidazione delle sue carte: chi costruisce strutture
+ * derivate dal catalogo (es. gli indici di ricerca di CardService) la confronta per sapere se ricostruirle.
+ *
+ * Chi mette in cache una lettura dal DB passa la generazione letta prima della query (getGeneration):
+ * se nel frattempo c'e' stata un'invalidazione la put viene scartata, cosi' un valore letto prima di una
+ * modifica non resta in cache dopo di essa.
+ */
+public class CardCatalogCache {
+
+    private static final int DEFAULT_MAX_CARDS = 50_000;
+    private static final int DEFAULT_MAX_CARDS_PER_GAME_TYPE = 100_000;
+
+    private static CardCatalogCache instance;
+
+    private final int maxCards;
+    private final int maxCardsPerGameType;
+
+    private final LinkedHashMap<Integer, Card> byId;
+    private final Map<String, Integer> idByName = new HashMap<>();
+    private final Map<GameType, List<Card>> byGameType = new EnumMap<>(GameType.class);
+    // Giochi la cui lista e' in cache con tutte le carte ancora presenti nell'indice per nome
+    private final Set<GameType> indexedGameTypes = EnumSet.noneOf(GameType.class);
+    private final long[] gameTypeVersions = new long[GameType.values().length];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CardCatalogCache(int maxCards, int maxCardsPerGameType) {
+        this.maxCards = maxCards;
+        this.maxCardsPerGameType = maxCardsPerGameType;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Card> eldest) {
+                if (size() > CardCatalogCache.this.maxCards) {
+                    idByName.remove(eldest.getValue().getName());
+                    indexedGameTypes.remove(eldest.getValue().getType());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static synchronized CardCatalogCache getInstance() {
+        if (instance == null) {
+            instance = new CardCatalogCache(DEFAULT_MAX_CARDS, DEFAULT_MAX_CARDS_PER_GAME_TYPE);
+        }
+        return instance;
+    }
+
+    // ====================================================================================
+    // LETTURE (null = non in cache)
+    // ====================================================================================
+    public synchronized Card getById(int cardId) {
+        return record(byId.get(cardId));
+    }
+
+    public synchronized Card getByName(String name) {
+        Integer id = idByName.get(name);
+        return record(id == null ? null : byId.get(id));
+    }
+
+    public synchronized List<Card> getByGameType(GameType gameType) {
+        return record(byGameType.get(gameType));
+    }
+
+    // True se sono in cache i cataloghi completi di tutti i giochi e nessuna loro carta e' stata
+    // espulsa dalla LRU: un nome assente qui non esiste nel DB
+    public synchronized boolean isCatalogComplete() {
+        return indexedGameTypes.size() == GameType.values().length;
+    }
+
+    // Cambia a ogni invalidazione (vedi put/putGameType con generazione)
+    public long getGeneration() {
+        return invalidations.get();
+    }
+
+    // Cambia a ogni invalidazione che tocca il gioco (liste, carte aggiunte, rinominate o eliminate)
+    public synchronized long getGameTypeVersion(GameType gameType) {
+        return gameTypeVersions[gameType.ordinal()];
+    }
+
+    private <T> T record(T value) {
+        (value == null ? misses : hits).incrementAndGet();
+        return value;
+    }
+
+    // ====================================================================================
+    // SCRITTURE
+    // ====================================================================================
+    public synchronized void put(Card card) {
+        if (card == null || card.getName() == null) {
+            return;
+        }
+        byId.put(card.getCardId(), card);
+        idByName.put(card.getName(), card.getCardId());
+    }
+
+    // Come put, ma solo se dalla lettura (generation = getGeneration() prima della query) nulla e' stato invalidato
+    public synchronized void put(Card card, long generation) {
+        if (generation == invalidations.get()) {
+            put(card);
+        }
+    }
+
+    public synchronized void putGameType(GameType gameType, List<Card> cards, long generation) {
+        if (generation == invalidations.get()) {
+            putGameType(gameType, cards);
+        }
+    }
+
+    public synchronized void putGameType(GameType gameType, List<Card> cards) {
+        if (cards.size() > maxCardsPerGameType) {
+            return;
+        }
+        byGameType.put(gameType, List.copyOf(cards));
+        for (Card card : cards) {
+            put(card);
+        }
+        if (cards.size() <= maxCards) {
+            indexedGameTypes.add(gameType);
+        }
+    }
+
+    // Invalida la carta (id + nome) e le liste dei giochi indicati
+    public synchronized void invalidate(int cardId, GameType... gameTypes) {
+        Card removed = byId.remove(cardId);
+        if (removed != null) {
+            idByName.remove(removed.getName());
+        }
+        for (GameType gameType : gameTypes) {
+            if (gameType != null) {
+                byGameType.remove(gameType);
+                indexedGameTypes.remove(gameType);
+                gameTypeVersions[gameType.ordinal()]++;
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByName.clear();
+        byGameType.clear();
+        indexedGameTypes.clear();
+        for (int i = 0; i < gameTypeVersions.length; i++) {
+            gameTypeVersions[i]++;
+        }
+        invalidations.incrementAndGet();
+    }
+
+    // ====================================================================================
+    // METRICHE
+    // ====================================================================================
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getInvalidations() { return invalidations.get(); }
+    public synchronized int size() { return byId.size(); }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CardCatalogCache{size=" + size() + "/" + maxCards
+                + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + ", invalidations=" + getInvalidations() + "}";
+    }
+}
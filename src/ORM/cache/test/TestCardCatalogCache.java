@@ -0,0 +1,106 @@
+package ORM.cache.test;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import ORM.cache.CardCatalogCache;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCardCatalogCache {
+
+    private CardCatalogCache cache;
+
+    @BeforeEach
+    void setup() {
+        cache = new CardCatalogCache(2, 10);
+    }
+
+    private static Card card(int id, String name, GameType type) {
+        Card card = new Card(name, type);
+        card.setCardId(id);
+        return card;
+    }
+
+    @Test
+    void lookupsByIdAndNameCountHitsAndMisses() {
+        Card bolt = card(1, "Lightning Bolt", GameType.MAGIC);
+        cache.put(bolt);
+
+        assertSame(bolt, cache.getById(1));
+        assertSame(bolt, cache.getByName("Lightning Bolt"));
+        assertNull(cache.getByName("Pikachu"));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedCardIsEvicted() {
+        cache.put(card(1, "A", GameType.MAGIC));
+        cache.put(card(2, "B", GameType.MAGIC));
+        cache.getById(1);
+        cache.put(card(3, "C", GameType.MAGIC));
+
+        assertNotNull(cache.getById(1));
+        assertNull(cache.getById(2));
+        assertNull(cache.getByName("B"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void invalidateDropsCardAndGameTypeList() {
+        Card pikachu = card(5, "Pikachu", GameType.POKEMON);
+        cache.putGameType(GameType.POKEMON, List.of(pikachu));
+
+        cache.invalidate(5, GameType.POKEMON);
+
+        assertNull(cache.getById(5));
+        assertNull(cache.getByName("Pikachu"));
+        assertNull(cache.getByGameType(GameType.POKEMON));
+    }
+
+    @Test
+    void catalogIsCompleteOnlyWithEveryGameTypeCached() {
+        cache.putGameType(GameType.MAGIC, List.of(card(1, "A", GameType.MAGIC)));
+        cache.putGameType(GameType.POKEMON, List.of());
+        assertFalse(cache.isCatalogComplete());
+
+        cache.putGameType(GameType.YUGIOH, List.of(card(2, "B", GameType.YUGIOH)));
+        assertTrue(cache.isCatalogComplete());
+
+        // Una carta espulsa dalla LRU rende il catalogo di nuovo incompleto
+        cache.put(card(3, "C", GameType.POKEMON));
+        assertFalse(cache.isCatalogComplete());
+    }
+
+    @Test
+    void invalidationBumpsOnlyTheVersionOfTheGameTypesItTouches() {
+        long magic = cache.getGameTypeVersion(GameType.MAGIC);
+        long pokemon = cache.getGameTypeVersion(GameType.POKEMON);
+
+        cache.invalidate(7, GameType.MAGIC);
+        assertEquals(magic + 1, cache.getGameTypeVersion(GameType.MAGIC));
+        assertEquals(pokemon, cache.getGameTypeVersion(GameType.POKEMON));
+
+        cache.clear();
+        assertEquals(pokemon + 1, cache.getGameTypeVersion(GameType.POKEMON));
+    }
+
+    @Test
+    void putOfAReadStartedBeforeAnInvalidationIsSkipped() {
+        long generation = cache.getGeneration();
+        // Rinomina concorrente: invalida mentre la lettura e' ancora sul DB
+        cache.invalidate(1, GameType.values());
+
+        cache.put(card(1, "Old Name", GameType.MAGIC), generation);
+        cache.putGameType(GameType.MAGIC, List.of(card(1, "Old Name", GameType.MAGIC)), generation);
+        assertNull(cache.getById(1));
+        assertNull(cache.getByGameType(GameType.MAGIC));
+
+        cache.put(card(1, "New Name", GameType.MAGIC), cache.getGeneration());
+        assertEquals("New Name", cache.getById(1).getName());
+    }
+}
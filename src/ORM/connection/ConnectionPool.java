@@ -0,0 +1,445 @@
+package ORM.connection;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/*
+ * Pool di connessioni JDBC limitato (min/max), usato al posto della singola connessione statica.
+ *
+ * - getConnection() attende al massimo borrowTimeoutMs che si liberi una connessione;
+ * - ogni connessione viene validata (isValid) prima di essere consegnata;
+ * - un thread di manutenzione chiude le connessioni inattive oltre idleTimeoutMs (senza scendere sotto minIdle)
+ *   e segnala le connessioni tenute in prestito oltre leakThresholdMs;
+ * - close() sulla connessione restituita la rimette nel pool invece di chiuderla;
+ * - con statementCacheSize > 0 ogni connessione fisica tiene una cache LRU dei PreparedStatement
+ *   (StatementCache): prepareStatement(sql) con lo stesso SQL riusa lo statement gia' preparato.
+ *
+ * Il prestito e' rientrante per thread: se un DAO chiama un altro DAO mentre ha gia' una connessione aperta
+ * (es. TournamentDAO -> RegistrationDAO -> UserDAO), riceve la stessa connessione fisica. Cosi' una singola
+ * operazione non occupa piu' di una connessione e le transazioni aperte dal chiamante restano visibili.
+ * Un handle puo' essere chiuso anche da un altro thread (es. uno Stream passato ad altri): la connessione
+ * ricorda il thread che l'ha presa (owner) e il legame di quel thread, rimasto nel suo ThreadLocal,
+ * viene scartato al suo prossimo getConnection() invece di condividere una connessione ormai restituita.
+ * getDetachedConnection() presta invece una connessione fuori da questo meccanismo, per chi deve tenerne
+ * una aperta senza coinvolgere le transazioni del thread.
+ */
+public class ConnectionPool implements DataSource {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MS = 30_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+    private final int statementCacheSize;   // 0 = nessuna cache degli statement
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new ConcurrentHashMap<>();
+    private final ThreadLocal<PooledConnection> boundToThread = new ThreadLocal<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minIdle, int maxSize,
+                          long borrowTimeoutMs, long idleTimeoutMs, long leakThresholdMs) {
+        this(url, user, password, minIdle, maxSize, borrowTimeoutMs, idleTimeoutMs, leakThresholdMs, 0);
+    }
+
+    public ConnectionPool(String url, String user, String password,
+                          int minIdle, int maxSize,
+                          long borrowTimeoutMs, long idleTimeoutMs, long leakThresholdMs,
+                          int statementCacheSize) {
+        if (minIdle < 0 || maxSize < 1 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minIdle + ", max=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeper.scheduleAtFixedRate(this::housekeeping,
+                HOUSEKEEPING_PERIOD_MS, HOUSEKEEPING_PERIOD_MS, TimeUnit.MILLISECONDS);
+
+        fillToMinIdle();
+    }
+
+    // ====================================================================================
+    // 1) BORROW
+    // ====================================================================================
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        // Prestito rientrante: il thread ha gia' una connessione in uso
+        PooledConnection bound = boundToThread.get();
+        if (bound != null) {
+            if (bound.reenter(Thread.currentThread())) {
+                return bound.newHandle();
+            }
+            boundToThread.remove();   // restituita da un altro thread: legame scaduto
+        }
+
+        PooledConnection pooled = borrow(Thread.currentThread());
+        boundToThread.set(pooled);
+        return pooled.newHandle();
+    }
+
+    /*
+     * Connessione dedicata, non legata al thread: i getConnection() successivi dello stesso thread non la
+     * ricevono, quindi le sue transazioni restano separate da quelle dei DAO (es. il cursore di JdbcStreams).
+     * Occupa un posto in piu' nel pool finche' non viene chiusa.
+     */
+    public Connection getDetachedConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        return borrow(null).newHandle();
+    }
+
+    // owner null = prestito dedicato, nessun thread puo' rientrarvi
+    private PooledConnection borrow(Thread owner) throws SQLException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timeout: no connection available after " + borrowTimeoutMs + " ms "
+                        + "(pool size " + maxSize + ", in use " + borrowed.size() + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = openPhysicalConnection();
+            }
+            pooled.lend(owner);
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowedBy = leakThresholdMs > 0 ? new Exception("Connessione presa in prestito qui") : null;
+            pooled.leakReported = false;
+            borrowed.put(pooled, Boolean.TRUE);
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool uses the configured credentials.");
+    }
+
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (isValid(candidate)) {
+                return candidate;
+            }
+            discard(candidate);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return !pooled.physical.isClosed() && pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysicalConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    // ====================================================================================
+    // 2) RETURN
+    // ====================================================================================
+    private void release(PooledConnection pooled) {
+        if (!pooled.giveBack()) {
+            return;   // restano altri handle aperti
+        }
+
+        // Il legame del thread proprietario si toglie qui solo se e' lui a chiudere; altrimenti
+        // lo scarta getConnection() su quel thread (vedi reenter)
+        if (boundToThread.get() == pooled) {
+            boundToThread.remove();
+        }
+        borrowed.remove(pooled);
+        try {
+            // Ripristina lo stato di default prima di rimettere la connessione nel pool
+            if (!pooled.physical.isClosed() && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+            } else {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // la connessione e' gia' inutilizzabile
+        }
+    }
+
+    // ====================================================================================
+    // 3) HOUSEKEEPING (idle eviction + leak detection)
+    // ====================================================================================
+    private void housekeeping() {
+        long now = System.currentTimeMillis();
+
+        if (idleTimeoutMs > 0) {
+            for (PooledConnection pooled : idle) {
+                if (totalConnections.get() <= minIdle) {
+                    break;
+                }
+                if (now - pooled.lastUsedAt > idleTimeoutMs && idle.remove(pooled)) {
+                    discard(pooled);
+                }
+            }
+        }
+
+        if (leakThresholdMs > 0) {
+            for (PooledConnection pooled : borrowed.keySet()) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMs) {
+                    pooled.leakReported = true;
+                    System.err.println("⚠️ Possibile leak: connessione in prestito da "
+                            + (now - pooled.borrowedAt) + " ms.");
+                    if (pooled.borrowedBy != null) {
+                        pooled.borrowedBy.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        fillToMinIdle();
+    }
+
+    private void fillToMinIdle() {
+        while (!closed && totalConnections.get() < minIdle && idle.size() < minIdle) {
+            try {
+                idle.offerLast(openPhysicalConnection());
+            } catch (SQLException e) {
+                System.err.println("❌ Errore nell'apertura di una connessione del pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // ====================================================================================
+    // 4) SHUTDOWN / STATS
+    // ====================================================================================
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public boolean isClosed() { return closed; }
+    public int getTotalConnections() { return totalConnections.get(); }
+    public int getIdleConnections() { return idle.size(); }
+    public int getActiveConnections() { return borrowed.size(); }
+    public int getMaxSize() { return maxSize; }
+    public long getStatementCacheHits() { return statementCacheHits.get(); }
+    public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+
+    // ====================================================================================
+    // DataSource boilerplate
+    // ====================================================================================
+    @Override
+    public PrintWriter getLogWriter() { return DriverManager.getLogWriter(); }
+
+    @Override
+    public void setLogWriter(PrintWriter out) { DriverManager.setLogWriter(out); }
+
+    @Override
+    public void setLoginTimeout(int seconds) { DriverManager.setLoginTimeout(seconds); }
+
+    @Override
+    public int getLoginTimeout() { return DriverManager.getLoginTimeout(); }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) { return iface.isInstance(this); }
+
+    // ====================================================================================
+    // CONNESSIONE FISICA + HANDLE RESTITUITO AI DAO
+    // ====================================================================================
+    private final class PooledConnection {
+        private final Connection physical;
+        private int holdCount;              // handle aperti; holdCount e owner sotto il lock della connessione
+        private Thread owner;               // thread che l'ha presa in prestito, null se nel pool o dedicata
+        private volatile long borrowedAt;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+        private volatile Exception borrowedBy;
+        private volatile boolean leakReported;
+        private final StatementCache statements;   // null = cache disabilitata
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses)
+                    : null;
+        }
+
+        private synchronized void lend(Thread borrower) {
+            owner = borrower;
+            holdCount = 1;
+        }
+
+        //Prestito rientrante: solo se e' ancora in prestito allo stesso thread
+        private synchronized boolean reenter(Thread borrower) {
+            if (owner != borrower) {
+                return false;
+            }
+            holdCount++;
+            return true;
+        }
+
+        //Chiusura di un handle: true se era l'ultimo e la connessione torna al pool
+        private synchronized boolean giveBack() {
+            if (--holdCount > 0) {
+                return false;
+            }
+            owner = null;
+            return true;
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    // Ogni getConnection() restituisce un handle distinto: close() e' idempotente per handle
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean handleClosed;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return handleClosed || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + pooled.physical + "]";
+                }
+                default -> {
+                    if (handleClosed) {
+                        throw new SQLException("Connection already returned to the pool.");
+                    }
+                    // prepareStatement(sql) e prepareStatement(sql, autoGeneratedKeys) passano dalla cache
+                    if (pooled.statements != null && method.getName().equals("prepareStatement")) {
+                        if (args.length == 1) {
+                            return pooled.statements.prepare(pooled.physical, (Connection) proxy,
+                                    (String) args[0], Statement.NO_GENERATED_KEYS);
+                        }
+                        if (args.length == 2 && args[1] instanceof Integer autoGeneratedKeys) {
+                            return pooled.statements.prepare(pooled.physical, (Connection) proxy,
+                                    (String) args[0], autoGeneratedKeys);
+                        }
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
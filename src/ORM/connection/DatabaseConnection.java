@@ -1,7 +1,7 @@
 package ORM.connection;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
@@ -9,34 +9,57 @@ public class DatabaseConnection {
     private static final String USER = "postgres";
     private static final String PASSWORD = "admin";
 
-    private static Connection connection = null;
+    // Parametri del pool
+    private static final int POOL_MIN_IDLE = 2;
+    private static final int POOL_MAX_SIZE = 20;
+    private static final long POOL_BORROW_TIMEOUT_MS = 5_000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 30_000;
+
+    // Statement preparati: cache LRU per connessione (-Ddb.statementCacheSize, 0 = disattivata) e numero di
+    // esecuzioni dello stesso statement dopo cui il driver lo prepara sul server (-Ddb.prepareThreshold)
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("db.statementCacheSize", 64);
+    private static final int PREPARE_THRESHOLD = Integer.getInteger("db.prepareThreshold", 1);
+
+    private static ConnectionPool pool = null;
 
     private DatabaseConnection() { }
 
-    public static Connection getConnection() {
-        if (connection == null) {
+    public static synchronized DataSource getDataSource() {
+        if (pool == null || pool.isClosed()) {
             try {
                 Class.forName("org.postgresql.Driver");
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("✅ Connessione al database stabilita.");
+                pool = new ConnectionPool(URL + "?prepareThreshold=" + PREPARE_THRESHOLD, USER, PASSWORD,
+                        POOL_MIN_IDLE, POOL_MAX_SIZE,
+                        POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS,
+                        STATEMENT_CACHE_SIZE);
+                System.out.println("✅ Pool di connessioni al database avviato.");
             } catch (ClassNotFoundException e) {
                 System.err.println("❌ Driver PostgreSQL non trovato: " + e.getMessage());
-            } catch (SQLException e) {
-                System.err.println("❌ Errore nella connessione: " + e.getMessage());
             }
         }
-        return connection;
+        return pool;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                System.out.println("🔒 Connessione chiusa.");
-            } catch (SQLException e) {
-                System.err.println("❌ Errore nella chiusura della connessione: " + e.getMessage());
-            }
+    // Prende in prestito una connessione dal pool: il chiamante deve chiuderla per restituirla.
+    public static Connection getConnection() {
+        DataSource dataSource = getDataSource();
+        if (dataSource == null) {
+            return null;
+        }
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            System.err.println("❌ Errore nella connessione: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            System.out.println("🔒 Pool di connessioni chiuso.");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,258 @@
+package ORM.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Cache LRU dei PreparedStatement di una connessione fisica del pool (al massimo maxSize statement).
+ *
+ * I DAO continuano a scrivere try (PreparedStatement ps = connection.prepareStatement(sql)) { ... }:
+ * con lo stesso SQL ricevono lo stesso statement fisico, e close() lo rimette in cache (parametri e batch
+ * azzerati, ResultSet aperti chiusi) invece di chiuderlo. Cosi' il driver riusa lo statement preparato sul
+ * server (PostgreSQL: dopo prepareThreshold esecuzioni dello stesso statement) e parse/plan spariscono dal
+ * costo delle lookup ripetute, anche nei cicli N+1.
+ *
+ * - Uno statement gia' in uso (stesso SQL aperto due volte insieme) non viene condiviso: la seconda richiesta
+ *   riceve uno statement fuori cache, chiuso davvero alla close (anche lui restituisce l'handle da getConnection()).
+ * - Uno statement su cui il DAO cambia impostazioni (fetch size, max rows, timeout, ...) non torna in cache:
+ *   il prossimo utilizzatore non eredita configurazioni altrui.
+ * - Lo statement espulso dall'LRU mentre e' in uso viene chiuso quando il DAO lo restituisce.
+ *
+ * Di solito la usa solo il thread che ha la connessione in prestito, ma un handle (e i suoi statement) puo'
+ * essere chiuso da un altro thread (vedi ConnectionPool): lo stato della cache e' protetto dal lock della cache,
+ * una per connessione fisica.
+ */
+final class StatementCache {
+
+    // Metodi che cambiano la configurazione dello statement (non i parametri della query)
+    private static final Set<String> CONFIGURING_METHODS = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize",
+            "setQueryTimeout", "setEscapeProcessing", "setPoolable", "setCursorName", "closeOnCompletion");
+
+    private record Key(String sql, int autoGeneratedKeys) { }
+
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    // handle = connessione vista dal DAO (restituita da Statement.getConnection())
+    synchronized PreparedStatement prepare(Connection physical, Connection handle, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            if (!cached.statement.isClosed()) {
+                hits.incrementAndGet();
+                return cached.checkOut(handle);
+            }
+            statements.remove(key);
+            cached = null;
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            return uncached(statement, handle);   // stesso SQL gia' in uso: statement non condiviso
+        }
+        CachedStatement created = new CachedStatement(key, statement);
+        statements.put(key, created);
+        return created.checkOut(handle);
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    // Statement fuori cache: delega tutto, ma getConnection() restituisce l'handle e non la connessione fisica
+    private static PreparedStatement uncached(PreparedStatement statement, Connection handle) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConnection" -> handle;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        try {
+                            yield method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    // ====================================================================================
+    // STATEMENT IN CACHE + HANDLE RESTITUITO AI DAO
+    // ====================================================================================
+    private final class CachedStatement {
+        private final Key key;
+        private final PreparedStatement statement;
+        private final List<ResultSet> openResultSets = new ArrayList<>(1);
+        private boolean inUse;
+        private boolean dirty;     // configurazione cambiata dal DAO: non riutilizzabile
+        private boolean evicted;   // uscito dall'LRU mentre era in uso
+
+        private CachedStatement(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkOut(Connection handle) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle(this, handle));
+        }
+
+        private void checkIn() {
+            synchronized (StatementCache.this) {
+                returnToCache();
+            }
+        }
+
+        // Lo statement torna al pool anche se a chiuderlo e' un altro thread: sempre sotto il lock della cache
+        private void track(ResultSet rs) {
+            synchronized (StatementCache.this) {
+                openResultSets.add(rs);
+            }
+        }
+
+        private void markDirty() {
+            synchronized (StatementCache.this) {
+                dirty = true;
+            }
+        }
+
+        private void returnToCache() {
+            inUse = false;
+            for (ResultSet rs : openResultSets) {
+                closeQuietly(rs);
+            }
+            openResultSets.clear();
+            if (dirty || evicted) {
+                discard();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                discard();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly(statement);
+            }
+        }
+
+        private void discard() {
+            statements.remove(key, this);
+            closeQuietly(statement);
+        }
+    }
+
+    // Ogni prepareStatement() restituisce un handle distinto: close() e' idempotente per handle
+    private static final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connection;
+        private boolean handleClosed;
+
+        private Handle(CachedStatement cached, Connection connection) {
+            this.cached = cached;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close" -> {
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        cached.checkIn();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return handleClosed || cached.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "CachedStatement[" + cached.key.sql().strip() + "]";
+                }
+                default -> {
+                    if (handleClosed) {
+                        throw new SQLException("Statement already closed.");
+                    }
+                    if (CONFIGURING_METHODS.contains(name)) {
+                        cached.markDirty();
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet rs) {
+                        cached.track(rs);
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // risorsa gia' inutilizzabile
+        }
+    }
+}
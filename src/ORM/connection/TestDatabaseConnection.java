@@ -9,6 +9,7 @@ public class TestDatabaseConnection {
 
         if (conn != null) {
             System.out.println("✅ Test riuscito: connessione attiva!");
+            conn.close(); // restituisce la connessione al pool
             DatabaseConnection.closeConnection();
         } else {
             System.out.println("❌ Test fallito: connessione nulla!");
@@ -0,0 +1,317 @@
+package ORM.connection.test;
+
+import ORM.connection.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConnectionPool {
+
+    private static final String URL = "jdbc:fakepool:test";
+    private static FakeDriver driver;
+    private ConnectionPool pool;
+
+    @BeforeAll
+    static void registerDriver() throws Exception {
+        driver = new FakeDriver();
+        DriverManager.registerDriver(driver);
+    }
+
+    @AfterAll
+    static void deregisterDriver() throws Exception {
+        DriverManager.deregisterDriver(driver);
+    }
+
+    @BeforeEach
+    void setup() {
+        driver.opened.set(0);
+        driver.prepared.set(0);
+        driver.closedStatements.set(0);
+        driver.valid = true;
+        pool = new ConnectionPool(URL, "u", "p", 0, 2, 200, 60_000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void closeReturnsConnectionToPool() throws Exception {
+        Connection c = pool.getConnection();
+        assertEquals(1, pool.getActiveConnections());
+        c.close();
+
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(1, pool.getIdleConnections());
+
+        try (Connection again = pool.getConnection()) {
+            assertFalse(again.isClosed());
+        }
+        assertEquals(1, driver.opened.get());
+    }
+
+    @Test
+    void nestedBorrowOnSameThreadReusesConnection() throws Exception {
+        try (Connection outer = pool.getConnection();
+             Connection inner = pool.getConnection()) {
+            assertEquals(1, pool.getActiveConnections());
+            assertFalse(inner.isClosed());
+        }
+        assertEquals(1, driver.opened.get());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void handleClosedByAnotherThreadDoesNotLeaveStaleBinding() throws Exception {
+        Connection borrowed = pool.getConnection();
+        Thread closer = new Thread(() -> {
+            try {
+                borrowed.close();
+            } catch (SQLException e) {
+                fail(e);
+            }
+        });
+        closer.start();
+        closer.join();
+        assertEquals(0, pool.getActiveConnections());
+
+        // Un altro thread riprende la stessa connessione fisica e la tiene
+        Thread holder = new Thread(() -> {
+            try {
+                pool.getConnection();
+            } catch (SQLException e) {
+                fail(e);
+            }
+        });
+        holder.start();
+        holder.join();
+        assertEquals(1, pool.getActiveConnections());
+
+        // Il thread originale non deve riusarla: ne riceve una sua
+        try (Connection again = pool.getConnection()) {
+            assertFalse(again.isClosed());
+            assertEquals(2, pool.getActiveConnections());
+        }
+        assertEquals(2, driver.opened.get());
+        assertEquals(1, pool.getActiveConnections());
+    }
+
+    @Test
+    void detachedConnectionIsNotSharedWithThreadBorrows() throws Exception {
+        Connection detached = pool.getDetachedConnection();
+        Connection bound = pool.getConnection();
+        assertEquals(2, pool.getActiveConnections());
+        assertEquals(2, driver.opened.get());
+
+        // Chiudere la dedicata non tocca il legame del thread
+        detached.close();
+        try (Connection nested = pool.getConnection()) {
+            assertFalse(nested.isClosed());
+            assertEquals(1, pool.getActiveConnections());
+        }
+        bound.close();
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(2, pool.getIdleConnections());
+    }
+
+    @Test
+    void borrowTimesOutWhenPoolExhausted() throws Exception {
+        // Due thread diversi occupano entrambe le connessioni senza restituirle
+        for (int i = 0; i < 2; i++) {
+            Thread holder = new Thread(() -> {
+                try {
+                    pool.getConnection();
+                } catch (SQLException e) {
+                    fail(e);
+                }
+            });
+            holder.start();
+            holder.join();
+        }
+
+        assertThrows(SQLException.class, () -> pool.getConnection());
+    }
+
+    @Test
+    void invalidIdleConnectionIsReplaced() throws Exception {
+        pool.getConnection().close();
+        driver.valid = false;
+
+        try (Connection c = pool.getConnection()) {
+            assertNotNull(c);
+        }
+        assertEquals(2, driver.opened.get());
+    }
+
+    @Test
+    void closedHandleRejectsFurtherUse() throws Exception {
+        Connection c = pool.getConnection();
+        c.close();
+
+        assertTrue(c.isClosed());
+        assertThrows(SQLException.class, () -> c.createStatement());
+    }
+
+    @Test
+    void statementCacheReusesPreparedStatementAcrossBorrows() throws Exception {
+        ConnectionPool cached = new ConnectionPool(URL, "u", "p", 0, 2, 200, 60_000, 0, 2);
+        try {
+            for (int i = 0; i < 3; i++) {
+                try (Connection c = cached.getConnection();
+                     PreparedStatement ps = c.prepareStatement("SELECT 1 WHERE id = ?")) {
+                    ps.setInt(1, i);
+                    ps.executeQuery();
+                    assertSame(c, ps.getConnection());
+                }
+            }
+            assertEquals(1, driver.prepared.get());
+            assertEquals(0, driver.closedStatements.get());
+            assertEquals(2, cached.getStatementCacheHits());
+            assertEquals(1, cached.getStatementCacheMisses());
+        } finally {
+            cached.close();
+        }
+    }
+
+    @Test
+    void statementCacheDoesNotShareStatementsInUseAndEvictsLeastRecentlyUsed() throws Exception {
+        ConnectionPool cached = new ConnectionPool(URL, "u", "p", 0, 2, 200, 60_000, 0, 2);
+        try (Connection c = cached.getConnection()) {
+            try (PreparedStatement outer = c.prepareStatement("A");
+                 PreparedStatement inner = c.prepareStatement("A")) {
+                assertNotSame(outer, inner);
+            }
+            assertEquals(2, driver.prepared.get());
+            assertEquals(1, driver.closedStatements.get());   // quello non condiviso
+
+            c.prepareStatement("B").close();
+            c.prepareStatement("A").close();                   // A piu' recente di B
+            c.prepareStatement("C").close();                   // espelle B
+            assertEquals(2, driver.closedStatements.get());
+
+            c.prepareStatement("A").close();
+            assertEquals(4, driver.prepared.get());
+
+            // Configurazione cambiata: non torna in cache
+            try (PreparedStatement ps = c.prepareStatement("A")) {
+                ps.setFetchSize(100);
+            }
+            c.prepareStatement("A").close();
+            assertEquals(5, driver.prepared.get());
+        } finally {
+            cached.close();
+        }
+    }
+
+    @Test
+    void statementPreparedWhileTheCachedOneIsInUseStillReportsTheHandle() throws Exception {
+        ConnectionPool cached = new ConnectionPool(URL, "u", "p", 0, 2, 200, 60_000, 0, 2);
+        try (Connection c = cached.getConnection();
+             PreparedStatement first = c.prepareStatement("A")) {
+            PreparedStatement second = c.prepareStatement("A");
+            assertSame(c, first.getConnection());
+            assertSame(c, second.getConnection());
+            assertEquals(2, driver.prepared.get());
+
+            // Fuori cache: chiuso davvero
+            second.close();
+            assertEquals(1, driver.closedStatements.get());
+        } finally {
+            cached.close();
+        }
+    }
+
+    @Test
+    void closedCachedStatementRejectsFurtherUse() throws Exception {
+        ConnectionPool cached = new ConnectionPool(URL, "u", "p", 0, 2, 200, 60_000, 0, 2);
+        try (Connection c = cached.getConnection()) {
+            PreparedStatement ps = c.prepareStatement("A");
+            ps.close();
+            assertTrue(ps.isClosed());
+            assertThrows(SQLException.class, () -> ps.setInt(1, 1));
+        } finally {
+            cached.close();
+        }
+    }
+
+    // Driver JDBC minimale: crea connessioni finte per il prefisso jdbc:fakepool:
+    private static class FakeDriver implements Driver {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger prepared = new AtomicInteger();
+        final AtomicInteger closedStatements = new AtomicInteger();
+        volatile boolean valid = true;
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            opened.incrementAndGet();
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "isValid" -> valid && !closed[0];
+                        case "isClosed" -> closed[0];
+                        case "close" -> {
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "getAutoCommit" -> true;
+                        case "prepareStatement" -> {
+                            prepared.incrementAndGet();
+                            yield fakeStatement();
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+
+        private PreparedStatement fakeStatement() {
+            boolean[] closed = {false};
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "isClosed" -> closed[0];
+                        case "close" -> {
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                closedStatements.incrementAndGet();
+                            }
+                            yield null;
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) { return url.startsWith("jdbc:fakepool:"); }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) { return new DriverPropertyInfo[0]; }
+
+        @Override
+        public int getMajorVersion() { return 1; }
+
+        @Override
+        public int getMinorVersion() { return 0; }
+
+        @Override
+        public boolean jdbcCompliant() { return false; }
+
+        @Override
+        public Logger getParentLogger() { return Logger.getGlobal(); }
+    }
+}
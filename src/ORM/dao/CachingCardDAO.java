@@ -0,0 +1,178 @@
+package ORM.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import ORM.cache.CardCatalogCache;
+
+/*
+ * CardDAO con davanti la cache condivisa del catalogo (CardCatalogCache).
+ *
+ * Letture: prima la cache, poi il DB (e una copia del risultato viene messa in cache, se nessuna invalidazione
+ * e' arrivata durante la query: vedi CardCatalogCache.getGeneration).
+ * Scritture: vanno sul DB e poi invalidano le voci toccate, cosi' le letture successive ricaricano.
+ * In cache finiscono sempre copie: le istanze lette dal DB sono quelle canoniche della UnitOfWork del chiamante
+ * e non devono essere condivise con gli altri thread.
+ * getCardById/getCardByName restituiscono una copia della voce in cache, perche' i servizi modificano la carta
+ * letta prima di salvarla; dentro una UnitOfWork la copia e' registrata come canonica, quindi lo stesso id
+ * da' la stessa istanza per tutta la richiesta.
+ * Le liste (per gioco, tutte) sono immutabili sia da cache sia da DB; quelle servite dalla cache contengono
+ * le carte della cache e vanno trattate in sola lettura.
+ */
+public class CachingCardDAO extends CardDAO {
+
+    private final CardCatalogCache cache;
+
+    public CachingCardDAO(DataSource dataSource, CardCatalogCache cache) {
+        super(dataSource);
+        this.cache = cache;
+    }
+
+    // ====================================================================================
+    // 1) CREATE
+    // ====================================================================================
+    @Override
+    public void addCard(Card card) throws SQLException {
+        super.addCard(card);
+        cache.invalidate(card.getCardId(), card.getType());
+    }
+
+    @Override
+    public void addCards(List<Card> cards) throws SQLException {
+        super.addCards(cards);
+        for (Card card : cards) {
+            cache.invalidate(card.getCardId(), card.getType());
+        }
+    }
+
+    // ====================================================================================
+    // 2) READ by Id
+    // ====================================================================================
+    @Override
+    public Card getCardById(int id) throws SQLException {
+        Card inRequest = UnitOfWork.lookup(Card.class, id);
+        if (inRequest != null) {
+            return inRequest;
+        }
+        long generation = cache.getGeneration();
+        Card cached = cache.getById(id);
+        if (cached != null) {
+            return canonicalCopy(cached);
+        }
+        Card card = super.getCardById(id);
+        cache.put(copyOf(card), generation);
+        return card;
+    }
+
+    // ====================================================================================
+    // 3) READ by name
+    // ====================================================================================
+    @Override
+    public Card getCardByName(String name) throws SQLException {
+        long generation = cache.getGeneration();
+        Card cached = cache.getByName(name);
+        if (cached != null) {
+            return canonicalCopy(cached);
+        }
+        // Con tutto il catalogo in cache un nome assente non esiste: niente query (es. controllo duplicati)
+        if (cache.isCatalogComplete()) {
+            return null;
+        }
+        Card card = super.getCardByName(name);
+        cache.put(copyOf(card), generation);
+        return card;
+    }
+
+    // ====================================================================================
+    // 4) READ by GameType
+    // ====================================================================================
+    @Override
+    public List<Card> getCardsByGameType(GameType gameType) throws SQLException {
+        long generation = cache.getGeneration();
+        List<Card> cached = cache.getByGameType(gameType);
+        if (cached != null) {
+            return cached;
+        }
+        List<Card> cards = List.copyOf(super.getCardsByGameType(gameType));
+        cache.putGameType(gameType, copiesOf(cards), generation);
+        return cards;
+    }
+
+    // ====================================================================================
+    // 5) READ all
+    // ====================================================================================
+    @Override
+    public List<Card> getAllCards() throws SQLException {
+        if (cache.isCatalogComplete()) {
+            List<Card> all = new ArrayList<>();
+            for (GameType gameType : GameType.values()) {
+                all.addAll(cache.getByGameType(gameType));
+            }
+            return Collections.unmodifiableList(all);
+        }
+
+        // Una lettura completa basta a popolare le liste di tutti i giochi
+        long generation = cache.getGeneration();
+        List<Card> all = super.getAllCards();
+        Map<GameType, List<Card>> byGameType = new EnumMap<>(GameType.class);
+        for (GameType gameType : GameType.values()) {
+            byGameType.put(gameType, new ArrayList<>());
+        }
+        for (Card card : all) {
+            byGameType.get(card.getType()).add(copyOf(card));
+        }
+        byGameType.forEach((gameType, cards) -> cache.putGameType(gameType, cards, generation));
+        return Collections.unmodifiableList(all);
+    }
+
+    // ====================================================================================
+    // 6) UPDATE
+    // ====================================================================================
+    @Override
+    public void updateCard(Card card) throws SQLException {
+        super.updateCard(card);
+        // Il vecchio GameType non e' noto (potrebbe essere cambiato): si scartano tutte le liste
+        cache.invalidate(card.getCardId(), GameType.values());
+    }
+
+    // ====================================================================================
+    // 7) DELETE
+    // ====================================================================================
+    @Override
+    public void deleteCard(int id) throws SQLException {
+        super.deleteCard(id);
+        cache.invalidate(id, GameType.values());
+    }
+
+    // =====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    // Copia della voce in cache, canonica nella UnitOfWork attiva (se c'e')
+    private static Card canonicalCopy(Card cached) {
+        return UnitOfWork.canonical(Card.class, cached.getCardId(), copyOf(cached));
+    }
+
+    private static List<Card> copiesOf(List<Card> cards) {
+        List<Card> copies = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            copies.add(copyOf(card));
+        }
+        return copies;
+    }
+
+    private static Card copyOf(Card card) {
+        if (card == null) {
+            return null;
+        }
+        Card copy = new Card(card.getName(), card.getType());
+        copy.setCardId(card.getCardId());
+        return copy;
+    }
+}
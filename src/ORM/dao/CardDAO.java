@@ -2,17 +2,27 @@ package ORM.dao;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import ORM.connection.SingleConnectionDataSource;
 
 import DomainModel.card.Card;
 import DomainModel.GameType;
 
 
 public class CardDAO {
-    private final Connection connection;
+    private final DataSource dataSource;
+
+    public CardDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     public CardDAO(Connection connection) {
-        this.connection = connection;
+        this(new SingleConnectionDataSource(connection));
     }
 
     // ====================================================================================
@@ -20,7 +30,8 @@ public class CardDAO {
     // ====================================================================================
     public void addCard(Card card) throws SQLException {
         String sql = " INSERT INTO cards (card_name, tcg_id) VALUES (?, ?)";
-        try(PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, card.getName());
             stmt.setInt(2, card.getType().getGameId()); // collegamento a GameType
             stmt.executeUpdate();
@@ -33,6 +44,32 @@ public class CardDAO {
         }
     }
 
+    // ====================================================================================
+    // 1.1) CREATE MANY (batch JDBC: un solo round-trip per tutte le carte)
+    // ====================================================================================
+    public void addCards(List<Card> cards) throws SQLException {
+        if (cards.isEmpty()) {
+            return;
+        }
+        String sql = " INSERT INTO cards (card_name, tcg_id) VALUES (?, ?)";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Card card : cards) {
+                stmt.setString(1, card.getName());
+                stmt.setInt(2, card.getType().getGameId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // Le chiavi generate arrivano nell'ordine del batch
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < cards.size() && rs.next(); i++) {
+                    cards.get(i).setCardId(rs.getInt(1));
+                }
+            }
+        }
+    }
+
     // ====================================================================================
     // 2) READ by Id
     // ====================================================================================
@@ -42,21 +79,50 @@ public class CardDAO {
             FROM cards 
             WHERE card_id = ? 
             """;
-        try(PreparedStatement stmt = connection.prepareStatement(sql)) {
+        Card cached = UnitOfWork.lookup(Card.class, id);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try(ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Card card = new Card();
-                    card.setCardId(rs.getInt("card_id"));
-                    card.setCardName(rs.getString("card_name"));
-                    card.setCardType(GameType.fromId(rs.getInt("tcg_id"))); // collegamento a GameType
-                    return card;
+                    return RowMappers.CARD.mapRow(rs);
                 }
             }
         }
         return null; // Carta non trovata
     }
 
+    // ====================================================================================
+    // 2.1) READ by ids (una sola query, es. import di un mazzo in formato binario)
+    // ====================================================================================
+    public Map<Integer, Card> getCardsByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Card> cardsById = new HashMap<>();
+        if (ids.isEmpty()) {
+            return cardsById;
+        }
+        String sql = """
+            SELECT card_id, card_name, tcg_id
+            FROM cards
+            WHERE card_id = ANY(?)
+            """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
+                while (rs.next()) {
+                    Card card = mapper.map(rs);
+                    cardsById.put(card.getCardId(), card);
+                }
+            }
+        }
+        return cardsById;
+    }
+
     // ====================================================================================
     // 3) READ by name
     // ====================================================================================
@@ -66,21 +132,47 @@ public class CardDAO {
             FROM cards 
             WHERE card_name = ?
             """;
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, name);
             try(ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Card card = new Card();
-                    card.setCardId(rs.getInt("card_id"));
-                    card.setCardName(rs.getString("card_name"));
-                    card.setCardType(GameType.fromId(rs.getInt("tcg_id"))); // collegamento a GameType
-                    return card;
+                    return RowMappers.CARD.mapRow(rs);
                 }
             }
         }
         return null; // Carta non trovata
     }
 
+    // ====================================================================================
+    // 3.1) READ by names (una sola query per un intero elenco, es. import di un mazzo)
+    // ====================================================================================
+    //Nome -> carta, solo per i nomi presenti nel DB; a parita' di nome vince la carta con id minore
+    public Map<String, Card> getCardsByNames(Collection<String> names) throws SQLException {
+        Map<String, Card> cardsByName = new HashMap<>();
+        if (names.isEmpty()) {
+            return cardsByName;
+        }
+        String sql = """
+            SELECT card_id, card_name, tcg_id
+            FROM cards
+            WHERE card_name = ANY(?)
+            ORDER BY card_id
+            """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setArray(1, connection.createArrayOf("text", names.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
+                while (rs.next()) {
+                    Card card = mapper.map(rs);
+                    cardsByName.putIfAbsent(card.getName(), card);
+                }
+            }
+        }
+        return cardsByName;
+    }
+
     // ====================================================================================
     // 4) READ by GameType
     // ====================================================================================
@@ -92,15 +184,13 @@ public class CardDAO {
             FROM cards 
             WHERE tcg_id = ?
             """;
-        try(PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, gameType.getGameId()); // collegamento a GameType
             try(ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
                 while (rs.next()) {
-                    Card card = new Card();
-                    card.setCardId(rs.getInt("card_id"));
-                    card.setCardName(rs.getString("card_name"));
-                    card.setCardType(GameType.fromId(rs.getInt("tcg_id"))); // collegamento a GameType
-                    cards.add(card);
+                    cards.add(mapper.map(rs));
                 }
             }
         }
@@ -118,21 +208,57 @@ public class CardDAO {
             SELECT card_id, card_name, tcg_id 
             FROM cards
             """;
-        try(
-                PreparedStatement stmt = connection.prepareStatement(sql);
-                ResultSet rs = stmt.executeQuery()
-        ) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
             while (rs.next()) {
-                Card card = new Card();
-                card.setCardId(rs.getInt("card_id"));
-                card.setCardName(rs.getString("card_name"));
-                card.setCardType(GameType.fromId(rs.getInt("tcg_id"))); // collegamento a GameType
-                cards.add(card);
+                cards.add(mapper.map(rs));
             }
         }
         return cards;
     }
 
+    // ====================================================================================
+    // 5.1) READ page (keyset sulla chiave primaria)
+    // ====================================================================================
+    //Al massimo pageSize carte con id > afterCardId, in ordine di id (0 per la prima pagina).
+    public List<Card> getCardsPage(int afterCardId, int pageSize) throws SQLException {
+        List<Card> cards = new ArrayList<>();
+
+        String sql = """
+            SELECT card_id, card_name, tcg_id
+            FROM cards
+            WHERE card_id > ?
+            ORDER BY card_id
+            LIMIT ?
+            """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterCardId);
+            stmt.setInt(2, pageSize);
+            try(ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
+                while (rs.next()) {
+                    cards.add(mapper.map(rs));
+                }
+            }
+        }
+        return cards;
+    }
+
+    // ====================================================================================
+    // 5.2) STREAM all (memoria costante, vedi JdbcStreams; lo Stream va chiuso)
+    // ====================================================================================
+    public Stream<Card> streamAllCards() throws SQLException {
+        String sql = """
+            SELECT card_id, card_name, tcg_id
+            FROM cards
+            ORDER BY card_id
+            """;
+        return JdbcStreams.stream(dataSource, sql, ParameterSetter.NONE, RowMappers.CARD);
+    }
+
     // ====================================================================================
     // 6) UPDATE
     // ====================================================================================
@@ -141,12 +267,14 @@ public class CardDAO {
             UPDATE cards SET card_name = ?, tcg_id = ? 
             WHERE card_id = ?
             """;
-        try(PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, card.getName());
             stmt.setInt(2, card.getType().getGameId()); // collegamento a GameType
             stmt.setInt(3, card.getCardId());
             stmt.executeUpdate();
         }
+        UnitOfWork.evictIfActive(Card.class, card.getCardId());
     }
 
     // ====================================================================================
@@ -158,10 +286,11 @@ public class CardDAO {
             FROM cards 
             WHERE card_id = ?
             """;
-        try(PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        UnitOfWork.evictIfActive(Card.class, id);
     }
-
 }
@@ -0,0 +1,89 @@
+package ORM.dao;
+
+import DomainModel.GameType;
+import DomainModel.tournament.TournamentStatus;
+import DomainModel.user.Role;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Tabella di decodifica unica per i codici delle tabelle di lookup (tcg, tournament_status, roles):
+// array indicizzati per id/ordinal, niente switch o valueOf/toUpperCase per ogni riga letta
+final class CodeTables {
+
+    private static final GameType[] GAME_TYPES_BY_ID = indexById(GameType.values());
+
+    private static final TournamentStatus[] STATUSES_BY_ID = {
+            null,
+            TournamentStatus.PENDING,    // 1
+            TournamentStatus.APPROVED,   // 2
+            TournamentStatus.REJECTED,   // 3
+            TournamentStatus.READY,      // 4
+            TournamentStatus.ONGOING,    // 5
+            TournamentStatus.FINISHED    // 6
+    };
+    private static final int[] STATUS_IDS_BY_ORDINAL = new int[TournamentStatus.values().length];
+
+    private static final Role[] ROLES_BY_ID = new Role[Role.values().length + 1];
+    private static final Map<String, Role> ROLES_BY_NAME = new HashMap<>();
+
+    static {
+        for (int id = 1; id < STATUSES_BY_ID.length; id++) {
+            STATUS_IDS_BY_ORDINAL[STATUSES_BY_ID[id].ordinal()] = id;
+        }
+        for (Role role : Role.values()) {
+            ROLES_BY_ID[role.getRoleId()] = role;
+            ROLES_BY_NAME.put(role.name(), role);
+            ROLES_BY_NAME.put(role.name().toLowerCase(), role);
+        }
+    }
+
+    private CodeTables() { }
+
+    static GameType gameType(int id) {
+        if (id <= 0 || id >= GAME_TYPES_BY_ID.length || GAME_TYPES_BY_ID[id] == null) {
+            throw new IllegalArgumentException("Invalid game type id: " + id);
+        }
+        return GAME_TYPES_BY_ID[id];
+    }
+
+    static TournamentStatus tournamentStatus(int id) {
+        if (id <= 0 || id >= STATUSES_BY_ID.length) {
+            throw new IllegalArgumentException("Invalid status id: " + id);
+        }
+        return STATUSES_BY_ID[id];
+    }
+
+    static int tournamentStatusId(TournamentStatus status) {
+        return STATUS_IDS_BY_ORDINAL[status.ordinal()];
+    }
+
+    static Role role(int id) {
+        if (id <= 0 || id >= ROLES_BY_ID.length || ROLES_BY_ID[id] == null) {
+            throw new IllegalArgumentException("Invalid role id: " + id);
+        }
+        return ROLES_BY_ID[id];
+    }
+
+    // roles.name: maiuscolo o minuscolo come nel DB; altre grafie passano da valueOf
+    static Role roleByName(String name) {
+        Role role = ROLES_BY_NAME.get(name);
+        return role != null ? role : Role.valueOf(name.toUpperCase());
+    }
+
+    static int roleId(Role role) {
+        return role.getRoleId();
+    }
+
+    private static GameType[] indexById(GameType[] values) {
+        int max = 0;
+        for (GameType gameType : values) {
+            max = Math.max(max, gameType.getGameId());
+        }
+        GameType[] byId = new GameType[max + 1];
+        for (GameType gameType : values) {
+            byId[gameType.getGameId()] = gameType;
+        }
+        return byId;
+    }
+}
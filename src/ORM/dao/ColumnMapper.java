@@ -0,0 +1,16 @@
+package ORM.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Mapper per una forma di riga (vedi RowMappers): bind risolve una volta gli indici delle colonne del ResultSet
+// e restituisce il RowMapper che legge ogni riga per indice, senza cercare le colonne per nome
+@FunctionalInterface
+public interface ColumnMapper<T> {
+    RowMapper<T> bind(ResultSet rs) throws SQLException;
+
+    // Una sola riga (lookup per chiave): non conviene tenere il RowMapper
+    default T mapRow(ResultSet rs) throws SQLException {
+        return bind(rs).map(rs);
+    }
+}
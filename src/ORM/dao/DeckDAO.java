@@ -2,19 +2,29 @@ package ORM.dao;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import ORM.connection.SingleConnectionDataSource;
 
 import DomainModel.card.Deck;
 import DomainModel.card.Card;
+import DomainModel.card.CardQuantity;
 import DomainModel.user.User;
 import DomainModel.GameType;
 
 
 public class DeckDAO {
-    private final Connection connection;
+    private final DataSource dataSource;
+
+    public DeckDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     public DeckDAO(Connection connection) {
-        this.connection = connection;
+        this(new SingleConnectionDataSource(connection));
     }
 
     // ====================================================================================
@@ -25,7 +35,8 @@ public class DeckDAO {
             INSERT INTO decks (deck_name, user_id, tcg_id)
             VALUES (?, ?, ?)
             """;
-        try (PreparedStatement ps = this.connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, deck.getDeckName());
             ps.setInt(2, deck.getOwner().getUserId());
             ps.setInt(3, deck.getGameType().getGameId()); // collegamento GameType
@@ -44,7 +55,7 @@ public class DeckDAO {
     // ====================================================================================
     public Deck getDeckById(int deckId) throws SQLException {
         String sql = """
-            SELECT d.deck_id, d.deck_name, d.tcg_id, u.user_id, u.username, c.card_id, c.card_name, c.tcg_id 
+            SELECT d.deck_id, d.deck_name, d.tcg_id, u.user_id, u.username, c.card_id, c.card_name, c.tcg_id, dc.quantity
             FROM decks d
             JOIN users u ON d.user_id = u.user_id
             LEFT JOIN decks_cards dc ON d.deck_id = dc.deck_id
@@ -52,46 +63,56 @@ public class DeckDAO {
             WHERE d.deck_id = ?
             """;
 
+        Deck cached = UnitOfWork.lookup(Deck.class, deckId);
+        if (cached != null) {
+            return cached;
+        }
+
         Deck deck = null;
         User owner = null;
-        List<Card> cards = new ArrayList<>();
 
-        try (PreparedStatement ps = this.connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, deckId);
 
             try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<CardQuantity> cards = RowMappers.CARD_QUANTITY.bind(rs);
+                int cardId = rs.findColumn("card_id");
+                int userId = rs.findColumn("user_id");
+                int username = rs.findColumn("username");
+                int deckIdColumn = rs.findColumn("deck_id");
+                int deckName = rs.findColumn("deck_name");
+                int tcgId = rs.findColumn("tcg_id");   // la prima delle due: d.tcg_id
                 while (rs.next()) {
                     if (deck == null) {
-                        // Crea owner una volta
-                        owner = new User(rs.getString("username"));
-                        owner.setUserId(rs.getInt("user_id"));
+                        // Crea owner una volta (riusa l'utente completo se gia' nella UnitOfWork)
+                        owner = UnitOfWork.lookup(User.class, rs.getInt(userId));
+                        if (owner == null) {
+                            owner = new User(rs.getString(username));
+                            owner.setUserId(rs.getInt(userId));
+                        }
 
                         // Crea deck con lista vuota inizialmente
-                        deck = new Deck(rs.getInt("deck_id"),
-                                        rs.getString("deck_name"),
+                        deck = new Deck(rs.getInt(deckIdColumn),
+                                        rs.getString(deckName),
                                         owner,
                                         new ArrayList<>(),
-                                        GameType.fromId(rs.getInt("tcg_id")) // collegamento GameType
+                                        CodeTables.gameType(rs.getInt(tcgId)) // collegamento GameType
                         );
                     }
 
-                    // Aggiungi carte se presenti (fuori dall'if, per tutte le righe)
-                    if (rs.getObject("card_id") != null) {  // Gestisce LEFT JOIN null
-                        Card card = new Card();
-                        card.setCardId(rs.getInt("card_id"));
-                        card.setCardName(rs.getString("card_name"));
-                        card.setCardType(GameType.fromId(rs.getInt("tcg_id"))); // collegamento GameType
-
-                        if (!cards.contains(card)) {  // Evita duplicati
-                            cards.add(card);
-                        }
+                    // Aggiungi carte se presenti (fuori dall'if, per tutte le righe): una riga per carta distinta
+                    rs.getInt(cardId);
+                    if (!rs.wasNull()) {  // Gestisce LEFT JOIN null
+                        CardQuantity entry = cards.map(rs);
+                        deck.addCopies(entry.card(), entry.quantity());
                     }
                 }
             }
         }
 
         if (deck != null) {
-            deck.setCards(cards);
+            deck = UnitOfWork.canonical(Deck.class, deckId, deck);
         }
         return deck;
     }
@@ -108,19 +129,13 @@ public class DeckDAO {
             WHERE d.tcg_id = ?
             """;
 
-        try (PreparedStatement ps = this.connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, gameType.getGameId());
             try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Deck> mapper = RowMappers.DECK_SUMMARY.bind(rs);
                 while (rs.next()) {
-                    User owner = new User(rs.getString("username"));
-                    owner.setUserId(rs.getInt("user_id"));
-                    Deck deck = new Deck(rs.getInt("deck_id"),
-                                         rs.getString("deck_name"),
-                                         owner,
-                                         new ArrayList<>(),
-                                         GameType.fromId(rs.getInt("tcg_id")) // collegamento GameType
-                    );  // Carte vuote
-                    decks.add(deck);
+                    decks.add(mapper.map(rs));  // Carte vuote
                 }
             }
         }
@@ -139,19 +154,13 @@ public class DeckDAO {
             WHERE d.user_id = ?
             """;
 
-        try (PreparedStatement ps = this.connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Deck> mapper = RowMappers.DECK_SUMMARY.bind(rs);
                 while (rs.next()) {
-                    User owner = new User(rs.getString("username"));
-                    owner.setUserId(rs.getInt("user_id"));
-                    Deck deck = new Deck(rs.getInt("deck_id"),
-                                         rs.getString("deck_name"),
-                                         owner,
-                                         new ArrayList<>(),
-                                         GameType.fromId(rs.getInt("tcg_id")) // collegamento GameType
-                    );  // Carte vuote
-                    decks.add(deck);
+                    decks.add(mapper.map(rs));  // Carte vuote
                 }
             }
         }
@@ -168,11 +177,13 @@ public class DeckDAO {
             WHERE deck_id = ?
             """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, newName);
             ps.setInt(2, deckId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(Deck.class, deckId);
     }
 
     // ====================================================================================
@@ -190,7 +201,7 @@ public class DeckDAO {
             WHERE deck_id = ?
             """;
 
-        try {
+        try (Connection connection = dataSource.getConnection()) {
             connection.setAutoCommit(false);
 
             try (PreparedStatement ps1 = connection.prepareStatement(deleteRelations);
@@ -207,29 +218,72 @@ public class DeckDAO {
             } catch (SQLException e) {
                 connection.rollback();
                 throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-        } finally {
-            connection.setAutoCommit(true);
         }
+        UnitOfWork.evictIfActive(Deck.class, deckId);
     }
 
     // ====================================================================================
-    // 7) ADD CARD TO DECK
+    // 7) ADD CARD TO DECK (una copia)
     // ====================================================================================
     public void addCardToDeck(int deckId, int cardId) throws SQLException {
+        addCardCopies(deckId, cardId, 1);
+    }
+
+    // ====================================================================================
+    // 7.1) ADD MANY CARDS TO DECK (cardId -> copie; batch JDBC, una transazione)
+    // ====================================================================================
+    public void addCardsToDeck(int deckId, Map<Integer, Integer> quantities) throws SQLException {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        inTransaction(connection -> insertDeckCards(connection, deckId, quantities));
+        UnitOfWork.evictIfActive(Deck.class, deckId);
+    }
+
+    // ====================================================================================
+    // 7.2) REPLACE DECK CONTENTS (svuota + batch insert, una transazione)
+    // ====================================================================================
+    public void replaceDeckCards(int deckId, Map<Integer, Integer> quantities) throws SQLException {
         String sql = """
-            INSERT INTO decks_cards (deck_id, card_id) VALUES (?, ?)
+            DELETE
+            FROM decks_cards
+            WHERE deck_id = ?
             """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        inTransaction(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setInt(1, deckId);
+                ps.executeUpdate();
+            }
+            insertDeckCards(connection, deckId, quantities);
+        });
+        UnitOfWork.evictIfActive(Deck.class, deckId);
+    }
+
+    // ====================================================================================
+    // 7.3) ADD COPIES (upsert: nuova riga o incremento della quantita')
+    // ====================================================================================
+    public void addCardCopies(int deckId, int cardId, int copies) throws SQLException {
+        String sql = """
+            INSERT INTO decks_cards (deck_id, card_id, quantity) VALUES (?, ?, ?)
+            ON CONFLICT (deck_id, card_id) DO UPDATE SET quantity = decks_cards.quantity + EXCLUDED.quantity
+            """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, deckId);
             ps.setInt(2, cardId);
+            ps.setInt(3, copies);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(Deck.class, deckId);
     }
 
     // ====================================================================================
-    // 8) DELETE CARD FROM DECK
+    // 8) DELETE CARD FROM DECK (tutte le copie)
     // ====================================================================================
     public void removeCardFromDeck(int deckId, int cardId) throws SQLException {
         String sql = """
@@ -238,15 +292,74 @@ public class DeckDAO {
             WHERE deck_id = ? AND card_id = ?
             """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, deckId);
             ps.setInt(2, cardId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(Deck.class, deckId);
+    }
+
+    // ====================================================================================
+    // 8.1) DELETE MANY CARDS FROM DECK (un solo statement)
+    // ====================================================================================
+    public void removeCardsFromDeck(int deckId, Collection<Integer> cardIds) throws SQLException {
+        if (cardIds.isEmpty()) {
+            return;
+        }
+        String sql = """
+            DELETE
+            FROM decks_cards
+            WHERE deck_id = ? AND card_id = ANY(?)
+            """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, deckId);
+            ps.setArray(2, connection.createArrayOf("integer", cardIds.toArray()));
+            ps.executeUpdate();
+        }
+        UnitOfWork.evictIfActive(Deck.class, deckId);
+    }
+
+    // ====================================================================================
+    // 8.2) REMOVE COPIES (decremento; la riga sparisce quando le copie finiscono)
+    // ====================================================================================
+    public void removeCardCopies(int deckId, int cardId, int copies) throws SQLException {
+        String deleteLast = """
+            DELETE
+            FROM decks_cards
+            WHERE deck_id = ? AND card_id = ? AND quantity <= ?
+            """;
+        String decrement = """
+            UPDATE decks_cards
+            SET quantity = quantity - ?
+            WHERE deck_id = ? AND card_id = ?
+            """;
+
+        inTransaction(connection -> {
+            int deleted;
+            try (PreparedStatement ps = connection.prepareStatement(deleteLast)) {
+                ps.setInt(1, deckId);
+                ps.setInt(2, cardId);
+                ps.setInt(3, copies);
+                deleted = ps.executeUpdate();
+            }
+            if (deleted == 0) {
+                try (PreparedStatement ps = connection.prepareStatement(decrement)) {
+                    ps.setInt(1, copies);
+                    ps.setInt(2, deckId);
+                    ps.setInt(3, cardId);
+                    ps.executeUpdate();
+                }
+            }
+        });
+        UnitOfWork.evictIfActive(Deck.class, deckId);
     }
 
     // ====================================================================================
-    // 9) READ CARDS IN DECK
+    // 9) READ CARDS IN DECK (carte distinte; le copie sono in getDeckById / streamCardsByDeck)
     // ====================================================================================
     public List<Card> findCardsByDeck(int deckId) throws SQLException {
         String sql = """
@@ -257,18 +370,81 @@ public class DeckDAO {
     """;
         List<Card> cards = new ArrayList<>();
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, deckId);
             try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
                 while (rs.next()) {
-                    Card card = new Card();
-                    card.setCardId(rs.getInt("card_id"));
-                    card.setCardName(rs.getString("card_name"));
-                    card.setCardType(GameType.fromId(rs.getInt("tcg_id"))); // collegamento GameType
-                    cards.add(card);
+                    cards.add(mapper.map(rs));
                 }
             }
         }
         return cards;
     }
+
+    // ====================================================================================
+    // 9.1) STREAM CARDS IN DECK (cursore, in ordine di id; per l'export dei mazzi)
+    // ====================================================================================
+    //Lo Stream va chiuso (vedi JdbcStreams)
+    public Stream<CardQuantity> streamCardsByDeck(int deckId) throws SQLException {
+        String sql = """
+        SELECT c.card_id, c.card_name, c.tcg_id, dc.quantity
+        FROM cards c
+        JOIN decks_cards dc ON c.card_id = dc.card_id
+        WHERE dc.deck_id = ?
+        ORDER BY c.card_id
+    """;
+        return JdbcStreams.stream(dataSource, sql, ps -> ps.setInt(1, deckId), RowMappers.CARD_QUANTITY);
+    }
+
+    // ====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    @FunctionalInterface
+    private interface TransactionWork {
+        void run(Connection connection) throws SQLException;
+    }
+
+    //Esegue work in una transazione. Se il chiamante ne ha gia' aperta una sulla stessa connessione
+    // (es. DeckService che crea le carte mancanti e le aggiunge al mazzo) si unisce a quella.
+    private void inTransaction(TransactionWork work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean ownTransaction = connection.getAutoCommit();
+            if (!ownTransaction) {
+                work.run(connection);
+                return;
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                work.run(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    //Righe (deck, carta, copie) in un unico batch; se la carta c'e' gia' le copie si sommano
+    private static void insertDeckCards(Connection connection, int deckId, Map<Integer, Integer> quantities)
+            throws SQLException {
+        String sql = """
+            INSERT INTO decks_cards (deck_id, card_id, quantity) VALUES (?, ?, ?)
+            ON CONFLICT (deck_id, card_id) DO UPDATE SET quantity = decks_cards.quantity + EXCLUDED.quantity
+            """;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                ps.setInt(1, deckId);
+                ps.setInt(2, entry.getKey());
+                ps.setInt(3, entry.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
 }
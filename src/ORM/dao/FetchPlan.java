@@ -0,0 +1,27 @@
+package ORM.dao;
+
+/*
+ * Profili di caricamento per i tornei letti dai DAO.
+ *
+ * SUMMARY        -> solo la riga di tournaments (id, nome, stato, date, capienza...);
+ *                   l'organizzatore e' un riferimento con il solo user_id, nessuna iscrizione caricata
+ * WITH_ORGANIZER -> come SUMMARY + organizzatore completo
+ * FULL           -> come WITH_ORGANIZER + iscrizioni con gli utenti iscritti (default storico dei DAO)
+ */
+public enum FetchPlan {
+    SUMMARY(false, false),
+    WITH_ORGANIZER(true, false),
+    FULL(true, true);
+
+    private final boolean organizer;
+    private final boolean registrations;
+
+    FetchPlan(boolean organizer, boolean registrations) {
+        this.organizer = organizer;
+        this.registrations = registrations;
+    }
+
+    public boolean loadsOrganizer() { return organizer; }
+
+    public boolean loadsRegistrations() { return registrations; }
+}
@@ -0,0 +1,107 @@
+package ORM.dao;
+
+import ORM.connection.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.DataSource;
+
+/*
+ * Letture in streaming per le tabelle grandi: le righe arrivano dal DB a blocchi di FETCH_SIZE
+ * (cursore lato server), quindi la memoria usata non dipende dalla dimensione della tabella.
+ *
+ * Con il driver PostgreSQL il fetch a blocchi funziona solo con autocommit disattivato: la connessione
+ * resta in prestito, in una transazione di sola lettura chiusa con rollback, finche' lo Stream non viene
+ * chiuso. Lo Stream va quindi SEMPRE chiuso (try-with-resources).
+ *
+ * Con il ConnectionPool la connessione e' dedicata (getDetachedConnection), non quella legata al thread:
+ * altrimenti qualunque scrittura fatta sullo stesso thread a Stream aperto, anche in autocommit, finirebbe
+ * nella transazione di sola lettura e verrebbe persa al rollback. Di conseguenza lo Stream vede solo dati
+ * gia' committati (non le scritture non ancora committate di una transazione del chiamante) e occupa una
+ * connessione in piu' del pool.
+ *
+ * Gli errori SQL durante la lettura arrivano come IllegalStateException con la SQLException come causa.
+ */
+final class JdbcStreams {
+
+    static final int FETCH_SIZE = 500;
+
+    private JdbcStreams() { }
+
+    static <T> Stream<T> stream(DataSource dataSource, String sql, ParameterSetter parameters, ColumnMapper<T> columns)
+            throws SQLException {
+        Connection connection = dataSource.isWrapperFor(ConnectionPool.class)
+                ? dataSource.unwrap(ConnectionPool.class).getDetachedConnection()
+                : dataSource.getConnection();
+        boolean previousAutoCommit = connection.getAutoCommit();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        RowMapper<T> mapper;
+        try {
+            if (previousAutoCommit) {
+                connection.setAutoCommit(false);
+            }
+            ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            parameters.set(ps);
+            rs = ps.executeQuery();
+            mapper = columns.bind(rs);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                release(connection, ps, rs, previousAutoCommit);
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        PreparedStatement statement = ps;
+        ResultSet resultSet = rs;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Lettura in streaming fallita: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                release(connection, statement, resultSet, previousAutoCommit);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Chiusura dello stream fallita: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    // Chiude cursore e statement, chiude la transazione di sola lettura aperta qui (se una transazione
+    // del chiamante era gia' attiva la lascia com'e') e restituisce la connessione
+    private static void release(Connection connection, PreparedStatement ps, ResultSet rs, boolean openedHere)
+            throws SQLException {
+        try {
+            if (rs != null) rs.close();
+            if (ps != null) ps.close();
+            if (openedHere) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+}
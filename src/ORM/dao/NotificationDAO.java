@@ -0,0 +1,233 @@
+package ORM.dao;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.sql.DataSource;
+import ORM.connection.SingleConnectionDataSource;
+
+import DomainModel.GameType;
+import DomainModel.user.Notification;
+import Utils.primitive.IntArrayList;
+
+
+public class NotificationDAO {
+    private final DataSource dataSource;
+
+    public NotificationDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public NotificationDAO(Connection connection) {
+        this(new SingleConnectionDataSource(connection));
+    }
+
+    // ====================================================================================
+    // 1) CREATE
+    // ====================================================================================
+    public long createNotification(int userId, String message, GameType gameType, Instant createdAt)
+            throws SQLException {
+        return createNotifications(IntArrayList.of(userId), message, gameType, createdAt)[0];
+    }
+
+    // ====================================================================================
+    // 1.1) CREATE MANY (stesso messaggio a piu' utenti, batch JDBC)
+    // ====================================================================================
+    //Id generati, nello stesso ordine di userIds
+    public long[] createNotifications(IntArrayList userIds, String message, GameType gameType, Instant createdAt)
+            throws SQLException {
+        long[] ids = new long[userIds.size()];
+        if (userIds.isEmpty()) {
+            return ids;
+        }
+        // Scritte dalla casella che le ha gia' in memoria: nascono consegnate
+        String sql = """
+            INSERT INTO notifications (user_id, tcg_id, message, created_at, dispatched_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            Timestamp timestamp = Timestamp.from(createdAt);
+            for (int i = 0; i < userIds.size(); i++) {
+                ps.setInt(1, userIds.get(i));
+                if (gameType == null) {
+                    ps.setNull(2, Types.INTEGER);
+                } else {
+                    ps.setInt(2, gameType.getGameId());
+                }
+                ps.setString(3, message);
+                ps.setTimestamp(4, timestamp);
+                ps.setTimestamp(5, timestamp);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            // Le chiavi generate arrivano nell'ordine del batch
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && rs.next(); i++) {
+                    ids[i] = rs.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    // ====================================================================================
+    // 1.2) OUTBOX: stesso messaggio a tutti gli iscritti di un torneo (un solo INSERT ... SELECT)
+    // ====================================================================================
+    //Pensata per essere chiamata dentro la transazione che modifica il torneo (vedi TransactionHook):
+    // le notifiche esistono se e solo se la modifica viene confermata. Restituisce le righe scritte.
+    public int enqueueForTournamentParticipants(int tournamentId, String message, GameType gameType,
+                                                Instant createdAt) throws SQLException {
+        String sql = """
+            INSERT INTO notifications (user_id, tcg_id, message, created_at)
+            SELECT DISTINCT r.user_id, ?, ?, ?
+            FROM registrations r
+            WHERE r.tournament_id = ?
+            """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            if (gameType == null) {
+                ps.setNull(1, Types.INTEGER);
+            } else {
+                ps.setInt(1, gameType.getGameId());
+            }
+            ps.setString(2, message);
+            ps.setTimestamp(3, Timestamp.from(createdAt));
+            ps.setInt(4, tournamentId);
+            return ps.executeUpdate();
+        }
+    }
+
+    // ====================================================================================
+    // 1.2a) OUTBOX: notifica a un solo utente (es. promosso dalla lista d'attesa)
+    // ====================================================================================
+    //Come sopra, da chiamare nella transazione che la giustifica; la consegna la fa il dispatcher
+    public void enqueueNotification(int userId, String message, GameType gameType, Instant createdAt)
+            throws SQLException {
+        String sql = """
+            INSERT INTO notifications (user_id, tcg_id, message, created_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            if (gameType == null) {
+                ps.setNull(2, Types.INTEGER);
+            } else {
+                ps.setInt(2, gameType.getGameId());
+            }
+            ps.setString(3, message);
+            ps.setTimestamp(4, Timestamp.from(createdAt));
+            ps.executeUpdate();
+        }
+    }
+
+    // ====================================================================================
+    // 1.3) OUTBOX: preleva le notifiche da consegnare (le marca come consegnate)
+    // ====================================================================================
+    //SKIP LOCKED: piu' dispatcher (anche in JVM diverse) non prelevano mai la stessa riga
+    public List<Notification> claimUndispatched(int limit, Instant dispatchedAt) throws SQLException {
+        String sql = """
+            UPDATE notifications
+            SET dispatched_at = ?
+            WHERE notification_id IN (
+                SELECT notification_id
+                FROM notifications
+                WHERE dispatched_at IS NULL
+                ORDER BY notification_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING notification_id, user_id, tcg_id, message, created_at
+            """;
+        List<Notification> notifications = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(dispatchedAt));
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Notification> mapper = RowMappers.NOTIFICATION.bind(rs);
+                while (rs.next()) {
+                    notifications.add(mapper.map(rs));
+                }
+            }
+        }
+        // RETURNING non garantisce l'ordine
+        notifications.sort(Comparator.comparingLong(Notification::notificationId));
+        return notifications;
+    }
+
+    // ====================================================================================
+    // 2) READ consegnate e non scadute (ripristino all'avvio), in ordine di creazione
+    // ====================================================================================
+    //Quelle ancora nell'outbox le consegna il dispatcher
+    public List<Notification> getNotificationsCreatedAfter(Instant since) throws SQLException {
+        String sql = """
+            SELECT notification_id, user_id, tcg_id, message, created_at
+            FROM notifications
+            WHERE created_at > ? AND dispatched_at IS NOT NULL
+            ORDER BY notification_id
+            """;
+        List<Notification> notifications = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(since));
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Notification> mapper = RowMappers.NOTIFICATION.bind(rs);
+                while (rs.next()) {
+                    notifications.add(mapper.map(rs));
+                }
+            }
+        }
+        return notifications;
+    }
+
+    // ====================================================================================
+    // 3) DELETE lette (un solo statement)
+    // ====================================================================================
+    public void deleteNotifications(long[] notificationIds) throws SQLException {
+        if (notificationIds.length == 0) {
+            return;
+        }
+        String sql = """
+            DELETE
+            FROM notifications
+            WHERE notification_id = ANY(?)
+            """;
+
+        Long[] boxed = new Long[notificationIds.length];
+        for (int i = 0; i < notificationIds.length; i++) {
+            boxed[i] = notificationIds[i];
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setArray(1, connection.createArrayOf("bigint", boxed));
+            ps.executeUpdate();
+        }
+    }
+
+    // ====================================================================================
+    // 3.1) DELETE scadute (TTL)
+    // ====================================================================================
+    public int deleteNotificationsCreatedBefore(Instant cutoff) throws SQLException {
+        String sql = """
+            DELETE
+            FROM notifications
+            WHERE created_at <= ?
+            """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.from(cutoff));
+            return ps.executeUpdate();
+        }
+    }
+}
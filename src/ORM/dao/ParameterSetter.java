@@ -0,0 +1,12 @@
+package ORM.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// Parametri della query da impostare sul PreparedStatement
+@FunctionalInterface
+interface ParameterSetter {
+    ParameterSetter NONE = ps -> { };
+
+    void set(PreparedStatement ps) throws SQLException;
+}
@@ -1,22 +1,34 @@
 package ORM.dao;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import ORM.connection.SingleConnectionDataSource;
 import DomainModel.tournament.Registration;
+import DomainModel.tournament.RegistrationResult;
 import DomainModel.tournament.Tournament;
+import DomainModel.tournament.TournamentStatus;
 import DomainModel.user.User;
 import DomainModel.card.Deck;
 
 
 public class RegistrationDAO {
-    private final Connection connection;
-    private final UserDAO userDAO;
+    private final DataSource dataSource;
+
+    public RegistrationDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     public RegistrationDAO(Connection connection) {
-        this.connection = connection;
-        this.userDAO = new UserDAO(connection);
+        this(new SingleConnectionDataSource(connection));
     }
 
     // ====================================================================================
@@ -27,13 +39,150 @@ public class RegistrationDAO {
             INSERT INTO registrations (tournament_id, user_id, registration_date, reg_deck)
             VALUES (?, ?, ?, ?)
         """;
+        int tournamentId = registration.getTournament().getTournamentId();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);  // Inizia transazione: iscrizione e contatore insieme
+
+            try {
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setInt(1, tournamentId);
+                    ps.setInt(2, registration.getUser().getUserId());
+                    ps.setTimestamp(3, Timestamp.valueOf(registration.getRegistrationDate()));
+                    ps.setInt(4, registration.getRegDeck().getDeckId());
+                    ps.executeUpdate();
+                }
+                updateRegisteredCount(connection, tournamentId, 1);
+
+                connection.commit();  // Conferma transazione
+
+            } catch (SQLException e) {
+                connection.rollback();  // Annulla se errore
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);  // Ripristina auto-commit
+            }
+        }
+        UnitOfWork.evictIfActive(Tournament.class, tournamentId);
+    }
+
+    // ====================================================================================
+    // 1.1) ADMIT REGISTRATION (atomica: posto + iscrizione in una transazione)
+    // ====================================================================================
+    /*
+     * Percorso senza race per le aperture iscrizioni:
+     *  1) UPDATE condizionale del contatore: prende un posto solo se il torneo e' APPROVED, la deadline
+     *     non e' passata e registered_count < capacity. Il lock di riga serializza le richieste concorrenti
+     *     sullo stesso torneo e la condizione viene rivalutata sulla riga aggiornata: niente overbooking.
+     *  2) INSERT ... ON CONFLICT DO NOTHING sul vincolo unico (tournament_id, user_id): doppione = 0 righe,
+     *     e il rollback restituisce il posto.
+     * Nel caso normale: due statement e un commit. Solo in caso di rifiuto una lettura in piu' per
+     * distinguerne il motivo.
+     */
+    public RegistrationResult admitRegistration(Registration registration, LocalDate today) throws SQLException {
+        String takeSeat = """
+            UPDATE tournaments
+            SET registered_count = registered_count + 1
+            WHERE tournament_id = ? AND status_id = ? AND deadline > ? AND registered_count < capacity
+        """;
+        String insert = """
+            INSERT INTO registrations (tournament_id, user_id, registration_date, reg_deck)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (tournament_id, user_id) DO NOTHING
+        """;
+        int tournamentId = registration.getTournament().getTournamentId();
+        int userId = registration.getUser().getUserId();
+        RegistrationResult result;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);  // Inizia transazione
+
+            try {
+                int seats;
+                try (PreparedStatement ps = connection.prepareStatement(takeSeat)) {
+                    ps.setInt(1, tournamentId);
+                    ps.setInt(2, CodeTables.tournamentStatusId(TournamentStatus.APPROVED));
+                    ps.setDate(3, Date.valueOf(today));
+                    seats = ps.executeUpdate();
+                }
+
+                if (seats == 0) {
+                    result = rejectionReason(connection, tournamentId, userId, today);
+                    connection.rollback();
+                } else {
+                    int inserted;
+                    try (PreparedStatement ps = connection.prepareStatement(insert)) {
+                        ps.setInt(1, tournamentId);
+                        ps.setInt(2, userId);
+                        ps.setTimestamp(3, Timestamp.valueOf(registration.getRegistrationDate()));
+                        ps.setInt(4, registration.getRegDeck().getDeckId());
+                        inserted = ps.executeUpdate();
+                    }
+
+                    if (inserted == 0) {
+                        result = RegistrationResult.DUPLICATE;
+                        connection.rollback();  // Restituisce il posto
+                    } else {
+                        result = RegistrationResult.ACCEPTED;
+                        connection.commit();  // Conferma transazione
+                    }
+                }
+
+            } catch (SQLException e) {
+                connection.rollback();  // Annulla se errore
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);  // Ripristina auto-commit
+            }
+        }
+
+        if (result == RegistrationResult.ACCEPTED) {
+            UnitOfWork.evictIfActive(Tournament.class, tournamentId);
+        }
+        return result;
+    }
+
+    //Motivo del rifiuto, nello stesso ordine dei controlli storici del service (stato, doppione, capienza, deadline).
+    // Un torneo pieno passa subito a READY (vedi TournamentTransitionTimer): finche' la deadline non e' passata
+    // il rifiuto resta FULL, cosi' il giocatore puo' mettersi in lista d'attesa.
+    private static RegistrationResult rejectionReason(Connection connection, int tournamentId, int userId,
+                                                      LocalDate today) throws SQLException {
+        String sql = """
+            SELECT t.status_id, t.deadline, t.capacity, t.registered_count,
+                   EXISTS (SELECT 1 FROM registrations r
+                           WHERE r.tournament_id = t.tournament_id AND r.user_id = ?) AS registered
+            FROM tournaments t
+            WHERE t.tournament_id = ?
+        """;
 
         try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, registration.getTournament().getTournamentId());
-            ps.setInt(2, registration.getUser().getUserId());
-            ps.setTimestamp(3, Timestamp.valueOf(registration.getRegistrationDate()));
-            ps.setInt(4, registration.getRegDeck().getDeckId());
-            ps.executeUpdate();
+            ps.setInt(1, userId);
+            ps.setInt(2, tournamentId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return RegistrationResult.CLOSED;
+                }
+                int statusId = rs.findColumn("status_id");
+                int registered = rs.findColumn("registered");
+                int registeredCount = rs.findColumn("registered_count");
+                int capacity = rs.findColumn("capacity");
+                int deadline = rs.findColumn("deadline");
+
+                TournamentStatus status = CodeTables.tournamentStatus(rs.getInt(statusId));
+                if (status != TournamentStatus.APPROVED && status != TournamentStatus.READY) {
+                    return RegistrationResult.CLOSED;
+                }
+                if (rs.getBoolean(registered)) {
+                    return RegistrationResult.DUPLICATE;
+                }
+                boolean full = rs.getInt(registeredCount) >= rs.getInt(capacity);
+                boolean open = rs.getDate(deadline).toLocalDate().isAfter(today);
+                if (full && (status == TournamentStatus.APPROVED || open)) {
+                    return RegistrationResult.FULL;
+                }
+                return RegistrationResult.CLOSED;   // deadline passata
+            }
         }
     }
 
@@ -47,25 +196,14 @@ public class RegistrationDAO {
             WHERE tournament_id = ? AND user_id = ?
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, tournamentId);
             ps.setInt(2, userId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-
-                    Tournament tournament = new Tournament("");
-                    tournament.setTournamentId(tournamentId);
-
-                    User user = new User("");
-                    user.setUserId(userId);
-
-                    Deck deck = new Deck("", user);
-                    deck.setDeckId(rs.getInt("reg_deck"));
-
-                    Registration registration = new Registration(tournament, user, deck);
-                    registration.setRegistrationDate(rs.getTimestamp("registration_date").toLocalDateTime());
-                    return registration;
+                    return RowMappers.REGISTRATION.mapRow(rs);
                 }
             }
         }
@@ -76,6 +214,11 @@ public class RegistrationDAO {
     // 3) READ ALL REGISTRATIONS BY USER
     // ====================================================================================
     public List<Registration> getRegistrationsByUser(int userId) throws SQLException {
+        return getRegistrationsByUser(userId, FetchPlan.FULL);
+    }
+
+    // tournamentPlan decide quanto del torneo caricare per ogni iscrizione (vedi FetchPlan)
+    public List<Registration> getRegistrationsByUser(int userId, FetchPlan tournamentPlan) throws SQLException {
         String sql = """
             SELECT tournament_id, user_id, registration_date, reg_deck
             FROM registrations
@@ -83,29 +226,28 @@ public class RegistrationDAO {
         """;
 
         List<Registration> registrations = new ArrayList<>();
+        List<Integer> tournamentIds = new ArrayList<>();   // parallela a registrations
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, userId);
 
             try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Registration> mapper = RowMappers.REGISTRATION.bind(rs);
                 while (rs.next()) {
-
-                    User user = new User("");
-                    user.setUserId(userId);
-
-                    Deck deck = new Deck("", user);
-                    deck.setDeckId(rs.getInt("reg_deck"));
-
-                    // Ottieni il torneo completo
-                    TournamentDAO tempDAO = new TournamentDAO(connection);
-                    Tournament tournament = tempDAO.getTournamentById(rs.getInt("tournament_id"));
-
-                    Registration registration = new Registration(tournament, user, deck);
-                    registration.setRegistrationDate(rs.getTimestamp("registration_date").toLocalDateTime());
+                    Registration registration = mapper.map(rs);
                     registrations.add(registration);
+                    tournamentIds.add(registration.getTournament().getTournamentId());
                 }
             }
         }
+
+        // Tutti i tornei in un colpo solo, secondo il piano richiesto
+        Map<Integer, Tournament> tournaments = new TournamentDAO(dataSource)
+                .getTournamentsByIds(new HashSet<>(tournamentIds), tournamentPlan);
+        for (int i = 0; i < registrations.size(); i++) {
+            registrations.get(i).setTournament(tournaments.get(tournamentIds.get(i)));
+        }
         return registrations;
     }
 
@@ -113,75 +255,147 @@ public class RegistrationDAO {
     // 4) READ ALL REGISTRATIONS BY TOURNAMENT
     // ====================================================================================
     public List<Registration> getRegistrationsByTournament(int tournamentId) throws SQLException {
+        return getRegistrationsByTournamentIds(List.of(tournamentId))
+                .getOrDefault(tournamentId, new ArrayList<>());
+    }
+
+    // ====================================================================================
+    // 4.1) READ REGISTRATIONS FOR A SET OF TOURNAMENTS (utenti in JOIN, una sola query)
+    // ====================================================================================
+    public Map<Integer, List<Registration>> getRegistrationsByTournamentIds(Collection<Integer> tournamentIds)
+            throws SQLException {
+        Map<Integer, List<Registration>> registrationsByTournament = new HashMap<>();
+        if (tournamentIds.isEmpty()) {
+            return registrationsByTournament;
+        }
+
         String sql = """
-            SELECT tournament_id, user_id, registration_date, reg_deck
-            FROM registrations
-            WHERE tournament_id = ?
+            SELECT reg.tournament_id, reg.registration_date, reg.reg_deck,
+                   u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+            FROM registrations reg
+            JOIN users u ON reg.user_id = u.user_id
+            JOIN roles r ON u.role_id = r.role_id
+            WHERE reg.tournament_id = ANY(?)
         """;
 
-        List<Registration> registrations = new ArrayList<>();
-
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, tournamentId);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setArray(1, connection.createArrayOf("integer", tournamentIds.toArray()));
 
             try (ResultSet rs = ps.executeQuery()) {
+                // Utente completo, letto dalla JOIN
+                RowMapper<Registration> mapper = RowMappers.REGISTRATION_WITH_USER.bind(rs);
+                int tournamentColumn = rs.findColumn("tournament_id");
                 while (rs.next()) {
+                    int tournamentId = rs.getInt(tournamentColumn);
 
-                    Tournament tournament = new Tournament("");
-                    tournament.setTournamentId(tournamentId);
-
-                    // Ottieni l'utente completo
-                    User user = userDAO.getUserById(rs.getInt("user_id"));
-
-                    /* equivalente a
-                    User u = new User("");
-                    u.setUserId(rs.getInt("user_id"));
-                    */
-
-                    Deck deck = new Deck("", user);
-                    deck.setDeckId(rs.getInt("reg_deck"));
-
-
-                    Registration registration = new Registration(tournament, user, deck);
-                    registration.setRegistrationDate(rs.getTimestamp("registration_date").toLocalDateTime());
-                    registrations.add(registration);
+                    Registration registration = mapper.map(rs);
+                    registration.setTournament(RowMappers.tournamentReference(tournamentId));
+                    registrationsByTournament
+                            .computeIfAbsent(tournamentId, key -> new ArrayList<>())
+                            .add(registration);
                 }
             }
         }
-        return registrations;
+        return registrationsByTournament;
     }
 
     // ====================================================================================
     // 5) READ ALL REGISTRATIONS
     // ====================================================================================
     public List<Registration> getAllRegistrations() throws SQLException {
+        // Storicamente i tornei venivano restituiti senza iscrizioni per evitare loop
+        return getAllRegistrations(FetchPlan.WITH_ORGANIZER);
+    }
+
+    public List<Registration> getAllRegistrations(FetchPlan tournamentPlan) throws SQLException {
+        return UnitOfWork.within(() -> loadAllRegistrations(tournamentPlan));
+    }
+
+    private List<Registration> loadAllRegistrations(FetchPlan tournamentPlan) throws SQLException {
         String sql = """
-        SELECT tournament_id, user_id, registration_date, reg_deck
-        FROM registrations
+        SELECT reg.tournament_id, reg.registration_date, reg.reg_deck,
+               u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+        FROM registrations reg
+        JOIN users u ON reg.user_id = u.user_id
+        JOIN roles r ON u.role_id = r.role_id
     """;
+        return loadRegistrations(sql, ParameterSetter.NONE, tournamentPlan);
+    }
 
-        List<Registration> registrations = new ArrayList<>();
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    // ====================================================================================
+    // 5.1) READ PAGE (keyset sulla chiave (tournament_id, user_id))
+    // ====================================================================================
+    //Al massimo pageSize iscrizioni successive a (afterTournamentId, afterUserId), in ordine di chiave.
+    // Pagina successiva: la coppia dell'ultima iscrizione ricevuta ((0, 0) per la prima).
+    public List<Registration> getRegistrationsPage(int afterTournamentId, int afterUserId, int pageSize,
+                                                   FetchPlan tournamentPlan) throws SQLException {
+        String sql = """
+        SELECT reg.tournament_id, reg.registration_date, reg.reg_deck,
+               u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+        FROM registrations reg
+        JOIN users u ON reg.user_id = u.user_id
+        JOIN roles r ON u.role_id = r.role_id
+        WHERE (reg.tournament_id, reg.user_id) > (?, ?)
+        ORDER BY reg.tournament_id, reg.user_id
+        LIMIT ?
+    """;
+        return UnitOfWork.within(() -> loadRegistrations(sql, ps -> {
+            ps.setInt(1, afterTournamentId);
+            ps.setInt(2, afterUserId);
+            ps.setInt(3, pageSize);
+        }, tournamentPlan));
+    }
 
-            while (rs.next()) {
-                // Ottieni il torneo completo (senza ricaricare le registrazioni per evitare loop)
-                TournamentDAO tempDAO = new TournamentDAO(connection);
-                Tournament tournament = tempDAO.getTournamentById(rs.getInt("tournament_id"));
-                tournament.setRegistrations(new ArrayList<>());  // Evita loop
+    // ====================================================================================
+    // 5.2) STREAM ALL (memoria costante, vedi JdbcStreams; lo Stream va chiuso)
+    // ====================================================================================
+    //Iscrizioni in ordine di chiave con l'utente completo; il torneo e' un riferimento con il solo id.
+    public Stream<Registration> streamAllRegistrations() throws SQLException {
+        String sql = """
+        SELECT reg.tournament_id, reg.registration_date, reg.reg_deck,
+               u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+        FROM registrations reg
+        JOIN users u ON reg.user_id = u.user_id
+        JOIN roles r ON u.role_id = r.role_id
+        ORDER BY reg.tournament_id, reg.user_id
+    """;
+        return JdbcStreams.stream(dataSource, sql, ParameterSetter.NONE, rs -> {
+            RowMapper<Registration> registrations = RowMappers.REGISTRATION_WITH_USER.bind(rs);
+            int tournamentId = rs.findColumn("tournament_id");
+            return row -> {
+                Registration registration = registrations.map(row);
+                registration.setTournament(RowMappers.tournamentReference(row.getInt(tournamentId)));
+                return registration;
+            };
+        });
+    }
 
-                // Ottieni l'utente completo
-                User user = userDAO.getUserById(rs.getInt("user_id"));
+    // Iscrizioni (utenti in JOIN) + tornei caricati in blocco con una sola query
+    private List<Registration> loadRegistrations(String sql, ParameterSetter parameters, FetchPlan tournamentPlan)
+            throws SQLException {
+        List<Registration> registrations = new ArrayList<>();
+        List<Integer> tournamentIds = new ArrayList<>();   // parallela a registrations
 
-                Deck deck = new Deck("", user);
-                deck.setDeckId(rs.getInt("reg_deck"));
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            parameters.set(ps);
 
-                Registration registration = new Registration(tournament, user, deck);
-                registration.setRegistrationDate(rs.getTimestamp("registration_date").toLocalDateTime());
-                registrations.add(registration);
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Registration> mapper = RowMappers.REGISTRATION_WITH_USER.bind(rs);
+                int tournamentId = rs.findColumn("tournament_id");
+                while (rs.next()) {
+                    registrations.add(mapper.map(rs));
+                    tournamentIds.add(rs.getInt(tournamentId));
+                }
             }
         }
+
+        Map<Integer, Tournament> tournaments = new TournamentDAO(dataSource)
+                .getTournamentsByIds(new HashSet<>(tournamentIds), tournamentPlan);
+        for (int i = 0; i < registrations.size(); i++) {
+            registrations.get(i).setTournament(tournaments.get(tournamentIds.get(i)));
+        }
         return registrations;
     }
 
@@ -189,14 +403,78 @@ public class RegistrationDAO {
     // 6) DELETE REGISTRATION
     // ====================================================================================
     public void deleteRegistration(int tournamentId, int userId) throws SQLException {
+        removeRegistration(tournamentId, userId, null, null);
+    }
+
+    // ====================================================================================
+    // 6.1) DELETE REGISTRATION AND PROMOTE FROM WAITLIST
+    // ====================================================================================
+    //Come sopra; se si libera un posto lo assegna alla testa della lista d'attesa nella stessa transazione,
+    // cosi' nessun'altra richiesta puo' prenderlo nel frattempo. Restituisce l'utente promosso, oppure null.
+    public Integer deleteRegistrationAndPromote(int tournamentId, int userId, LocalDate today) throws SQLException {
+        return removeRegistration(tournamentId, userId, today, null);
+    }
+
+    //onPromotion (se non null) riceve l'utente promosso nella transazione, prima del commit (es. outbox notifiche)
+    public Integer deleteRegistrationAndPromote(int tournamentId, int userId, LocalDate today,
+                                                TransactionHook<Integer> onPromotion) throws SQLException {
+        return removeRegistration(tournamentId, userId, today, onPromotion);
+    }
+
+    // promoteOn = null: nessuna promozione
+    private Integer removeRegistration(int tournamentId, int userId, LocalDate promoteOn,
+                                       TransactionHook<Integer> onPromotion) throws SQLException {
         String sql = """
             DELETE FROM registrations
             WHERE tournament_id = ? AND user_id = ?
         """;
+        Integer promoted = null;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);  // Inizia transazione: iscrizione e contatore insieme
+
+            try {
+                int deleted;
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setInt(1, tournamentId);
+                    ps.setInt(2, userId);
+                    deleted = ps.executeUpdate();
+                }
+                // Il contatore scende solo se l'iscrizione esisteva davvero
+                if (deleted > 0) {
+                    updateRegisteredCount(connection, tournamentId, -deleted);
+                    if (promoteOn != null) {
+                        promoted = promoteHead(connection, tournamentId, promoteOn);
+                    }
+                    if (promoted != null && onPromotion != null) {
+                        onPromotion.beforeCommit(promoted);
+                    }
+                }
+
+                connection.commit();  // Conferma transazione
+
+            } catch (SQLException e) {
+                connection.rollback();  // Annulla se errore
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);  // Ripristina auto-commit
+            }
+        }
+        UnitOfWork.evictIfActive(Tournament.class, tournamentId);
+        return promoted;
+    }
+
+    //Aggiorna tournaments.registered_count nella transazione del chiamante
+    private static void updateRegisteredCount(Connection connection, int tournamentId, int delta) throws SQLException {
+        String sql = """
+            UPDATE tournaments
+            SET registered_count = registered_count + ?
+            WHERE tournament_id = ?
+        """;
 
         try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, tournamentId);
-            ps.setInt(2, userId);
+            ps.setInt(1, delta);
+            ps.setInt(2, tournamentId);
             ps.executeUpdate();
         }
     }
@@ -211,7 +489,8 @@ public class RegistrationDAO {
             WHERE tournament_id = ? AND user_id = ?
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, tournamentId);
             ps.setInt(2, userId);
 
@@ -220,5 +499,212 @@ public class RegistrationDAO {
             }
         }
     }
-}
 
+    // ====================================================================================
+    // 8) WAITLIST (lista d'attesa FIFO dei tornei pieni)
+    // ====================================================================================
+    /*
+     * Una riga per utente in attesa, ordinata per position (sequenza crescente).
+     * La promozione legge e rimuove la testa dall'indice (tournament_id, position): costo costante
+     * rispetto alla lunghezza della lista. Il lock sulla riga del torneo serializza promozioni e
+     * iscrizioni concorrenti, quindi un posto liberato va a un solo utente.
+     */
+
+    // 8.1) Accoda l'utente (se era gia' in lista resta dov'era); restituisce la posizione, da 1
+    public int joinWaitlist(Registration registration) throws SQLException {
+        String insert = """
+            INSERT INTO waitlist (tournament_id, user_id, reg_deck, queued_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (tournament_id, user_id) DO NOTHING
+        """;
+        int tournamentId = registration.getTournament().getTournamentId();
+        int userId = registration.getUser().getUserId();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(insert)) {
+            ps.setInt(1, tournamentId);
+            ps.setInt(2, userId);
+            ps.setInt(3, registration.getRegDeck().getDeckId());
+            ps.setTimestamp(4, Timestamp.valueOf(registration.getRegistrationDate()));
+            ps.executeUpdate();
+        }
+        return getWaitlistPosition(tournamentId, userId);
+    }
+
+    // 8.2) Posizione dell'utente nella lista (da 1), 0 se non e' in attesa
+    public int getWaitlistPosition(int tournamentId, int userId) throws SQLException {
+        String sql = """
+            SELECT COUNT(*) AS position
+            FROM waitlist w
+            WHERE w.tournament_id = ?
+              AND w.position <= (SELECT position FROM waitlist WHERE tournament_id = ? AND user_id = ?)
+        """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, tournamentId);
+            ps.setInt(2, tournamentId);
+            ps.setInt(3, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    // 8.3) Lista d'attesa in ordine di arrivo (utenti in JOIN; registration_date = ingresso in lista)
+    public List<Registration> getWaitlist(int tournamentId) throws SQLException {
+        String sql = """
+            SELECT w.tournament_id, w.queued_at AS registration_date, w.reg_deck,
+                   u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+            FROM waitlist w
+            JOIN users u ON w.user_id = u.user_id
+            JOIN roles r ON u.role_id = r.role_id
+            WHERE w.tournament_id = ?
+            ORDER BY w.position
+        """;
+
+        List<Registration> waitlist = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, tournamentId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Registration> mapper = RowMappers.REGISTRATION_WITH_USER.bind(rs);
+                while (rs.next()) {
+                    Registration registration = mapper.map(rs);
+                    registration.setTournament(RowMappers.tournamentReference(tournamentId));
+                    waitlist.add(registration);
+                }
+            }
+        }
+        return waitlist;
+    }
+
+    // 8.4) Esce dalla lista; false se non c'era
+    public boolean leaveWaitlist(int tournamentId, int userId) throws SQLException {
+        String sql = """
+            DELETE FROM waitlist
+            WHERE tournament_id = ? AND user_id = ?
+        """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, tournamentId);
+            ps.setInt(2, userId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    // 8.5) Toglie l'utente da tutte le liste d'attesa (es. ban); restituisce quante
+    public int removeFromAllWaitlists(int userId) throws SQLException {
+        String sql = """
+            DELETE FROM waitlist
+            WHERE user_id = ?
+        """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            return ps.executeUpdate();
+        }
+    }
+
+    // 8.6) Se c'e' un posto libero lo assegna alla testa della lista; restituisce l'utente promosso, oppure null
+    public Integer promoteFromWaitlist(int tournamentId, LocalDate today) throws SQLException {
+        return promoteFromWaitlist(tournamentId, today, null);
+    }
+
+    //onPromotion come in deleteRegistrationAndPromote
+    public Integer promoteFromWaitlist(int tournamentId, LocalDate today, TransactionHook<Integer> onPromotion)
+            throws SQLException {
+        Integer promoted;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);  // Inizia transazione
+
+            try {
+                promoted = promoteHead(connection, tournamentId, today);
+                if (promoted != null && onPromotion != null) {
+                    onPromotion.beforeCommit(promoted);
+                }
+                connection.commit();  // Conferma transazione
+
+            } catch (SQLException e) {
+                connection.rollback();  // Annulla se errore
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);  // Ripristina auto-commit
+            }
+        }
+        if (promoted != null) {
+            UnitOfWork.evictIfActive(Tournament.class, tournamentId);
+        }
+        return promoted;
+    }
+
+    //Promozione nella transazione del chiamante: lock sul torneo, poi testa della lista -> iscrizione
+    private static Integer promoteHead(Connection connection, int tournamentId, LocalDate today) throws SQLException {
+        // Il torneo accetta ancora iscritti (READY incluso: era pieno) e ha un posto libero
+        String lockSeat = """
+            SELECT tournament_id
+            FROM tournaments
+            WHERE tournament_id = ? AND status_id IN (?, ?) AND deadline > ? AND registered_count < capacity
+            FOR UPDATE
+        """;
+        String popHead = """
+            DELETE FROM waitlist
+            WHERE tournament_id = ?
+              AND position = (SELECT MIN(position) FROM waitlist WHERE tournament_id = ?)
+            RETURNING user_id, reg_deck
+        """;
+        String insert = """
+            INSERT INTO registrations (tournament_id, user_id, registration_date, reg_deck)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (tournament_id, user_id) DO NOTHING
+        """;
+
+        try (PreparedStatement ps = connection.prepareStatement(lockSeat)) {
+            ps.setInt(1, tournamentId);
+            ps.setInt(2, CodeTables.tournamentStatusId(TournamentStatus.APPROVED));
+            ps.setInt(3, CodeTables.tournamentStatusId(TournamentStatus.READY));
+            ps.setDate(4, Date.valueOf(today));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+            }
+        }
+
+        while (true) {
+            int userId;
+            int deckId;
+            try (PreparedStatement ps = connection.prepareStatement(popHead)) {
+                ps.setInt(1, tournamentId);
+                ps.setInt(2, tournamentId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;   // lista vuota
+                    }
+                    userId = rs.getInt(1);   // colonne di RETURNING, nell'ordine
+                    deckId = rs.getInt(2);
+                }
+            }
+
+            int inserted;
+            try (PreparedStatement ps = connection.prepareStatement(insert)) {
+                ps.setInt(1, tournamentId);
+                ps.setInt(2, userId);
+                ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setInt(4, deckId);
+                inserted = ps.executeUpdate();
+            }
+
+            // Gia' iscritto per altra via: si passa al successivo
+            if (inserted > 0) {
+                updateRegisteredCount(connection, tournamentId, 1);
+                return userId;
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ORM.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Converte la riga corrente del ResultSet in un oggetto del dominio
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
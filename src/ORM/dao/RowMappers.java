@@ -0,0 +1,188 @@
+package ORM.dao;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import DomainModel.card.CardQuantity;
+import DomainModel.card.Deck;
+import DomainModel.tournament.Registration;
+import DomainModel.tournament.Tournament;
+import DomainModel.user.Notification;
+import DomainModel.user.User;
+
+import java.util.ArrayList;
+
+/*
+ * Mapper condivisi dai DAO, uno per forma di riga. Ogni query seleziona le colonne con questi nomi
+ * (anche con alias, es. r.name AS role_name); l'ordine delle colonne non conta.
+ *
+ *   RowMapper<Card> mapper = RowMappers.CARD.bind(rs);   // indici risolti una volta per ResultSet
+ *   while (rs.next()) cards.add(mapper.map(rs));
+ *
+ * Le decodifiche dei codici passano da CodeTables. Card e User restano canoniche dentro una UnitOfWork.
+ */
+public final class RowMappers {
+
+    private RowMappers() { }
+
+    // card_id, card_name, tcg_id
+    public static final ColumnMapper<Card> CARD = rs -> {
+        int cardId = rs.findColumn("card_id");
+        int cardName = rs.findColumn("card_name");
+        int tcgId = rs.findColumn("tcg_id");
+        return row -> {
+            int id = row.getInt(cardId);
+            Card cached = UnitOfWork.lookup(Card.class, id);
+            if (cached != null) {
+                return cached;
+            }
+            Card card = new Card();
+            card.setCardId(id);
+            card.setCardName(row.getString(cardName));
+            card.setCardType(CodeTables.gameType(row.getInt(tcgId)));
+            return UnitOfWork.canonical(Card.class, id, card);
+        };
+    };
+
+    // colonne di CARD + quantity
+    public static final ColumnMapper<CardQuantity> CARD_QUANTITY = rs -> {
+        RowMapper<Card> card = CARD.bind(rs);
+        int quantity = rs.findColumn("quantity");
+        return row -> new CardQuantity(card.map(row), row.getInt(quantity));
+    };
+
+    // user_id, username, email, pwd, is_enabled, role_name
+    public static final ColumnMapper<User> USER = rs -> {
+        int userId = rs.findColumn("user_id");
+        int username = rs.findColumn("username");
+        int email = rs.findColumn("email");
+        int pwd = rs.findColumn("pwd");
+        int enabled = rs.findColumn("is_enabled");
+        int roleName = rs.findColumn("role_name");
+        return row -> {
+            int id = row.getInt(userId);
+            User cached = UnitOfWork.lookup(User.class, id);
+            if (cached != null) {
+                return cached;
+            }
+            User user = new User(row.getString(username), row.getString(email), row.getString(pwd),
+                    row.getBoolean(enabled), CodeTables.roleByName(row.getString(roleName)));
+            user.setUserId(id);
+            return UnitOfWork.canonical(User.class, id, user);
+        };
+    };
+
+    // Come USER ma senza pwd. Non passa dalla UnitOfWork, per non far circolare come canonica
+    // un'istanza senza password.
+    public static final ColumnMapper<User> USER_SUMMARY = rs -> {
+        int userId = rs.findColumn("user_id");
+        int username = rs.findColumn("username");
+        int email = rs.findColumn("email");
+        int enabled = rs.findColumn("is_enabled");
+        int roleName = rs.findColumn("role_name");
+        return row -> {
+            User user = new User(row.getString(username), row.getString(email), null,
+                    row.getBoolean(enabled), CodeTables.roleByName(row.getString(roleName)));
+            user.setUserId(row.getInt(userId));
+            return user;
+        };
+    };
+
+    // deck_id, deck_name, tcg_id, user_id, username: mazzo senza carte, proprietario con id e username
+    public static final ColumnMapper<Deck> DECK_SUMMARY = rs -> {
+        int deckId = rs.findColumn("deck_id");
+        int deckName = rs.findColumn("deck_name");
+        int tcgId = rs.findColumn("tcg_id");
+        int userId = rs.findColumn("user_id");
+        int username = rs.findColumn("username");
+        return row -> {
+            User owner = new User(row.getString(username));
+            owner.setUserId(row.getInt(userId));
+            return new Deck(row.getInt(deckId), row.getString(deckName), owner, new ArrayList<>(),
+                    CodeTables.gameType(row.getInt(tcgId)));
+        };
+    };
+
+    // Riga di tournaments senza organizzatore e iscrizioni (costruttore di ricostruzione: nessuna notifica)
+    public static final ColumnMapper<Tournament> TOURNAMENT = rs -> {
+        int tournamentId = rs.findColumn("tournament_id");
+        int tournamentName = rs.findColumn("tournament_name");
+        int description = rs.findColumn("description");
+        int capacity = rs.findColumn("capacity");
+        int deadline = rs.findColumn("deadline");
+        int startDate = rs.findColumn("start_date");
+        int statusId = rs.findColumn("status_id");
+        int registeredCount = rs.findColumn("registered_count");
+        int tcgId = rs.findColumn("tcg_id");
+        return row -> new Tournament(
+                row.getInt(tournamentId),
+                row.getString(tournamentName),
+                row.getString(description),
+                row.getInt(capacity),
+                row.getDate(deadline).toLocalDate(),
+                row.getDate(startDate).toLocalDate(),
+                CodeTables.tournamentStatus(row.getInt(statusId)),
+                row.getInt(registeredCount),
+                CodeTables.gameType(row.getInt(tcgId))
+        );
+    };
+
+    // tournament_id, user_id, registration_date, reg_deck: iscrizione con riferimenti leggeri (solo id)
+    // a torneo, utente e mazzo
+    public static final ColumnMapper<Registration> REGISTRATION = rs -> {
+        int tournamentId = rs.findColumn("tournament_id");
+        int userId = rs.findColumn("user_id");
+        int registrationDate = rs.findColumn("registration_date");
+        int regDeck = rs.findColumn("reg_deck");
+        return row -> {
+            User user = new User("");
+            user.setUserId(row.getInt(userId));
+            Deck deck = new Deck("", user);
+            deck.setDeckId(row.getInt(regDeck));
+            Registration registration = new Registration(tournamentReference(row.getInt(tournamentId)), user, deck);
+            registration.setRegistrationDate(row.getTimestamp(registrationDate).toLocalDateTime());
+            return registration;
+        };
+    };
+
+    // colonne di USER + reg_deck, registration_date: iscrizione senza torneo, con l'utente completo
+    public static final ColumnMapper<Registration> REGISTRATION_WITH_USER = rs -> {
+        RowMapper<User> user = USER.bind(rs);
+        int regDeck = rs.findColumn("reg_deck");
+        int registrationDate = rs.findColumn("registration_date");
+        return row -> {
+            User owner = user.map(row);
+            Deck deck = new Deck("", owner);
+            deck.setDeckId(row.getInt(regDeck));
+            Registration registration = new Registration(null, owner, deck);
+            registration.setRegistrationDate(row.getTimestamp(registrationDate).toLocalDateTime());
+            return registration;
+        };
+    };
+
+    // notification_id, user_id, tcg_id (nullable), message, created_at
+    public static final ColumnMapper<Notification> NOTIFICATION = rs -> {
+        int notificationId = rs.findColumn("notification_id");
+        int userId = rs.findColumn("user_id");
+        int tcgId = rs.findColumn("tcg_id");
+        int message = rs.findColumn("message");
+        int createdAt = rs.findColumn("created_at");
+        return row -> {
+            int gameId = row.getInt(tcgId);
+            GameType gameType = row.wasNull() ? null : CodeTables.gameType(gameId);
+            return new Notification(
+                    row.getLong(notificationId),
+                    row.getInt(userId),
+                    row.getString(message),
+                    gameType,
+                    row.getTimestamp(createdAt).toInstant()
+            );
+        };
+    };
+
+    // Riferimento leggero a un torneo: il solo id (le iscrizioni lette senza caricare il torneo)
+    static Tournament tournamentReference(int tournamentId) {
+        Tournament tournament = new Tournament("");
+        tournament.setTournamentId(tournamentId);
+        return tournament;
+    }
+}
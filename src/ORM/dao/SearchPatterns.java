@@ -0,0 +1,33 @@
+package ORM.dao;
+
+/*
+ * Pattern ILIKE per le ricerche per nome dei DAO.
+ * I caratteri speciali di LIKE (%, _ e il carattere di escape) nella parola cercata vengono trattati come letterali.
+ */
+final class SearchPatterns {
+
+    static final char ESCAPE = '\\';
+
+    private SearchPatterns() { }
+
+    // "%keyword%": sottostringa ovunque nel nome
+    static String contains(String keyword) {
+        return "%" + escape(keyword.trim()) + "%";
+    }
+
+    // "keyword%": inizio del nome (usato per l'ordinamento per rilevanza)
+    static String prefix(String keyword) {
+        return escape(keyword.trim()) + "%";
+    }
+
+    private static String escape(String keyword) {
+        StringBuilder sb = new StringBuilder(keyword.length() + 8);
+        for (char c : keyword.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                sb.append(ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
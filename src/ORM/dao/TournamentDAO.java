@@ -3,22 +3,37 @@ package ORM.dao;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import ORM.connection.DatabaseConnection;
+import java.util.Map;
+import java.util.stream.Stream;
+import ORM.connection.SingleConnectionDataSource;
+import javax.sql.DataSource;
 
 import DomainModel.tournament.*;
 import DomainModel.user.User;
 import DomainModel.GameType;
+import Utils.primitive.Int2ObjectHashMap;
+import Utils.primitive.IntArrayList;
 
 
 public class TournamentDAO {
 
-    private final Connection connection;
+    private final DataSource dataSource;
     private final UserDAO userDAO;
+    private final RegistrationDAO registrationDAO;
+
+    public TournamentDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.userDAO = new UserDAO(dataSource);
+        this.registrationDAO = new RegistrationDAO(dataSource);
+    }
 
     public TournamentDAO(Connection connection) {
-        this.connection = connection;
-        this.userDAO = new UserDAO(connection);
+        this(new SingleConnectionDataSource(connection));
     }
 
     // ====================================================================================
@@ -30,14 +45,15 @@ public class TournamentDAO {
             VALUES (?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, tournament.getName());
             ps.setString(2, tournament.getDescription());
             ps.setInt(3, tournament.getOrganizer().getUserId());
             ps.setInt(4, tournament.getCapacity());
             ps.setDate(5, Date.valueOf(tournament.getDeadline()));
             ps.setDate(6, Date.valueOf(tournament.getStartDate()));
-            ps.setInt(7, mapStatusToId(tournament.getStatus()));
+            ps.setInt(7, CodeTables.tournamentStatusId(tournament.getStatus()));
             ps.setInt(8, tournament.getGameType().getGameId());
 
             ps.executeUpdate();
@@ -54,211 +70,168 @@ public class TournamentDAO {
     // 2) READ TOURNAMENT BY ID
     // ====================================================================================
     public Tournament getTournamentById(int tournamentId) throws SQLException {
+        return getTournamentById(tournamentId, FetchPlan.FULL);
+    }
+
+    public Tournament getTournamentById(int tournamentId, FetchPlan plan) throws SQLException {
         String sql = """
-            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
             FROM tournaments
             WHERE tournament_id = ?
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, tournamentId);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    Tournament tournament = new Tournament(rs.getString("tournament_name"),
-                                                            GameType.fromId(rs.getInt("tcg_id"))
-                    );
-                    tournament.setTournamentId(rs.getInt("tournament_id"));
-                    tournament.setDescription(rs.getString("description"));
-
-                    //creo UserDAO per avere anche le info dell'organizzatore
-                    User organizer = userDAO.getUserById(rs.getInt("organizer_id"));
-                    tournament.setOrganizer(organizer);
-
-                    tournament.setCapacity(rs.getInt("capacity"));
-                    tournament.setDeadline(rs.getDate("deadline").toLocalDate());
-                    tournament.setStartDate(rs.getDate("start_date").toLocalDate());
-                    tournament.setStatus(mapIdToStatus(rs.getInt("status_id")));
-
-                    // Load registrations
-                    RegistrationDAO tempDAO = new RegistrationDAO(connection);
-                    List<Registration> registrations = tempDAO.getRegistrationsByTournament(tournamentId);
-                    tournament.setRegistrations(registrations);
-
-                    return tournament;
-                }
-            }
+        // Nella UnitOfWork ci sono solo tornei caricati con FULL, validi per qualunque piano
+        Tournament cached = UnitOfWork.lookup(Tournament.class, tournamentId);
+        if (cached != null) {
+            return cached;
         }
-        return null;
+
+        List<Tournament> tournaments = loadTournaments(sql, ps -> ps.setInt(1, tournamentId), plan);
+        return tournaments.isEmpty() ? null : tournaments.get(0);
     }
 
     // ====================================================================================
     // 3) READ TOURNAMENT BY GAME TYPE
     // ====================================================================================
     public List<Tournament> getTournamentsByGameType(GameType gameType) throws SQLException {
+        return getTournamentsByGameType(gameType, FetchPlan.FULL);
+    }
+
+    public List<Tournament> getTournamentsByGameType(GameType gameType, FetchPlan plan) throws SQLException {
         String sql = """
-            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
             FROM tournaments
             WHERE tcg_id = ?
         """;
 
-        List<Tournament> tournaments = new ArrayList<>();
-
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, gameType.getGameId());
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Tournament tournament = new Tournament(rs.getString("tournament_name"),
-                                                           GameType.fromId(rs.getInt("tcg_id"))
-                    );
-                    tournament.setTournamentId(rs.getInt("tournament_id"));
-                    tournament.setDescription(rs.getString("description"));
-
-                    User organizer = userDAO.getUserById(rs.getInt("organizer_id"));
-                    tournament.setOrganizer(organizer);
-
-                    tournament.setCapacity(rs.getInt("capacity"));
-                    tournament.setDeadline(rs.getDate("deadline").toLocalDate());
-                    tournament.setStartDate(rs.getDate("start_date").toLocalDate());
-                    tournament.setStatus(mapIdToStatus(rs.getInt("status_id")));
-
-                    // Load registrations
-                    RegistrationDAO tempDAO = new RegistrationDAO(connection);
-                    List<Registration> registrations = tempDAO.getRegistrationsByTournament(rs.getInt("tournament_id"));
-                    tournament.setRegistrations(registrations);
-
-                    tournaments.add(tournament);
-                }
-            }
-        }
-        return tournaments;
+        return loadTournaments(sql, ps -> ps.setInt(1, gameType.getGameId()), plan);
     }
 
     // ====================================================================================
     // 4) READ BY ORGANIZER
     // ====================================================================================
     public List<Tournament> getTournamentsByOrganizer(int organizerId) throws SQLException {
+        return getTournamentsByOrganizer(organizerId, FetchPlan.FULL);
+    }
+
+    public List<Tournament> getTournamentsByOrganizer(int organizerId, FetchPlan plan) throws SQLException {
         String sql = """
-            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
             FROM tournaments
             WHERE organizer_id = ?
         """;
 
-        List<Tournament> tournaments = new ArrayList<>();
-
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, organizerId);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Tournament tournament = new Tournament(rs.getString("tournament_name"),
-                                                           GameType.fromId(rs.getInt("tcg_id"))
-                    );
-                    tournament.setTournamentId(rs.getInt("tournament_id"));
-                    tournament.setDescription(rs.getString("description"));
-
-                    User organizer = userDAO.getUserById(rs.getInt("organizer_id"));
-                    tournament.setOrganizer(organizer);
-
-                    tournament.setCapacity(rs.getInt("capacity"));
-                    tournament.setDeadline(rs.getDate("deadline").toLocalDate());
-                    tournament.setStartDate(rs.getDate("start_date").toLocalDate());
-                    tournament.setStatus(mapIdToStatus(rs.getInt("status_id")));
-
-                    // Load registrations
-                    RegistrationDAO tempDAO = new RegistrationDAO(connection);
-                    List<Registration> registrations = tempDAO.getRegistrationsByTournament(rs.getInt("tournament_id"));
-                    tournament.setRegistrations(registrations);
-
-                    tournaments.add(tournament);
-                }
-            }
-        }
-        return tournaments;
+        return loadTournaments(sql, ps -> ps.setInt(1, organizerId), plan);
     }
 
     // ====================================================================================
     // 5) READ BY STATUS
     // ====================================================================================
     public List<Tournament> getTournamentsByStatus(TournamentStatus status) throws SQLException {
+        return getTournamentsByStatus(status, FetchPlan.FULL);
+    }
+
+    public List<Tournament> getTournamentsByStatus(TournamentStatus status, FetchPlan plan) throws SQLException {
         String sql = """
-            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
             FROM tournaments
             WHERE status_id = ?
         """;
 
-        List<Tournament> tournaments = new ArrayList<>();
+        return loadTournaments(sql, ps -> ps.setInt(1, CodeTables.tournamentStatusId(status)), plan);
+    }
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, mapStatusToId(status));
+    // ====================================================================================
+    // 6) READ ALL TOURNAMENTS
+    // ====================================================================================
+    public List<Tournament> getAllTournaments() throws SQLException {
+        return getAllTournaments(FetchPlan.FULL);
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Tournament tournament = new Tournament(rs.getString("tournament_name"),
-                                                           GameType.fromId(rs.getInt("tcg_id"))
-                    );
-                    tournament.setTournamentId(rs.getInt("tournament_id"));
-                    tournament.setDescription(rs.getString("description"));
+    public List<Tournament> getAllTournaments(FetchPlan plan) throws SQLException {
+        String sql = """
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
+            FROM tournaments
+        """;
 
-                    User organizer = userDAO.getUserById(rs.getInt("organizer_id"));
-                    tournament.setOrganizer(organizer);
+        return loadTournaments(sql, ParameterSetter.NONE, plan);
+    }
 
-                    tournament.setCapacity(rs.getInt("capacity"));
-                    tournament.setDeadline(rs.getDate("deadline").toLocalDate());
-                    tournament.setStartDate(rs.getDate("start_date").toLocalDate());
-                    tournament.setStatus(mapIdToStatus(rs.getInt("status_id")));
+    // ====================================================================================
+    // 6.1) READ BY IDS (usata da RegistrationDAO per caricare i tornei di un insieme di iscrizioni)
+    // ====================================================================================
+    public Map<Integer, Tournament> getTournamentsByIds(Collection<Integer> tournamentIds, FetchPlan plan)
+            throws SQLException {
+        Map<Integer, Tournament> tournamentsById = new HashMap<>();
+        if (tournamentIds.isEmpty()) {
+            return tournamentsById;
+        }
 
-                    // Load registrations
-                    RegistrationDAO tempDAO = new RegistrationDAO(connection);
-                    List<Registration> registrations = tempDAO.getRegistrationsByTournament(rs.getInt("tournament_id"));
-                    tournament.setRegistrations(registrations);
+        String sql = """
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
+            FROM tournaments
+            WHERE tournament_id = ANY(?)
+        """;
 
-                    tournaments.add(tournament);
-                }
-            }
+        List<Tournament> tournaments = loadTournaments(sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", tournamentIds.toArray())), plan);
+        for (Tournament tournament : tournaments) {
+            tournamentsById.put(tournament.getTournamentId(), tournament);
         }
-        return tournaments;
+        return tournamentsById;
     }
 
     // ====================================================================================
-    // 6) READ ALL TOURNAMENTS
+    // 6.2) READ PAGE (keyset sulla chiave primaria)
     // ====================================================================================
-    public List<Tournament> getAllTournaments() throws SQLException {
+    //Al massimo pageSize tornei con id > afterTournamentId, in ordine di id.
+    // Pagina successiva: afterTournamentId = id dell'ultimo torneo ricevuto (0 per la prima).
+    public List<Tournament> getTournamentsPage(int afterTournamentId, int pageSize, FetchPlan plan) throws SQLException {
         String sql = """
-            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
             FROM tournaments
+            WHERE tournament_id > ?
+            ORDER BY tournament_id
+            LIMIT ?
         """;
 
-        List<Tournament> tournaments = new ArrayList<>();
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Tournament tournament = new Tournament(rs.getString("tournament_name"),
-                                                       GameType.fromId(rs.getInt("tcg_id")));
+        return loadTournaments(sql, ps -> {
+            ps.setInt(1, afterTournamentId);
+            ps.setInt(2, pageSize);
+        }, plan);
+    }
 
-                tournament.setTournamentId(rs.getInt("tournament_id"));
-                tournament.setDescription(rs.getString("description"));
+    // ====================================================================================
+    // 6.3) STREAM ALL (memoria costante, vedi JdbcStreams)
+    // ====================================================================================
+    //Tornei in ordine di id con profilo SUMMARY (organizzatore con il solo id, iscrizioni non caricate).
+    // Per il grafo completo su tabelle grandi usare getTournamentsPage. Lo Stream va chiuso.
+    public Stream<Tournament> streamAllTournaments() throws SQLException {
+        String sql = """
+            SELECT tournament_id, tournament_name, description, organizer_id, capacity, deadline, start_date, status_id, tcg_id,
+                   registered_count
+            FROM tournaments
+            ORDER BY tournament_id
+        """;
 
-                User organizer = userDAO.getUserById(rs.getInt("organizer_id"));
+        return JdbcStreams.stream(dataSource, sql, ParameterSetter.NONE, rs -> {
+            RowMapper<Tournament> tournaments = RowMappers.TOURNAMENT.bind(rs);
+            int organizerId = rs.findColumn("organizer_id");
+            return row -> {
+                Tournament tournament = tournaments.map(row);
+                User organizer = new User("");
+                organizer.setUserId(row.getInt(organizerId));
                 tournament.setOrganizer(organizer);
-
-                tournament.setCapacity(rs.getInt("capacity"));
-                tournament.setDeadline(rs.getDate("deadline").toLocalDate());
-                tournament.setStartDate(rs.getDate("start_date").toLocalDate());
-                tournament.setStatus(mapIdToStatus(rs.getInt("status_id")));
-
-                // Load registrations
-                RegistrationDAO tempDAO = new RegistrationDAO(connection);
-                List<Registration> registrations = tempDAO.getRegistrationsByTournament(rs.getInt("tournament_id"));
-                tournament.setRegistrations(registrations);
-
-                tournaments.add(tournament);
-            }
-        }
-        return tournaments;
+                return tournament;
+            };
+        });
     }
 
     // ====================================================================================
@@ -271,25 +244,141 @@ public class TournamentDAO {
             WHERE tournament_id = ?
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, tournament.getName());
             ps.setString(2, tournament.getDescription());
             ps.setInt(3, tournament.getOrganizer().getUserId());
             ps.setInt(4, tournament.getCapacity());
             ps.setDate(5, Date.valueOf(tournament.getDeadline()));
             ps.setDate(6, Date.valueOf(tournament.getStartDate()));
-            ps.setInt(7, mapStatusToId(tournament.getStatus()));
+            ps.setInt(7, CodeTables.tournamentStatusId(tournament.getStatus()));
             ps.setInt(8, tournament.getGameType().getGameId());
             ps.setInt(9, tournament.getTournamentId());
 
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(Tournament.class, tournament.getTournamentId());
+    }
+
+    // ====================================================================================
+    // 7.1) AUTOMATIC STATUS TRANSITIONS (set-based)
+    // ====================================================================================
+    /*
+     * Applica le transizioni automatiche con un UPDATE ... RETURNING per regola, in un'unica transazione
+     * (la capienza si confronta con il contatore registered_count, senza contare le iscrizioni):
+     * vengono lette e scritte solo le righe che cambiano davvero. Le regole sono in ORDINE: un torneo
+     * puo' fare piu' passi nella stessa esecuzione (es. APPROVED -> READY -> ONGOING), come nel vecchio ciclo.
+     * Restituisce un elemento per ogni passo, con gli utenti iscritti (una sola query per tutti i tornei cambiati).
+     */
+    public List<TournamentStatusTransition> applyStatusTransitions(LocalDate today) throws SQLException {
+        return applyStatusTransitions(today, null);
+    }
+
+    //Come sopra, limitato ai tornei indicati (null = tutti): usata per rivalutare solo i tornei in scadenza
+    public List<TournamentStatusTransition> applyStatusTransitions(LocalDate today, Collection<Integer> tournamentIds)
+            throws SQLException {
+        return applyStatusTransitions(today, tournamentIds, null);
+    }
+
+    //hook (se non null) riceve le transizioni dentro la transazione, prima del commit (es. outbox notifiche)
+    public List<TournamentStatusTransition> applyStatusTransitions(LocalDate today, Collection<Integer> tournamentIds,
+                                                                   TransactionHook<List<TournamentStatusTransition>> hook)
+            throws SQLException {
+        if (tournamentIds != null && tournamentIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<int[]> changes = new ArrayList<>();                 // {tournamentId, regola}
+        Int2ObjectHashMap<String> names = new Int2ObjectHashMap<>();
+        Int2ObjectHashMap<GameType> gameTypes = new Int2ObjectHashMap<>();
+        Int2ObjectHashMap<IntArrayList> userIds = new Int2ObjectHashMap<>();
+        List<TournamentStatusTransition> transitions = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);  // Inizia transazione
+
+            try {
+                for (int rule = 0; rule < STATUS_RULES.size(); rule++) {
+                    StatusRule statusRule = STATUS_RULES.get(rule);
+                    try (PreparedStatement ps = connection.prepareStatement(statusRule.sql(tournamentIds != null))) {
+                        ps.setInt(1, CodeTables.tournamentStatusId(statusRule.to()));
+                        ps.setInt(2, CodeTables.tournamentStatusId(statusRule.from()));
+                        for (int i = 0; i < statusRule.dateParameters(); i++) {
+                            ps.setDate(3 + i, Date.valueOf(today));
+                        }
+                        if (tournamentIds != null) {
+                            ps.setArray(3 + statusRule.dateParameters(),
+                                    connection.createArrayOf("integer", tournamentIds.toArray()));
+                        }
+
+                        try (ResultSet rs = ps.executeQuery()) {
+                            int tournamentId = rs.findColumn("tournament_id");
+                            int tournamentName = rs.findColumn("tournament_name");
+                            int tcgId = rs.findColumn("tcg_id");
+                            while (rs.next()) {
+                                int id = rs.getInt(tournamentId);
+                                changes.add(new int[]{id, rule});
+                                names.put(id, rs.getString(tournamentName));
+                                gameTypes.put(id, CodeTables.gameType(rs.getInt(tcgId)));
+                            }
+                        }
+                    }
+                }
+
+                if (!names.isEmpty()) {
+                    String sql = """
+                        SELECT tournament_id, user_id
+                        FROM registrations
+                        WHERE tournament_id = ANY(?)
+                    """;
+                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                        ps.setArray(1, connection.createArrayOf("integer", Arrays.stream(names.keys()).boxed().toArray()));
+                        try (ResultSet rs = ps.executeQuery()) {
+                            int tournamentId = rs.findColumn("tournament_id");
+                            int userId = rs.findColumn("user_id");
+                            while (rs.next()) {
+                                userIds.computeIfAbsent(rs.getInt(tournamentId), key -> new IntArrayList())
+                                        .add(rs.getInt(userId));
+                            }
+                        }
+                    }
+                }
+
+                for (int[] change : changes) {
+                    int id = change[0];
+                    StatusRule rule = STATUS_RULES.get(change[1]);
+                    transitions.add(new TournamentStatusTransition(id, names.get(id), gameTypes.get(id),
+                            rule.from(), rule.to(), userIds.getOrDefault(id, new IntArrayList())));
+                }
+                if (hook != null && !transitions.isEmpty()) {
+                    hook.beforeCommit(transitions);
+                }
+
+                connection.commit();  // Conferma transazione
+
+            } catch (SQLException e) {
+                connection.rollback();  // Annulla se errore
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);  // Ripristina auto-commit
+            }
+        }
+
+        for (TournamentStatusTransition transition : transitions) {
+            UnitOfWork.evictIfActive(Tournament.class, transition.tournamentId());
+        }
+        return transitions;
     }
 
     // ====================================================================================
     // 8) DELETE TOURNAMENT
     // ====================================================================================
     public void deleteTournament(int tournamentId) throws SQLException {
+        deleteTournament(tournamentId, null);
+    }
+
+    //hook (se non null) gira nella transazione prima di eliminare le iscrizioni (es. notifiche agli iscritti)
+    public void deleteTournament(int tournamentId, TransactionHook<Integer> hook) throws SQLException {
         // Prima elimina tutte le registrazioni correlate per evitare violazioni FK
         String deleteRegistrations = """
         DELETE FROM registrations
@@ -300,55 +389,138 @@ public class TournamentDAO {
         WHERE tournament_id = ?
     """;
 
-        try {
+        try (Connection connection = dataSource.getConnection()) {
             connection.setAutoCommit(false);  // Inizia transazione
 
-            // Elimina registrazioni
-            try (PreparedStatement ps1 = connection.prepareStatement(deleteRegistrations)) {
-                ps1.setInt(1, tournamentId);
-                ps1.executeUpdate();
-            }
+            try {
+                if (hook != null) {
+                    hook.beforeCommit(tournamentId);
+                }
 
-            // Elimina torneo
-            try (PreparedStatement ps2 = connection.prepareStatement(deleteTournament)) {
-                ps2.setInt(1, tournamentId);
-                ps2.executeUpdate();
-            }
+                // Elimina registrazioni
+                try (PreparedStatement ps1 = connection.prepareStatement(deleteRegistrations)) {
+                    ps1.setInt(1, tournamentId);
+                    ps1.executeUpdate();
+                }
+
+                // Elimina torneo
+                try (PreparedStatement ps2 = connection.prepareStatement(deleteTournament)) {
+                    ps2.setInt(1, tournamentId);
+                    ps2.executeUpdate();
+                }
 
-            connection.commit();  // Conferma transazione
+                connection.commit();  // Conferma transazione
 
-        } catch (SQLException e) {
-            connection.rollback();  // Annulla se errore
-            throw e;  // Rilancia l'eccezione
-        } finally {
-            connection.setAutoCommit(true);  // Ripristina auto-commit
+            } catch (SQLException e) {
+                connection.rollback();  // Annulla se errore
+                throw e;  // Rilancia l'eccezione
+            } finally {
+                connection.setAutoCommit(true);  // Ripristina auto-commit
+            }
         }
+        UnitOfWork.evictIfActive(Tournament.class, tournamentId);
     }
 
     // ====================================================================================
     // PRIVATE UTILITIES
     // ====================================================================================
 
-    private int mapStatusToId(TournamentStatus status) {
-        return switch (status) {
-            case PENDING -> 1;
-            case APPROVED -> 2;
-            case REJECTED -> 3;
-            case READY -> 4;
-            case ONGOING -> 5;
-            case FINISHED -> 6;
-        };
+    // Regola di transizione automatica: condizione SQL sul torneo t, i '?' sono tutti la data odierna
+    private record StatusRule(TournamentStatus from, TournamentStatus to, String condition) {
+        String sql(boolean restrictedToIds) {
+            return "UPDATE tournaments t SET status_id = ? WHERE t.status_id = ? AND (" + condition + ")"
+                    + (restrictedToIds ? " AND t.tournament_id = ANY(?)" : "")
+                    + " RETURNING t.tournament_id, t.tournament_name, t.tcg_id";
+        }
+
+        int dateParameters() {
+            return (int) condition.chars().filter(c -> c == '?').count();
+        }
     }
 
-    private TournamentStatus mapIdToStatus(int id) {
-        return switch (id) {
-            case 1 -> TournamentStatus.PENDING;
-            case 2 -> TournamentStatus.APPROVED;
-            case 3 -> TournamentStatus.REJECTED;
-            case 4 -> TournamentStatus.READY;
-            case 5 -> TournamentStatus.ONGOING;
-            case 6 -> TournamentStatus.FINISHED;
-            default -> throw new IllegalArgumentException("Invalid status id: " + id);
-        };
+    private static final List<StatusRule> STATUS_RULES = List.of(
+            // READY -> APPROVED: si e' liberato un posto e le iscrizioni sono ancora aperte
+            new StatusRule(TournamentStatus.READY, TournamentStatus.APPROVED,
+                    "t.start_date > ? AND t.deadline > ? AND t.registered_count < t.capacity"),
+            // APPROVED -> READY: deadline raggiunta (giorno incluso) o torneo pieno
+            new StatusRule(TournamentStatus.APPROVED, TournamentStatus.READY,
+                    "t.deadline <= ? OR t.registered_count >= t.capacity"),
+            // READY -> ONGOING: oggi e' la data di inizio
+            new StatusRule(TournamentStatus.READY, TournamentStatus.ONGOING,
+                    "t.start_date = ?"),
+            // READY/ONGOING -> FINISHED: data di inizio passata
+            new StatusRule(TournamentStatus.READY, TournamentStatus.FINISHED,
+                    "t.start_date < ?"),
+            new StatusRule(TournamentStatus.ONGOING, TournamentStatus.FINISHED,
+                    "t.start_date < ?")
+    );
+
+    /*
+     * Caricamento set-based: qualunque sia il numero di righe, servono al massimo 3 query
+     *  1) i tornei
+     *  2) tutti gli organizzatori (user_id = ANY(?))            -> solo se il FetchPlan lo prevede
+     *  3) tutte le iscrizioni dei tornei caricati, utenti in JOIN -> solo se il FetchPlan lo prevede
+     * Il grafo viene poi ricomposto in memoria.
+     */
+    private List<Tournament> loadTournaments(String sql, ParameterSetter parameters, FetchPlan plan)
+            throws SQLException {
+        // Organizzatori e iscritti condivisi tra tornei diversi diventano la stessa istanza
+        return UnitOfWork.within(() -> loadTournamentGraph(sql, parameters, plan));
+    }
+
+    private List<Tournament> loadTournamentGraph(String sql, ParameterSetter parameters, FetchPlan plan)
+            throws SQLException {
+        List<Tournament> tournaments = new ArrayList<>();
+        Map<Integer, Integer> organizerIdByTournament = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            parameters.set(ps);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Tournament> mapper = RowMappers.TOURNAMENT.bind(rs);
+                int organizerId = rs.findColumn("organizer_id");
+                while (rs.next()) {
+                    Tournament tournament = mapper.map(rs);
+                    organizerIdByTournament.put(tournament.getTournamentId(), rs.getInt(organizerId));
+                    tournaments.add(tournament);
+                }
+            }
+        }
+
+        if (tournaments.isEmpty()) {
+            return tournaments;
+        }
+
+        Map<Integer, User> organizers = plan.loadsOrganizer()
+                ? userDAO.getUsersByIds(new HashSet<>(organizerIdByTournament.values()))
+                : Map.of();
+        Map<Integer, List<Registration>> registrationsByTournament = plan.loadsRegistrations()
+                ? registrationDAO.getRegistrationsByTournamentIds(organizerIdByTournament.keySet())
+                : Map.of();
+
+        for (Tournament tournament : tournaments) {
+            int id = tournament.getTournamentId();
+            int organizerId = organizerIdByTournament.get(id);
+
+            if (plan.loadsOrganizer()) {
+                tournament.setOrganizer(organizers.get(organizerId));
+            } else {
+                // Riferimento leggero: solo l'id dell'organizzatore
+                User organizer = new User("");
+                organizer.setUserId(organizerId);
+                tournament.setOrganizer(organizer);
+            }
+
+            // Con un piano senza iscrizioni la lista resta null (= non caricata)
+            if (plan.loadsRegistrations()) {
+                tournament.setRegistrations(registrationsByTournament.getOrDefault(id, new ArrayList<>()));
+            }
+        }
+
+        if (plan == FetchPlan.FULL) {
+            tournaments.replaceAll(t -> UnitOfWork.canonical(Tournament.class, t.getTournamentId(), t));
+        }
+        return tournaments;
     }
 }
@@ -0,0 +1,16 @@
+package ORM.dao;
+
+import DomainModel.GameType;
+import DomainModel.tournament.TournamentStatus;
+import Utils.primitive.IntArrayList;
+
+/*
+ * Riga di tournaments cambiata da TournamentDAO.applyStatusTransitions,
+ * con gli utenti iscritti al torneo nel momento del cambio.
+ */
+public record TournamentStatusTransition(int tournamentId,
+                                         String tournamentName,
+                                         GameType gameType,
+                                         TournamentStatus oldStatus,
+                                         TournamentStatus newStatus,
+                                         IntArrayList registeredUserIds) { }
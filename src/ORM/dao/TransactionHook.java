@@ -0,0 +1,11 @@
+package ORM.dao;
+
+import java.sql.SQLException;
+
+// Lavoro aggiuntivo eseguito dentro la transazione di un DAO, prima del commit (es. scrittura nell'outbox
+// delle notifiche). I DAO chiamati nel hook riusano la connessione del thread, quindi partecipano alla
+// stessa transazione; un'eccezione annulla tutto.
+@FunctionalInterface
+public interface TransactionHook<T> {
+    void beforeCommit(T result) throws SQLException;
+}
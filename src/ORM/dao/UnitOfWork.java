@@ -0,0 +1,131 @@
+package ORM.dao;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Identity map (cache di primo livello) legata al thread corrente.
+ *
+ * Dentro una unit of work ogni entita' (User, Tournament, Deck, Card) con un certo id corrisponde
+ * a una sola istanza e viene letta dal DB al massimo una volta. Fuori da una unit of work i DAO si
+ * comportano come sempre (nessuna cache).
+ *
+ * Uso:
+ *     try (UnitOfWork uow = UnitOfWork.begin()) {
+ *         ... chiamate ai DAO ...
+ *     }   // alla chiusura dello scope piu' esterno la mappa viene scartata
+ *
+ * begin() e' rientrante: uno scope aperto dentro un altro si unisce a quello esterno, quindi i DAO
+ * possono aprirne uno per ogni caricamento di grafo (within) senza preoccuparsi del chiamante.
+ * I DAO rimuovono (evict) le entita' che modificano, cosi' una rilettura nello stesso scope vede i dati aggiornati.
+ *
+ * Lo scope di richiesta lo apre il punto d'ingresso (RoleMenuController per la sessione di un utente);
+ * ogni giro di menu chiama nextRequest(), cosi' la mappa vive da una scelta dell'utente alla successiva
+ * e non mostra dati modificati nel frattempo da altri thread (es. lo scheduler degli stati).
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute() throws SQLException;
+    }
+
+    private final Map<Class<?>, Map<Integer, Object>> identityMap = new HashMap<>();
+    private int depth;
+
+    private UnitOfWork() { }
+
+    public static UnitOfWork begin() {
+        UnitOfWork uow = CURRENT.get();
+        if (uow == null) {
+            uow = new UnitOfWork();
+            CURRENT.set(uow);
+        }
+        uow.depth++;
+        return uow;
+    }
+
+    // Esegue work dentro una unit of work (quella attiva, se c'e')
+    public static <T> T within(Work<T> work) throws SQLException {
+        UnitOfWork uow = begin();
+        try {
+            return work.execute();
+        } finally {
+            uow.close();
+        }
+    }
+
+    // Inizio di una nuova richiesta nello scope attivo: scarta le entita' lette dalle precedenti
+    // (no-op senza unit of work attiva)
+    public static void nextRequest() {
+        UnitOfWork uow = CURRENT.get();
+        if (uow != null) {
+            uow.clear();
+        }
+    }
+
+    // Unit of work attiva sul thread corrente, oppure null
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            identityMap.clear();
+            CURRENT.remove();
+        }
+    }
+
+    // ====================================================================================
+    // IDENTITY MAP
+    // ====================================================================================
+    public <T> T get(Class<T> type, int id) {
+        Map<Integer, Object> byId = identityMap.get(type);
+        return byId == null ? null : type.cast(byId.get(id));
+    }
+
+    // Registra l'entita' e restituisce l'istanza canonica (quella gia' presente, se c'e')
+    public <T> T register(Class<T> type, int id, T entity) {
+        Object existing = identityMap.computeIfAbsent(type, key -> new HashMap<>()).putIfAbsent(id, entity);
+        return existing == null ? entity : type.cast(existing);
+    }
+
+    public void evict(Class<?> type, int id) {
+        Map<Integer, Object> byId = identityMap.get(type);
+        if (byId != null) {
+            byId.remove(id);
+        }
+    }
+
+    public void clear() {
+        identityMap.clear();
+    }
+
+    // ====================================================================================
+    // SCORCIATOIE STATICHE PER I DAO (no-op senza unit of work attiva)
+    // ====================================================================================
+    static <T> T lookup(Class<T> type, int id) {
+        UnitOfWork uow = CURRENT.get();
+        return uow == null ? null : uow.get(type, id);
+    }
+
+    static <T> T canonical(Class<T> type, int id, T entity) {
+        UnitOfWork uow = CURRENT.get();
+        return uow == null ? entity : uow.register(type, id, entity);
+    }
+
+    static void evictIfActive(Class<?> type, int id) {
+        UnitOfWork uow = CURRENT.get();
+        if (uow != null) {
+            uow.evict(type, id);
+        }
+    }
+}
@@ -2,17 +2,26 @@ package ORM.dao;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import ORM.connection.DatabaseConnection;
+import java.util.Map;
+import java.util.stream.Stream;
+import ORM.connection.SingleConnectionDataSource;
+import javax.sql.DataSource;
 
 import DomainModel.user.Role;
 import DomainModel.user.User;
 
 public class UserDAO {
-    private final Connection connection;
+    private final DataSource dataSource;
+
+    public UserDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     public UserDAO(Connection connection) {
-        this.connection = connection;
+        this(new SingleConnectionDataSource(connection));
     }
 
     // ====================================================================================
@@ -24,7 +33,8 @@ public class UserDAO {
             VALUES (?, ?, ?, ?, ?)
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, user.getUsername());
             ps.setString(2, user.getEmail());
             ps.setString(3, user.getPassword());
@@ -51,12 +61,18 @@ public class UserDAO {
                     JOIN roles r ON u.role_id = r.role_id
                     WHERE u.user_id = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        User cached = UnitOfWork.lookup(User.class, userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, userId);
 
             try(ResultSet rs = ps.executeQuery()) {
                 if(rs.next()) {
-                    return mapResultSetToUser(rs); //definita più in basso
+                    return RowMappers.USER.mapRow(rs);
                 }
             }
         }
@@ -73,12 +89,13 @@ public class UserDAO {
                     JOIN roles r ON u.role_id = r.role_id
                     WHERE u.username = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, username);
 
             try(ResultSet rs = ps.executeQuery()) {
                 if (rs.next()){
-                    return mapResultSetToUser(rs); //definita più in basso
+                    return RowMappers.USER.mapRow(rs);
                 }
             }
         }
@@ -96,16 +113,139 @@ public class UserDAO {
                 """;
         List<User> users = new ArrayList<>();
 
-        try( Statement stmt = connection.createStatement();
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            RowMapper<User> mapper = RowMappers.USER.bind(rs);
             while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
+                users.add(mapper.map(rs));
+            }
+        }
+        return users;
+    }
+
+    // ====================================================================================
+    // 4.1) READ by ids (una sola query per un insieme di utenti)
+    // ====================================================================================
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws SQLException {
+        Map<Integer, User> users = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int userId : userIds) {
+            User cached = UnitOfWork.lookup(User.class, userId);
+            if (cached != null) {
+                users.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return users;
+        }
+
+        String sql = """
+                    SELECT u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+                    FROM users u
+                    JOIN roles r ON u.role_id = r.role_id
+                    WHERE u.user_id = ANY(?)
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setArray(1, connection.createArrayOf("integer", missing.toArray()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<User> mapper = RowMappers.USER.bind(rs);
+                while (rs.next()) {
+                    User user = mapper.map(rs);
+                    users.put(user.getUserId(), user);
+                }
             }
         }
         return users;
     }
 
+    // ====================================================================================
+    // 4.2) SEARCH by username (filtro e paginazione nel DB, senza password)
+    // ====================================================================================
+    //Utenti il cui username contiene keyword (case-insensitive), ordinati per rilevanza: nome identico, poi prefisso,
+    // poi nomi piu' corti. Con l'indice trigram (db/migrations) l'ILIKE non scorre la tabella.
+    // La colonna pwd non viene letta: gli utenti restituiti hanno password null.
+    public List<User> searchUsersByName(String keyword, int limit, int offset) throws SQLException {
+        String sql = """
+                    SELECT u.user_id, u.username, u.email, u.is_enabled, r.name AS role_name
+                    FROM users u
+                    JOIN roles r ON u.role_id = r.role_id
+                    WHERE u.username ILIKE ? ESCAPE '\\'
+                    ORDER BY lower(u.username) = lower(?) DESC,
+                             u.username ILIKE ? ESCAPE '\\' DESC,
+                             length(u.username),
+                             u.username,
+                             u.user_id
+                    LIMIT ? OFFSET ?
+                """;
+        List<User> users = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, SearchPatterns.contains(keyword));
+            ps.setString(2, keyword.trim());
+            ps.setString(3, SearchPatterns.prefix(keyword));
+            ps.setInt(4, limit);
+            ps.setInt(5, offset);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<User> mapper = RowMappers.USER_SUMMARY.bind(rs);
+                while (rs.next()) {
+                    users.add(mapper.map(rs));
+                }
+            }
+        }
+        return users;
+    }
+
+    // ====================================================================================
+    // 4.3) READ page (keyset sulla chiave primaria)
+    // ====================================================================================
+    //Al massimo pageSize utenti con id > afterUserId, in ordine di id (0 per la prima pagina).
+    public List<User> getUsersPage(int afterUserId, int pageSize) throws SQLException {
+        String sql = """
+                    SELECT u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+                    FROM users u
+                    JOIN roles r ON u.role_id = r.role_id
+                    WHERE u.user_id > ?
+                    ORDER BY u.user_id
+                    LIMIT ?
+                """;
+        List<User> users = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, afterUserId);
+            ps.setInt(2, pageSize);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<User> mapper = RowMappers.USER.bind(rs);
+                while (rs.next()) {
+                    users.add(mapper.map(rs));
+                }
+            }
+        }
+        return users;
+    }
+
+    // ====================================================================================
+    // 4.4) STREAM all users (memoria costante, vedi JdbcStreams; lo Stream va chiuso)
+    // ====================================================================================
+    public Stream<User> streamAllUsers() throws SQLException {
+        String sql = """
+                    SELECT u.user_id, u.username, u.email, u.pwd, u.is_enabled, r.name AS role_name
+                    FROM users u
+                    JOIN roles r ON u.role_id = r.role_id
+                    ORDER BY u.user_id
+                """;
+        return JdbcStreams.stream(dataSource, sql, ParameterSetter.NONE, RowMappers.USER);
+    }
+
     // ====================================================================================
     // 5) UPDATE username
     // ====================================================================================
@@ -115,11 +255,13 @@ public class UserDAO {
                     SET username = ?
                     WHERE user_id = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, newUsername);
             ps.setInt(2, userId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(User.class, userId);
     }
 
     // ====================================================================================
@@ -131,11 +273,13 @@ public class UserDAO {
                     SET email = ?
                     WHERE user_id = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, newEmail);
             ps.setInt(2, userId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(User.class, userId);
     }
 
     // ====================================================================================
@@ -147,11 +291,13 @@ public class UserDAO {
                     SET pwd = ?
                     WHERE user_id = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, newPassword);
             ps.setInt(2, userId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(User.class, userId);
     }
 
     // ====================================================================================
@@ -163,11 +309,13 @@ public class UserDAO {
                     SET is_enabled = ?
                     WHERE user_id = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setBoolean(1, enabled);
             ps.setInt(2, userId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(User.class, userId);
     }
 
     // ====================================================================================
@@ -179,11 +327,13 @@ public class UserDAO {
                     SET role_id = ?
                     WHERE user_id = ?
                 """;
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setInt(1, mapRoleToId(newRole)); //definita più in basso
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, CodeTables.roleId(newRole));
             ps.setInt(2, userId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(User.class, userId);
     }
 
     // ====================================================================================
@@ -195,10 +345,12 @@ public class UserDAO {
                     FROM users
                     WHERE user_id = ?
                 """;
-        try(PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, userId);
             ps.executeUpdate();
         }
+        UnitOfWork.evictIfActive(User.class, userId);
     }
 
     // ====================================================================================
@@ -212,42 +364,17 @@ public class UserDAO {
             WHERE u.username = ? AND u.pwd = ? AND u.is_enabled = TRUE
         """;
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, username);
             ps.setString(2, password);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToUser(rs);
+                    return RowMappers.USER.mapRow(rs);
                 }
             }
         }
         return null;
     }
-
-    // =====================================================================================
-    // PRIVATE UTILITIES
-    // ====================================================================================
-
-    //Mappa un ResultSet a un oggetto User.
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        User user = new User(
-                rs.getString("username"),
-                rs.getString("email"),
-                rs.getString("pwd"),
-                rs.getBoolean("is_enabled"),
-                Role.valueOf(rs.getString("role_name").toUpperCase())
-        );
-        user.setUserId(rs.getInt("user_id"));
-        return user;
-    }
-
-    //Mappa l'enum Role all'ID corrispondente nella tabella roles.
-    private int mapRoleToId(Role role) {
-        return switch (role) {
-            case ADMIN -> 1;
-            case ORGANIZER -> 2;
-            case PLAYER -> 3;
-        };
-    }
 }
 
@@ -0,0 +1,180 @@
+package ORM.dao.test;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import DomainModel.tournament.Tournament;
+import DomainModel.tournament.TournamentStatus;
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import ORM.dao.ColumnMapper;
+import ORM.dao.RowMapper;
+import ORM.dao.RowMappers;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+/*
+ * Microbenchmark (non e' un test JUnit: si lancia a mano con il main; senza JMH nel progetto,
+ * stessa impostazione di DeckLookupBenchmark).
+ * Lettura di ROWS righe da un ResultSet sintetico in memoria per carte, utenti e tornei:
+ *   - byName:  vecchi mapper dei DAO, colonne cercate per nome a ogni riga, GameType.fromId / switch sugli
+ *              stati / Role.valueOf(toUpperCase)
+ *   - byIndex: RowMappers, indici risolti una volta per ResultSet e decodifica da CodeTables
+ * Il ResultSet sintetico e' un CachedRowSet del JDK gia' riempito (nessun I/O): i getter costano uguale nelle
+ * due varianti, quindi la differenza misurata e' quella delle ricerche per nome e delle decodifiche.
+ * Il CachedRowSet cerca i nomi con una scansione delle colonne; il driver PostgreSQL con una HashMap,
+ * quindi sul DB reale il guadagno per colonna e' minore.
+ */
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static long sink;
+
+    public static void main(String[] args) throws SQLException {
+        Object[][] cards = new Object[ROWS][];
+        Object[][] users = new Object[ROWS][];
+        Object[][] tournaments = new Object[ROWS][];
+        Date day = Date.valueOf(LocalDate.of(2026, 6, 1));
+        for (int i = 0; i < ROWS; i++) {
+            cards[i] = new Object[]{i + 1, "Card " + i, 1 + i % 3};
+            users[i] = new Object[]{i + 1, "user" + i, "u" + i + "@mail.it", "pwd", true, i % 10 == 0 ? "ORGANIZER" : "PLAYER"};
+            tournaments[i] = new Object[]{i + 1, "Cup " + i, "desc", 32, day, day, 1 + i % 6, i % 32, 1 + i % 3, 7};
+        }
+        String[] cardColumns = {"card_id", "card_name", "tcg_id"};
+        String[] userColumns = {"user_id", "username", "email", "pwd", "is_enabled", "role_name"};
+        String[] tournamentColumns = {"tournament_id", "tournament_name", "description", "capacity", "deadline",
+                "start_date", "status_id", "registered_count", "tcg_id", "organizer_id"};
+
+        Case[] cases = {
+                new Case("card       byName ", cardColumns, cards, rs -> RowMapperBenchmark::cardByName),
+                new Case("card       byIndex", cardColumns, cards, RowMappers.CARD),
+                new Case("user       byName ", userColumns, users, rs -> RowMapperBenchmark::userByName),
+                new Case("user       byIndex", userColumns, users, RowMappers.USER),
+                new Case("tournament byName ", tournamentColumns, tournaments, rs -> RowMapperBenchmark::tournamentByName),
+                new Case("tournament byIndex", tournamentColumns, tournaments, RowMappers.TOURNAMENT)
+        };
+        run(cases);
+        System.out.println("(sink " + sink + ")");
+    }
+
+    // ====================================================================================
+    // MAPPER PER NOME (come erano nei DAO)
+    // ====================================================================================
+    private static Card cardByName(ResultSet rs) throws SQLException {
+        Card card = new Card();
+        card.setCardId(rs.getInt("card_id"));
+        card.setCardName(rs.getString("card_name"));
+        card.setCardType(GameType.fromId(rs.getInt("tcg_id")));
+        return card;
+    }
+
+    private static User userByName(ResultSet rs) throws SQLException {
+        User user = new User(
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("pwd"),
+                rs.getBoolean("is_enabled"),
+                Role.valueOf(rs.getString("role_name").toUpperCase())
+        );
+        user.setUserId(rs.getInt("user_id"));
+        return user;
+    }
+
+    private static Tournament tournamentByName(ResultSet rs) throws SQLException {
+        return new Tournament(
+                rs.getInt("tournament_id"),
+                rs.getString("tournament_name"),
+                rs.getString("description"),
+                rs.getInt("capacity"),
+                rs.getDate("deadline").toLocalDate(),
+                rs.getDate("start_date").toLocalDate(),
+                switch (rs.getInt("status_id")) {
+                    case 1 -> TournamentStatus.PENDING;
+                    case 2 -> TournamentStatus.APPROVED;
+                    case 3 -> TournamentStatus.REJECTED;
+                    case 4 -> TournamentStatus.READY;
+                    case 5 -> TournamentStatus.ONGOING;
+                    case 6 -> TournamentStatus.FINISHED;
+                    default -> throw new IllegalArgumentException("Invalid status id");
+                },
+                rs.getInt("registered_count"),
+                GameType.fromId(rs.getInt("tcg_id"))
+        );
+    }
+
+    // ====================================================================================
+    // MISURA
+    // ====================================================================================
+    private record Case(String label, String[] columns, Object[][] rows, ColumnMapper<?> mapper) { }
+
+    // Riscaldamento di tutti i casi prima di misurare, poi misure alternate: nessun caso gode di un call site
+    // ancora monomorfico o di un JIT piu' caldo degli altri
+    private static void run(Case[] cases) throws SQLException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (Case c : cases) {
+                round(c.columns(), c.rows(), c.mapper());
+            }
+        }
+        long[] best = new long[cases.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            for (int k = 0; k < cases.length; k++) {
+                best[k] = Math.min(best[k], round(cases[k].columns(), cases[k].rows(), cases[k].mapper()));
+            }
+        }
+        for (int k = 0; k < cases.length; k++) {
+            System.out.printf("%s  %7.1f ns/riga%n", cases[k].label(), (double) best[k] / cases[k].rows().length);
+        }
+    }
+
+    private static long round(String[] columns, Object[][] rows, ColumnMapper<?> mapper) throws SQLException {
+        ResultSet rs = syntheticResultSet(columns, rows);
+        long start = System.nanoTime();
+        RowMapper<?> rowMapper = mapper.bind(rs);
+        while (rs.next()) {
+            sink += rowMapper.map(rs).hashCode();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // ResultSet in memoria del JDK (CachedRowSet), riempito riga per riga: getter per indice e per nome reali
+    private static ResultSet syntheticResultSet(String[] columns, Object[][] rows) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            metaData.setColumnName(i + 1, columns[i]);
+            metaData.setColumnLabel(i + 1, columns[i]);
+            metaData.setColumnType(i + 1, sqlType(rows[0][i]));
+        }
+        CachedRowSet rs = RowSetProvider.newFactory().createCachedRowSet();
+        rs.setMetaData(metaData);
+        for (Object[] row : rows) {
+            rs.moveToInsertRow();
+            for (int i = 0; i < row.length; i++) {
+                rs.updateObject(i + 1, row[i]);
+            }
+            rs.insertRow();
+        }
+        rs.moveToCurrentRow();
+        rs.beforeFirst();
+        return rs;
+    }
+
+    private static int sqlType(Object value) {
+        if (value instanceof Integer) return Types.INTEGER;
+        if (value instanceof Boolean) return Types.BOOLEAN;
+        if (value instanceof Date) return Types.DATE;
+        return Types.VARCHAR;
+    }
+}
@@ -10,6 +10,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -111,4 +112,26 @@ public class TestCardDAO {
         Card deleted = cardDAO.getCardById(card.getCardId());
         assertNull(deleted, "La carta dovrebbe essere stata eliminata");
     }
+
+    @Test
+    @Order(8)
+    void testPagedAndStreamedReads() throws SQLException {
+        cardDAO.addCard(new Card("Dark Magician", GameType.YUGIOH));
+        cardDAO.addCard(new Card("Magician of Faith", GameType.YUGIOH));
+        cardDAO.addCard(new Card("100% Magic", GameType.YUGIOH));
+        cardDAO.addCard(new Card("Magician's Robe", GameType.MAGIC));
+
+        List<Card> firstPage = cardDAO.getCardsPage(0, 3);
+        assertEquals(3, firstPage.size());
+
+        List<Card> secondPage = cardDAO.getCardsPage(firstPage.getLast().getCardId(), 3);
+        assertEquals(1, secondPage.size());
+        assertTrue(secondPage.getFirst().getCardId() > firstPage.getLast().getCardId());
+
+        try (Stream<Card> cards = cardDAO.streamAllCards()) {
+            assertEquals(4, cards.count());
+        }
+        // Chiuso lo stream la connessione torna in autocommit
+        assertTrue(connection.getAutoCommit());
+    }
 }
@@ -14,7 +14,11 @@ import org.junit.jupiter.api.*;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -212,4 +216,262 @@ public class TestRegistrationDAO {
 
         assertFalse(registrationDAO.isUserRegistered(tournamentId, userId));
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(8)
+    void testGetRegistrationsByUserWithSummaryPlan() throws Exception {
+
+        User user = userDAO.getUserById(userId);
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+
+        Registration reg = new Registration(tournament, user, deck);
+        reg.setRegistrationDate(LocalDateTime.now());
+
+        registrationDAO.createRegistration(reg);
+
+        List<Registration> list = registrationDAO.getRegistrationsByUser(userId, FetchPlan.SUMMARY);
+
+        assertEquals(1, list.size());
+        Tournament loaded = list.get(0).getTournament();
+        assertEquals(tournamentId, loaded.getTournamentId());
+        assertEquals(TournamentStatus.APPROVED, loaded.getStatus());
+        assertEquals(userId, loaded.getOrganizer().getUserId());
+        assertNull(loaded.getRegistrations());  // iscrizioni non caricate con SUMMARY
+    }
+
+    @Test
+    @Order(9)
+    void testRegisteredCountFollowsCreateAndDelete() throws Exception {
+
+        User user = userDAO.getUserById(userId);
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+
+        Registration reg = new Registration(tournament, user, deck);
+        reg.setRegistrationDate(LocalDateTime.now());
+
+        registrationDAO.createRegistration(reg);
+        assertEquals(1, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+
+        // Cancellare un'iscrizione inesistente non deve toccare il contatore
+        registrationDAO.deleteRegistration(tournamentId, userId + 1000);
+        assertEquals(1, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+
+        registrationDAO.deleteRegistration(tournamentId, userId);
+        assertEquals(0, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+    }
+
+    @Test
+    @Order(10)
+    void testAdmitRegistrationResults() throws Exception {
+
+        User user = userDAO.getUserById(userId);
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+
+        Registration reg = new Registration(tournament, user, deck);
+        reg.setRegistrationDate(LocalDateTime.now());
+
+        assertEquals(RegistrationResult.ACCEPTED, registrationDAO.admitRegistration(reg, LocalDate.now()));
+        assertEquals(RegistrationResult.DUPLICATE, registrationDAO.admitRegistration(reg, LocalDate.now()));
+        assertEquals(1, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+
+        // Deadline passata
+        registrationDAO.deleteRegistration(tournamentId, userId);
+        assertEquals(RegistrationResult.CLOSED, registrationDAO.admitRegistration(reg, LocalDate.now().plusDays(5)));
+
+        // Capienza esaurita
+        tournament.setCapacity(0);
+        tournamentDAO.updateTournament(tournament);
+        assertEquals(RegistrationResult.FULL, registrationDAO.admitRegistration(reg, LocalDate.now()));
+        assertFalse(registrationDAO.isUserRegistered(tournamentId, userId));
+        assertEquals(0, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+    }
+
+    @Test
+    @Order(11)
+    void testAdmitRegistrationUnderConcurrentBurst() throws Exception {
+        final int registrants = 1_000;
+        final int seats = 64;
+
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
+        tournament.setCapacity(seats);
+        tournamentDAO.updateTournament(tournament);
+
+        // 1000 giocatori con un deck ciascuno, creati in blocco
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("""
+                INSERT INTO users (username, email, pwd, is_enabled, role_id)
+                SELECT 'burst' || g, 'burst' || g || '@mail.com', 'pwd', TRUE, u.role_id
+                FROM generate_series(1, 1000) g, users u
+                WHERE u.user_id = %d
+            """.formatted(userId));
+            st.executeUpdate("""
+                INSERT INTO decks (deck_name, user_id, tcg_id)
+                SELECT 'deck-' || user_id, user_id, %d FROM users WHERE username LIKE 'burst%%'
+            """.formatted(GameType.POKEMON.getGameId()));
+        }
+
+        List<Registration> requests = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("""
+                SELECT u.user_id, d.deck_id FROM users u JOIN decks d ON d.user_id = u.user_id
+                WHERE u.username LIKE 'burst%'
+             """)) {
+            while (rs.next()) {
+                User u = new User("");
+                u.setUserId(rs.getInt("user_id"));
+                Deck d = new Deck("", u);
+                d.setDeckId(rs.getInt("deck_id"));
+                Registration r = new Registration(tournament, u, d);
+                r.setRegistrationDate(LocalDateTime.now());
+                requests.add(r);
+            }
+        }
+        assertEquals(registrants, requests.size());
+
+        // Pool condiviso: ogni richiesta usa una propria connessione e una propria transazione
+        RegistrationDAO pooledDAO = new RegistrationDAO(DatabaseConnection.getDataSource());
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<RegistrationResult, AtomicInteger> outcomes =
+                new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Registration r : requests) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    RegistrationResult result = pooledDAO.admitRegistration(r, LocalDate.now());
+                    outcomes.computeIfAbsent(result, k -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(seats, outcomes.get(RegistrationResult.ACCEPTED).get());
+        assertEquals(registrants - seats, outcomes.get(RegistrationResult.FULL).get());
+        assertEquals(seats, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+        assertEquals(seats, registrationDAO.getRegistrationsByTournament(tournamentId).size());
+    }
+
+    @Test
+    @Order(12)
+    void testWaitlistPromotesInArrivalOrder() throws Exception {
+
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
+        tournament.setCapacity(1);
+        tournamentDAO.updateTournament(tournament);
+
+        User owner = userDAO.getUserById(userId);
+        Registration seat = new Registration(tournament, owner, deck);
+        seat.setRegistrationDate(LocalDateTime.now());
+        assertEquals(RegistrationResult.ACCEPTED, registrationDAO.admitRegistration(seat, LocalDate.now()));
+
+        // Due giocatori in attesa, nell'ordine
+        int[] waiting = new int[2];
+        for (int i = 0; i < waiting.length; i++) {
+            User u = new User("waiting" + i, "w" + i + "@mail.com", "pwd", true, Role.PLAYER);
+            userDAO.createUser(u);
+            Deck d = new Deck("Deck " + i, u);
+            d.setGameType(GameType.POKEMON);
+            deckDAO.createDeck(d);
+
+            Registration r = new Registration(tournament, u, d);
+            r.setRegistrationDate(LocalDateTime.now());
+            assertEquals(RegistrationResult.FULL, registrationDAO.admitRegistration(r, LocalDate.now()));
+            assertEquals(i + 1, registrationDAO.joinWaitlist(r));
+            waiting[i] = u.getUserId();
+        }
+        // Nessun posto libero: nessuna promozione
+        assertNull(registrationDAO.promoteFromWaitlist(tournamentId, LocalDate.now()));
+
+        // Il posto liberato va al primo in lista, nella stessa transazione
+        assertEquals(waiting[0], registrationDAO.deleteRegistrationAndPromote(tournamentId, userId, LocalDate.now()));
+        assertTrue(registrationDAO.isUserRegistered(tournamentId, waiting[0]));
+        assertEquals(1, tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY).getRegisteredCount());
+        assertEquals(0, registrationDAO.getWaitlistPosition(tournamentId, waiting[0]));
+        assertEquals(1, registrationDAO.getWaitlistPosition(tournamentId, waiting[1]));
+
+        assertEquals(1, registrationDAO.removeFromAllWaitlists(waiting[1]));
+        assertTrue(registrationDAO.getWaitlist(tournamentId).isEmpty());
+    }
+
+    @Test
+    @Order(13)
+    void testFullReadyTournamentStillOffersWaitlist() throws Exception {
+
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
+        tournament.setCapacity(1);
+        tournamentDAO.updateTournament(tournament);
+
+        User owner = userDAO.getUserById(userId);
+        Registration seat = new Registration(tournament, owner, deck);
+        seat.setRegistrationDate(LocalDateTime.now());
+        assertEquals(RegistrationResult.ACCEPTED, registrationDAO.admitRegistration(seat, LocalDate.now()));
+
+        // Pieno -> READY, come fa il timer delle transizioni subito dopo l'ultimo posto
+        tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
+        tournament.setStatus(TournamentStatus.READY);
+        tournamentDAO.updateTournament(tournament);
+
+        User second = new User("second", "second@mail.com", "pwd", true, Role.PLAYER);
+        userDAO.createUser(second);
+        Deck secondDeck = new Deck("Second Deck", second);
+        secondDeck.setGameType(GameType.POKEMON);
+        deckDAO.createDeck(secondDeck);
+
+        Registration r = new Registration(tournament, second, secondDeck);
+        r.setRegistrationDate(LocalDateTime.now());
+        assertEquals(RegistrationResult.FULL, registrationDAO.admitRegistration(r, LocalDate.now()));
+        assertEquals(1, registrationDAO.joinWaitlist(r));
+        assertEquals(RegistrationResult.DUPLICATE, registrationDAO.admitRegistration(seat, LocalDate.now()));
+
+        // Deadline passata: il torneo READY e' chiuso
+        assertEquals(RegistrationResult.CLOSED, registrationDAO.admitRegistration(r, LocalDate.now().plusDays(5)));
+
+        // Il posto liberato va al giocatore in attesa anche con il torneo READY
+        assertEquals(second.getUserId(),
+                registrationDAO.deleteRegistrationAndPromote(tournamentId, userId, LocalDate.now()));
+        assertTrue(registrationDAO.isUserRegistered(tournamentId, second.getUserId()));
+    }
+
+    @Test
+    @Order(14)
+    void testPromotionHookRunsInsideThePromotionTransaction() throws Exception {
+
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
+        tournament.setCapacity(1);
+        tournamentDAO.updateTournament(tournament);
+
+        User owner = userDAO.getUserById(userId);
+        Registration seat = new Registration(tournament, owner, deck);
+        seat.setRegistrationDate(LocalDateTime.now());
+        assertEquals(RegistrationResult.ACCEPTED, registrationDAO.admitRegistration(seat, LocalDate.now()));
+
+        User waiting = new User("hooked", "hooked@mail.com", "pwd", true, Role.PLAYER);
+        userDAO.createUser(waiting);
+        Deck waitingDeck = new Deck("Hooked Deck", waiting);
+        waitingDeck.setGameType(GameType.POKEMON);
+        deckDAO.createDeck(waitingDeck);
+        Registration r = new Registration(tournament, waiting, waitingDeck);
+        r.setRegistrationDate(LocalDateTime.now());
+        assertEquals(1, registrationDAO.joinWaitlist(r));
+
+        // Un hook che fallisce annulla cancellazione e promozione insieme
+        assertThrows(SQLException.class, () -> registrationDAO.deleteRegistrationAndPromote(
+                tournamentId, userId, LocalDate.now(), promoted -> { throw new SQLException("outbox down"); }));
+        assertTrue(registrationDAO.isUserRegistered(tournamentId, userId));
+        assertEquals(1, registrationDAO.getWaitlistPosition(tournamentId, waiting.getUserId()));
+
+        // Hook riuscito: riceve l'utente promosso
+        List<Integer> notified = new ArrayList<>();
+        assertEquals(waiting.getUserId(), registrationDAO.deleteRegistrationAndPromote(
+                tournamentId, userId, LocalDate.now(), notified::add));
+        assertEquals(List.of(waiting.getUserId()), notified);
+        assertTrue(registrationDAO.isUserRegistered(tournamentId, waiting.getUserId()));
+    }
+}
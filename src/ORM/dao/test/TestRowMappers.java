@@ -0,0 +1,157 @@
+package ORM.dao.test;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import DomainModel.tournament.Registration;
+import DomainModel.tournament.Tournament;
+import DomainModel.tournament.TournamentStatus;
+import DomainModel.user.Notification;
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import ORM.dao.RowMapper;
+import ORM.dao.RowMappers;
+import ORM.dao.UnitOfWork;
+import org.junit.jupiter.api.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Mapper condivisi su ResultSet in memoria (CachedRowSet): non serve il DB
+public class TestRowMappers {
+
+    @Test
+    void cardMapperReadsColumnsInAnyOrderAndKeepsCanonicalInstances() throws SQLException {
+        ResultSet rs = resultSet(
+                new String[]{"tcg_id", "card_id", "card_name"},
+                new int[]{Types.INTEGER, Types.INTEGER, Types.VARCHAR},
+                new Object[]{3, 10, "Dark Magician"},
+                new Object[]{3, 10, "Dark Magician"});
+
+        try (UnitOfWork ignored = UnitOfWork.begin()) {
+            RowMapper<Card> mapper = RowMappers.CARD.bind(rs);
+            assertTrue(rs.next());
+            Card first = mapper.map(rs);
+            assertTrue(rs.next());
+            assertSame(first, mapper.map(rs));
+
+            assertEquals(10, first.getCardId());
+            assertEquals("Dark Magician", first.getName());
+            assertEquals(GameType.YUGIOH, first.getType());
+        }
+    }
+
+    @Test
+    void userMapperDecodesRoleNamesInEitherCase() throws SQLException {
+        ResultSet rs = resultSet(
+                new String[]{"user_id", "username", "email", "pwd", "is_enabled", "role_name"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.VARCHAR},
+                new Object[]{1, "alice", "a@a.it", "pwd", true, "organizer"},
+                new Object[]{2, "bob", "b@b.it", "pwd", false, "ADMIN"});
+
+        RowMapper<User> mapper = RowMappers.USER.bind(rs);
+        rs.next();
+        assertEquals(Role.ORGANIZER, mapper.map(rs).getRole());
+        rs.next();
+        User bob = mapper.map(rs);
+        assertEquals(Role.ADMIN, bob.getRole());
+        assertEquals(2, bob.getUserId());
+    }
+
+    @Test
+    void tournamentMapperDecodesStatusAndGameType() throws SQLException {
+        Date day = Date.valueOf(LocalDate.of(2026, 6, 1));
+        ResultSet rs = resultSet(
+                new String[]{"tournament_id", "tournament_name", "description", "capacity", "deadline", "start_date",
+                        "status_id", "registered_count", "tcg_id"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DATE, Types.DATE,
+                        Types.INTEGER, Types.INTEGER, Types.INTEGER},
+                new Object[]{5, "Cup", "desc", 16, day, day, 4, 9, 2},
+                new Object[]{6, "Bad", "desc", 16, day, day, 9, 0, 2});
+
+        RowMapper<Tournament> mapper = RowMappers.TOURNAMENT.bind(rs);
+        rs.next();
+        Tournament cup = mapper.map(rs);
+        assertEquals(TournamentStatus.READY, cup.getStatus());
+        assertEquals(GameType.POKEMON, cup.getGameType());
+        assertEquals(9, cup.getRegisteredCount());
+        assertEquals(LocalDate.of(2026, 6, 1), cup.getStartDate());
+
+        rs.next();
+        assertThrows(IllegalArgumentException.class, () -> mapper.map(rs));
+    }
+
+    @Test
+    void notificationMapperKeepsNullGameType() throws SQLException {
+        Timestamp createdAt = Timestamp.from(Instant.parse("2026-01-10T10:00:00Z"));
+        ResultSet rs = resultSet(
+                new String[]{"notification_id", "user_id", "tcg_id", "message", "created_at"},
+                new int[]{Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP},
+                new Object[]{7L, 1, null, "ciao", createdAt});
+
+        rs.next();
+        Notification notification = RowMappers.NOTIFICATION.mapRow(rs);
+        assertNull(notification.gameType());
+        assertEquals(7L, notification.notificationId());
+        assertEquals(createdAt.toInstant(), notification.createdAt());
+    }
+
+    @Test
+    void registrationMapperKeepsOnlyReferencesToTournamentUserAndDeck() throws SQLException {
+        Timestamp registeredAt = Timestamp.valueOf("2026-02-01 18:30:00");
+        ResultSet rs = resultSet(
+                new String[]{"reg_deck", "registration_date", "user_id", "tournament_id"},
+                new int[]{Types.INTEGER, Types.TIMESTAMP, Types.INTEGER, Types.INTEGER},
+                new Object[]{12, registeredAt, 3, 8});
+
+        rs.next();
+        Registration registration = RowMappers.REGISTRATION.mapRow(rs);
+        assertEquals(8, registration.getTournament().getTournamentId());
+        assertEquals(3, registration.getUser().getUserId());
+        assertEquals(12, registration.getRegDeck().getDeckId());
+        assertEquals(registeredAt.toLocalDateTime(), registration.getRegistrationDate());
+    }
+
+    @Test
+    void missingColumnFailsWhenBinding() throws SQLException {
+        ResultSet rs = resultSet(new String[]{"card_id"}, new int[]{Types.INTEGER}, new Object[]{1});
+        assertThrows(SQLException.class, () -> RowMappers.CARD.bind(rs));
+    }
+
+    private static ResultSet resultSet(String[] columns, int[] types, Object[]... rows) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            metaData.setColumnName(i + 1, columns[i]);
+            metaData.setColumnLabel(i + 1, columns[i]);
+            metaData.setColumnType(i + 1, types[i]);
+            metaData.setNullable(i + 1, ResultSetMetaData.columnNullable);
+        }
+        CachedRowSet rs = RowSetProvider.newFactory().createCachedRowSet();
+        rs.setMetaData(metaData);
+        for (Object[] row : rows) {
+            rs.moveToInsertRow();
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) {
+                    rs.updateNull(i + 1);
+                } else {
+                    rs.updateObject(i + 1, row[i]);
+                }
+            }
+            rs.insertRow();
+        }
+        rs.moveToCurrentRow();
+        rs.beforeFirst();
+        return rs;
+    }
+}
@@ -5,6 +5,7 @@ import ORM.dao.*;
 import DomainModel.tournament.*;
 import DomainModel.user.*;
 import DomainModel.GameType;
+import DomainModel.card.Deck;
 import org.junit.jupiter.api.*;
 
 import java.sql.*;
@@ -173,6 +174,39 @@ public class TestTournamentDAO {
 
     @Test
     @Order(5)
+    void testGetAllTournamentsLoadsOrganizerAndRegistrationsInBulk() throws Exception {
+        User organizer = userDAO.getUserById(organizerId);
+        User player = new User("player", "player@example.com", "pwd", true, Role.PLAYER);
+        userDAO.createUser(player);
+
+        DeckDAO deckDAO = new DeckDAO(connection);
+        Deck deck = new Deck("Deck", player, GameType.MAGIC);
+        deckDAO.createDeck(deck);
+
+        RegistrationDAO registrationDAO = new RegistrationDAO(connection);
+        for (int i = 0; i < 3; i++) {
+            Tournament t = new Tournament("Bulk " + i, "desc", organizer, 8,
+                    LocalDate.now().plusDays(5), LocalDate.now().plusDays(10), GameType.MAGIC);
+            tournamentDAO.createTournament(t);
+            if (i != 1) {
+                registrationDAO.createRegistration(new Registration(t, player, deck));
+            }
+        }
+
+        List<Tournament> all = tournamentDAO.getAllTournaments();
+        assertEquals(3, all.size());
+        for (Tournament t : all) {
+            assertEquals("organizer", t.getOrganizer().getUsername());
+            int expected = t.getName().equals("Bulk 1") ? 0 : 1;
+            assertEquals(expected, t.getRegistrations().size());
+            if (expected == 1) {
+                assertEquals("player", t.getRegistrations().get(0).getUser().getUsername());
+            }
+        }
+    }
+
+    @Test
+    @Order(6)
     void testUpdateTournament() throws Exception {
         User organizer = userDAO.getUserById(organizerId);
         Tournament tournament = new Tournament("Update Test");
@@ -203,7 +237,7 @@ public class TestTournamentDAO {
     }
 
     @Test
-    @Order(6)
+    @Order(7)
     void testDeleteTournament() throws Exception {
         User organizer = userDAO.getUserById(organizerId);
         Tournament tournament = new Tournament("Delete Test");
@@ -222,4 +256,36 @@ public class TestTournamentDAO {
         Tournament deleted = tournamentDAO.getTournamentById(tournament.getTournamentId());
         assertNull(deleted);
     }
+
+    @Test
+    @Order(8)
+    void testApplyStatusTransitions() throws Exception {
+        User organizer = userDAO.getUserById(organizerId);
+        LocalDate today = LocalDate.now();
+
+        // APPROVED con deadline oggi e inizio oggi: APPROVED -> READY -> ONGOING nella stessa esecuzione
+        Tournament startsToday = new Tournament("Starts Today", "Desc", organizer, 8, today, today, GameType.YUGIOH);
+        startsToday.setStatus(TournamentStatus.APPROVED);
+        tournamentDAO.createTournament(startsToday);
+
+        // READY non pieno con iscrizioni ancora aperte: torna APPROVED
+        Tournament reopened = new Tournament("Reopened", "Desc", organizer, 8, today.plusDays(2), today.plusDays(5), GameType.MAGIC);
+        reopened.setStatus(TournamentStatus.READY);
+        tournamentDAO.createTournament(reopened);
+
+        // PENDING: mai toccato
+        Tournament pending = new Tournament("Pending", "Desc", organizer, 8, today, today, GameType.MAGIC);
+        tournamentDAO.createTournament(pending);
+
+        List<TournamentStatusTransition> transitions = tournamentDAO.applyStatusTransitions(today);
+
+        assertEquals(3, transitions.size());
+        assertEquals(TournamentStatus.ONGOING, tournamentDAO.getTournamentById(startsToday.getTournamentId()).getStatus());
+        assertEquals(TournamentStatus.APPROVED, tournamentDAO.getTournamentById(reopened.getTournamentId()).getStatus());
+        assertEquals(TournamentStatus.PENDING, tournamentDAO.getTournamentById(pending.getTournamentId()).getStatus());
+        assertTrue(transitions.stream().allMatch(t -> t.registeredUserIds().isEmpty()));
+
+        // Seconda esecuzione: niente da cambiare
+        assertTrue(tournamentDAO.applyStatusTransitions(today).isEmpty());
+    }
 }
@@ -0,0 +1,74 @@
+package ORM.dao.test;
+
+import DomainModel.user.User;
+import ORM.dao.UnitOfWork;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestUnitOfWork {
+
+    @AfterEach
+    void noScopeLeaks() {
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    void registerReturnsCanonicalInstance() {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            User first = new User("alice");
+            User second = new User("alice-reloaded");
+
+            assertSame(first, uow.register(User.class, 1, first));
+            assertSame(first, uow.register(User.class, 1, second));
+            assertSame(first, uow.get(User.class, 1));
+        }
+    }
+
+    @Test
+    void nestedBeginJoinsOuterScope() {
+        try (UnitOfWork outer = UnitOfWork.begin()) {
+            User user = new User("bob");
+            outer.register(User.class, 2, user);
+
+            try (UnitOfWork inner = UnitOfWork.begin()) {
+                assertSame(outer, inner);
+                assertSame(user, inner.get(User.class, 2));
+            }
+
+            // Chiudere lo scope interno non svuota la mappa
+            assertTrue(UnitOfWork.isActive());
+            assertSame(user, outer.get(User.class, 2));
+        }
+    }
+
+    @Test
+    void evictAndCloseDropEntries() {
+        UnitOfWork uow = UnitOfWork.begin();
+        uow.register(User.class, 3, new User("carol"));
+        uow.evict(User.class, 3);
+        assertNull(uow.get(User.class, 3));
+        uow.close();
+
+        try (UnitOfWork fresh = UnitOfWork.begin()) {
+            assertNotSame(uow, fresh);
+            assertNull(fresh.get(User.class, 3));
+        }
+    }
+
+    @Test
+    void withinJoinsActiveScopeAndNextRequestStartsClean() throws Exception {
+        User outside = UnitOfWork.within(() -> UnitOfWork.current().register(User.class, 4, new User("dave")));
+        assertFalse(UnitOfWork.isActive());
+        UnitOfWork.nextRequest();   // senza scope: no-op
+
+        try (UnitOfWork requests = UnitOfWork.begin()) {
+            requests.register(User.class, 4, outside);
+            assertSame(outside, UnitOfWork.within(() -> UnitOfWork.current().get(User.class, 4)));
+
+            UnitOfWork.nextRequest();
+            assertTrue(UnitOfWork.isActive());
+            assertNull(requests.get(User.class, 4));
+        }
+    }
+}
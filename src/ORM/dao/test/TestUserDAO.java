@@ -193,4 +193,20 @@ public class TestUserDAO {
         User shouldFail = userDAO.validateLogin("loginUser", "mypassword");
         assertNull(shouldFail);
     }
+
+    @Test
+    @Order(11)
+    void testSearchUsersByName() throws SQLException {
+        userDAO.createUser(new User("mario", "mario@x.com", "pwd", true, Role.PLAYER));
+        userDAO.createUser(new User("supermario", "super@x.com", "pwd", true, Role.PLAYER));
+        userDAO.createUser(new User("luigi", "luigi@x.com", "pwd", true, Role.PLAYER));
+
+        List<User> found = userDAO.searchUsersByName("Mario", 10, 0);
+        assertEquals(List.of("mario", "supermario"), found.stream().map(User::getUsername).toList());
+
+        // La password non viene letta dal DB
+        assertNull(found.getFirst().getPassword());
+
+        assertEquals(1, userDAO.searchUsersByName("mario", 1, 1).size());
+    }
 }
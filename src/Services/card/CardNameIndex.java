@@ -0,0 +1,170 @@
+package Services.card;
+
+import DomainModel.card.Card;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Indice invertito a trigrammi sui nomi delle carte di un GameType.
+ *
+ * Ogni nome (in minuscolo) viene scomposto in trigrammi; per ogni trigramma si tiene l'insieme degli id
+ * delle carte che lo contengono. Una ricerca interseca gli insiemi dei trigrammi della parola cercata
+ * (partendo dal piu' piccolo) e verifica solo i candidati rimasti, invece di scorrere tutto il catalogo.
+ *
+ * La parola cercata viene divisa in token: una carta corrisponde se il nome contiene tutti i token.
+ * Token piu' corti di 3 caratteri non hanno trigrammi e vengono verificati solo sui candidati
+ * (se la ricerca e' fatta solo di token corti si scorrono i nomi).
+ *
+ * Ordinamento: nome identico, poi prefisso del nome, poi inizio di una parola, poi sottostringa;
+ * a parita', nome piu' corto e ordine alfabetico.
+ */
+public final class CardNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+
+    private record Entry(Card card, String lowerName) { }
+
+    private record Match(Entry entry, int rank) { }
+
+    public CardNameIndex(List<Card> cards) {
+        for (Card card : cards) {
+            add(card);
+        }
+    }
+
+    // ====================================================================================
+    // AGGIORNAMENTI INCREMENTALI
+    // ====================================================================================
+    public synchronized void add(Card card) {
+        remove(card.getCardId());
+        Entry entry = new Entry(card, normalize(card.getName()));
+        entries.put(card.getCardId(), entry);
+        for (String gram : grams(entry.lowerName())) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(card.getCardId());
+        }
+    }
+
+    public synchronized void remove(int cardId) {
+        Entry entry = entries.remove(cardId);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : grams(entry.lowerName())) {
+            Set<Integer> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(cardId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ====================================================================================
+    // RICERCA
+    // ====================================================================================
+    public List<Card> search(String keyword, int limit) {
+        return search(keyword, limit, 0);
+    }
+
+    // Pagina dei risultati: stesso ordinamento (totale, a parita' di nome decide l'id) per ogni offset
+    public synchronized List<Card> search(String keyword, int limit, int offset) {
+        String query = normalize(keyword);
+        String[] tokens = query.split("\\s+");
+
+        List<Match> matches = new ArrayList<>();
+        for (Integer id : candidates(tokens)) {
+            Entry entry = entries.get(id);
+            if (containsAll(entry.lowerName(), tokens)) {
+                matches.add(new Match(entry, rank(entry.lowerName(), query)));
+            }
+        }
+
+        matches.sort(Comparator.comparingInt(Match::rank)
+                .thenComparingInt(m -> m.entry().lowerName().length())
+                .thenComparing(m -> m.entry().lowerName())
+                .thenComparingInt(m -> m.entry().card().getCardId()));
+
+        int from = Math.min(offset, matches.size());
+        int to = (int) Math.min((long) from + limit, matches.size());
+        List<Card> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(matches.get(i).entry().card());
+        }
+        return result;
+    }
+
+    // Id che contengono tutti i trigrammi dei token lunghi; tutte le carte se non ce ne sono
+    private Set<Integer> candidates(String[] tokens) {
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (String token : tokens) {
+            for (String gram : grams(token)) {
+                Set<Integer> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+        }
+        if (lists.isEmpty()) {
+            return entries.keySet();
+        }
+
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> result = new HashSet<>(lists.getFirst());
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    // =====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            if (gram.indexOf(' ') < 0) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    private static boolean containsAll(String name, String[] tokens) {
+        for (String token : tokens) {
+            if (!name.contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int rank(String name, String query) {
+        if (name.equals(query)) return 0;
+        if (name.startsWith(query)) return 1;
+        int pos = name.indexOf(query);
+        if (pos > 0 && !Character.isLetterOrDigit(name.charAt(pos - 1))) return 2;
+        if (pos > 0) return 3;
+        return 4; // token presenti ma non come frase unica
+    }
+}
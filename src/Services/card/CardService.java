@@ -7,17 +7,34 @@ import DomainModel.card.factory.MagicCardFactory;
 import DomainModel.card.factory.PokemonCardFactory;
 import DomainModel.card.factory.YuGiOhCardFactory;
 import DomainModel.user.User;
+import ORM.cache.CardCatalogCache;
+import ORM.dao.CachingCardDAO;
 import ORM.dao.CardDAO;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class CardService {
 
     private final CardDAO cardDAO;
+    private final CardCatalogCache catalog;   // null = nessuna cache condivisa (es. nei test)
+    // Indici di ricerca per GameType, costruiti alla prima ricerca: unico motore per tutte le ricerche per nome
+    private final Map<GameType, SearchIndex> searchIndexes = new EnumMap<>(GameType.class);
+
+    // Indice costruito sul catalogo alla versione indicata (vedi CardCatalogCache.getGameTypeVersion)
+    private record SearchIndex(CardNameIndex index, long catalogVersion) { }
+
+    public CardService(DataSource dataSource) {
+        this.catalog = CardCatalogCache.getInstance();
+        this.cardDAO = new CachingCardDAO(dataSource, catalog);
+    }
 
     public CardService(Connection connection) {
+        this.catalog = null;
         this.cardDAO = new CardDAO(connection);
     }
 
@@ -57,6 +74,7 @@ public class CardService {
         Card card = factory.createCard(name);
         validateCard(card);
         cardDAO.addCard(card);
+        indexCard(card);
     }
 
     // ====================================================================================
@@ -76,17 +94,26 @@ public class CardService {
     // ====================================================================================
     // 4. SEARCH CARDS BY NAME (everyone)
     // ====================================================================================
+    // Tutte le carte che corrispondono, ordinate per rilevanza (vedi CardNameIndex)
     public List<Card> searchCardsByName(GameType gameType, String keyword) throws SQLException {
+        return searchCardsByName(gameType, keyword, Integer.MAX_VALUE, 0);
+    }
+
+    // Le prime 'limit' carte per rilevanza
+    public List<Card> searchCardsByName(GameType gameType, String keyword, int limit) throws SQLException {
+        return searchCardsByName(gameType, keyword, limit, 0);
+    }
+
+    // Pagina dei risultati: stesso indice e stesso ordinamento degli altri overload, quindi
+    // le pagine successive non ripetono ne' saltano carte
+    public List<Card> searchCardsByName(GameType gameType, String keyword, int limit, int offset) throws SQLException {
         if (keyword == null || keyword.isBlank()) {
             throw new IllegalArgumentException("Nome non valido");
         }
-
-        List<Card> allCards = cardDAO.getCardsByGameType(gameType);
-        String lowerKeyword = keyword.toLowerCase();
-
-        return allCards.stream()
-                .filter(card -> card.getName().toLowerCase().contains(lowerKeyword))
-                .toList();
+        if (limit <= 0 || offset < 0) {
+            throw new IllegalArgumentException("Paginazione non valida.");
+        }
+        return getSearchIndex(gameType).search(keyword, limit, offset);
     }
 
     // ====================================================================================
@@ -117,6 +144,7 @@ public class CardService {
 
         target.setCardName(newName);
         cardDAO.updateCard(target);
+        indexCard(target);
     }
 
     // ====================================================================================
@@ -134,6 +162,8 @@ public class CardService {
 
         target.setCardType(newType);
         cardDAO.updateCard(target);
+        unindexCard(cardId);
+        indexCard(target);
     }
 
     // ====================================================================================
@@ -141,6 +171,7 @@ public class CardService {
     // ====================================================================================
     public void deleteCard(User caller, int cardId) throws SQLException {
         cardDAO.deleteCard(cardId);
+        unindexCard(cardId);
     }
 
     // ====================================================================================
@@ -159,4 +190,38 @@ public class CardService {
         Card existing = cardDAO.getCardByName(name);
         return existing != null;
     }
+
+    // Le carte possono arrivare anche da altri servizi (es. DeckService che crea le carte di un mazzo importato):
+    // con la cache condivisa l'indice si ricostruisce quando il catalogo del gioco e' cambiato dall'ultima costruzione.
+    // La versione si legge prima di caricare le carte, cosi' una modifica concorrente porta a un'altra ricostruzione.
+    private CardNameIndex getSearchIndex(GameType gameType) throws SQLException {
+        synchronized (searchIndexes) {
+            long version = catalog == null ? 0 : catalog.getGameTypeVersion(gameType);
+            SearchIndex built = searchIndexes.get(gameType);
+            if (built == null || built.catalogVersion() != version) {
+                built = new SearchIndex(new CardNameIndex(cardDAO.getCardsByGameType(gameType)), version);
+                searchIndexes.put(gameType, built);
+            }
+            return built.index();
+        }
+    }
+
+    // Aggiornamenti incrementali: toccano solo gli indici gia' costruiti (senza cache condivisa sono l'unico
+    // modo in cui un indice vede le modifiche fatte da questo servizio)
+    private void indexCard(Card card) {
+        synchronized (searchIndexes) {
+            SearchIndex built = searchIndexes.get(card.getType());
+            if (built != null) {
+                built.index().add(card);
+            }
+        }
+    }
+
+    private void unindexCard(int cardId) {
+        synchronized (searchIndexes) {
+            for (SearchIndex built : searchIndexes.values()) {
+                built.index().remove(cardId);
+            }
+        }
+    }
 }
@@ -2,25 +2,49 @@ package Services.card;
 
 import DomainModel.GameType;
 import DomainModel.card.Card;
+import DomainModel.card.CardQuantity;
 import DomainModel.card.Deck;
 import DomainModel.card.factory.CardFactory;
 import DomainModel.card.factory.MagicCardFactory;
 import DomainModel.card.factory.PokemonCardFactory;
 import DomainModel.card.factory.YuGiOhCardFactory;
 import DomainModel.user.User;
+import ORM.cache.CardCatalogCache;
+import ORM.connection.SingleConnectionDataSource;
+import ORM.dao.CachingCardDAO;
 import ORM.dao.CardDAO;
 import ORM.dao.DeckDAO;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class DeckService {
 
     private final DeckDAO deckDAO;
     private final CardDAO cardDAO;
+    private final DataSource dataSource;   // per le transazioni che coinvolgono piu' DAO
+
+    public DeckService(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.deckDAO = new DeckDAO(dataSource);
+        this.cardDAO = new CachingCardDAO(dataSource, CardCatalogCache.getInstance());
+    }
 
     public DeckService(Connection connection) {
+        this.dataSource = new SingleConnectionDataSource(connection);
         this.deckDAO = new DeckDAO(connection);
         this.cardDAO = new CardDAO(connection);
     }
@@ -29,16 +53,7 @@ public class DeckService {
     // CRUD DECK
     // -------------------------------------------------------------
     public Deck createDeck(User caller, String deckName, GameType gameType) throws SQLException {
-        requireCaller(caller, "Owner non valido.");
-
-        if (deckName == null || deckName.isBlank()) {
-            throw new IllegalArgumentException("Il nome del deck non puo essere vuoto.");
-        }
-        if (gameType == null) {
-            throw new IllegalArgumentException("Il tipo di gioco non puo essere nullo.");
-        }
-
-        Deck deck = new Deck(deckName, caller, gameType);
+        Deck deck = newDeck(caller, deckName, gameType);
         deckDAO.createDeck(deck);
         return deck;
     }
@@ -90,36 +105,206 @@ public class DeckService {
     // GESTIONE CARTE NEL DECK
     // -------------------------------------------------------------
     public void addCardToDeck(User caller, int deckId, String cardName) throws SQLException {
+        addCardToDeck(caller, deckId, cardName, 1);
+    }
+
+    //Se la carta e' gia' nel deck aumentano le copie
+    public void addCardToDeck(User caller, int deckId, String cardName, int copies) throws SQLException {
         Deck deck = getDeckById(deckId);
 
         if (cardName == null || cardName.isBlank()) {
             throw new IllegalArgumentException("Il nome della carta non puo essere vuoto.");
         }
+        requireCopies(copies);
 
         Card existing = cardDAO.getCardByName(cardName);
         if (existing != null) {
             if (existing.getType() != deck.getGameType()) {
                 throw new IllegalArgumentException("La carta non e compatibile con il tipo di gioco del deck.");
             }
-            deckDAO.addCardToDeck(deckId, existing.getCardId());
+            deckDAO.addCardCopies(deckId, existing.getCardId(), copies);
             return;
         }
 
         Card card = createCardViaFactory(cardName, deck.getGameType());
         cardDAO.addCard(card);
-        deckDAO.addCardToDeck(deckId, card.getCardId());
+        deckDAO.addCardCopies(deckId, card.getCardId(), copies);
     }
 
+    //Rimuove tutte le copie della carta
     public void removeCardFromDeck(User caller, int deckId, int cardId) throws SQLException {
         getDeckById(deckId);
         deckDAO.removeCardFromDeck(deckId, cardId);
     }
 
+    //Rimuove alcune copie; all'ultima la carta esce dal deck
+    public void removeCardCopies(User caller, int deckId, int cardId, int copies) throws SQLException {
+        getDeckById(deckId);
+        requireCopies(copies);
+        deckDAO.removeCardCopies(deckId, cardId, copies);
+    }
+
     public List<Card> getCardsInDeck(int deckId) throws SQLException {
         getDeckById(deckId);
         return deckDAO.findCardsByDeck(deckId);
     }
 
+    // -------------------------------------------------------------
+    // GESTIONE CARTE NEL DECK (IN BLOCCO)
+    // -------------------------------------------------------------
+    // Per import e modifiche massive: i nomi vengono risolti con una sola query, le carte mancanti
+    // create con un batch e i collegamenti al deck inseriti con un altro batch, tutto in una transazione.
+    // Il numero di round-trip non dipende dalla dimensione del mazzo. Un nome ripetuto vale piu' copie.
+    public void addCardsToDeck(User caller, int deckId, List<String> cardNames) throws SQLException {
+        Deck deck = getDeckById(deckId);
+        List<CardQuantity> cards = resolveCards(deck.getGameType(), countNames(cardNames));
+        writeDeckCards(deck, cards, false);
+    }
+
+    public void replaceDeckCards(User caller, int deckId, List<String> cardNames) throws SQLException {
+        Deck deck = getDeckById(deckId);
+        List<CardQuantity> cards = resolveCards(deck.getGameType(), countNames(cardNames));
+        writeDeckCards(deck, cards, true);
+    }
+
+    public void removeCardsFromDeck(User caller, int deckId, Collection<Integer> cardIds) throws SQLException {
+        getDeckById(deckId);
+        deckDAO.removeCardsFromDeck(deckId, cardIds);
+    }
+
+    // -------------------------------------------------------------
+    // IMPORT / EXPORT (vedi DecklistCodec per i formati)
+    // -------------------------------------------------------------
+    // Import: parsing in streaming, risoluzione dei nomi/id in blocco, deck e carte in una sola transazione.
+    public Deck importDeckFromText(User caller, String deckName, GameType gameType, Reader reader)
+            throws SQLException, IOException {
+        Deck deck = newDeck(caller, deckName, gameType);
+        Map<String, Integer> decklist = DecklistCodec.readText(reader);
+        writeDeckCards(deck, resolveCards(gameType, decklist), false);
+        return deck;
+    }
+
+    public Deck importDeckFromBinary(User caller, String deckName, GameType gameType, InputStream in)
+            throws SQLException, IOException {
+        Deck deck = newDeck(caller, deckName, gameType);
+        Map<Integer, Integer> decklist = DecklistCodec.readBinary(in);
+
+        Map<Integer, Card> found = cardDAO.getCardsByIds(decklist.keySet());
+        List<CardQuantity> cards = new ArrayList<>(decklist.size());
+        for (Map.Entry<Integer, Integer> entry : decklist.entrySet()) {
+            int cardId = entry.getKey();
+            Card card = found.get(cardId);
+            if (card == null) {
+                throw new IllegalArgumentException("Carta con id " + cardId + " non trovata.");
+            }
+            if (card.getType() != gameType) {
+                throw new IllegalArgumentException("La carta " + card.getName() + " non e compatibile con il tipo di gioco del deck.");
+            }
+            cards.add(new CardQuantity(card, entry.getValue()));
+        }
+        writeDeckCards(deck, cards, false);
+        return deck;
+    }
+
+    // Export: le righe arrivano da un cursore sul DB e vengono scritte subito, senza caricare il mazzo
+    public void exportDeckAsText(int deckId, Writer writer) throws SQLException, IOException {
+        getDeckById(deckId);
+        try (Stream<CardQuantity> cards = deckDAO.streamCardsByDeck(deckId)) {
+            Iterator<CardQuantity> it = cards.iterator();
+            while (it.hasNext()) {
+                CardQuantity entry = it.next();
+                DecklistCodec.writeTextLine(writer, entry.card().getName(), entry.quantity());
+            }
+        }
+        writer.flush();
+    }
+
+    public void exportDeckAsBinary(int deckId, OutputStream out) throws SQLException, IOException {
+        getDeckById(deckId);
+        try (Stream<CardQuantity> cards = deckDAO.streamCardsByDeck(deckId);
+             DecklistCodec.BinaryWriter writer = DecklistCodec.binaryWriter(out)) {
+            Iterator<CardQuantity> it = cards.iterator();
+            while (it.hasNext()) {
+                CardQuantity entry = it.next();
+                writer.add(entry.card().getCardId(), entry.quantity());
+            }
+        }
+    }
+
+    private Deck newDeck(User caller, String deckName, GameType gameType) {
+        requireCaller(caller, "Owner non valido.");
+        if (deckName == null || deckName.isBlank()) {
+            throw new IllegalArgumentException("Il nome del deck non puo essere vuoto.");
+        }
+        if (gameType == null) {
+            throw new IllegalArgumentException("Il tipo di gioco non puo essere nullo.");
+        }
+        return new Deck(deckName, caller, gameType);
+    }
+
+    //Nome -> copie, nell'ordine di prima comparsa
+    private static Map<String, Integer> countNames(List<String> cardNames) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (String name : cardNames) {
+            quantities.merge(name, 1, Integer::sum);   // i nomi non validi vengono respinti da resolveCards
+        }
+        return quantities;
+    }
+
+    //Carte corrispondenti ai nomi con le rispettive copie; quelle nuove non hanno ancora un id
+    private List<CardQuantity> resolveCards(GameType gameType, Map<String, Integer> quantities) throws SQLException {
+        for (String name : quantities.keySet()) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Il nome della carta non puo essere vuoto.");
+            }
+        }
+
+        Map<String, Card> existing = cardDAO.getCardsByNames(quantities.keySet());
+        List<CardQuantity> cards = new ArrayList<>(quantities.size());
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            String name = entry.getKey();
+            Card card = existing.get(name);
+            if (card == null) {
+                card = createCardViaFactory(name, gameType);
+            } else if (card.getType() != gameType) {
+                throw new IllegalArgumentException("La carta " + name + " non e compatibile con il tipo di gioco del deck.");
+            }
+            cards.add(new CardQuantity(card, entry.getValue()));
+        }
+        return cards;
+    }
+
+    //Deck senza id (= nuovo, es. import) viene creato nella stessa transazione delle carte
+    private void writeDeckCards(Deck deck, List<CardQuantity> cards, boolean replace) throws SQLException {
+        List<Card> missing = cards.stream().map(CardQuantity::card).filter(c -> c.getCardId() == 0).toList();
+
+        // I DAO riusano la connessione di questo thread, quindi partecipano alla stessa transazione
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (deck.getDeckId() == 0) {
+                    deckDAO.createDeck(deck);
+                }
+                cardDAO.addCards(missing);
+                Map<Integer, Integer> quantities = new LinkedHashMap<>();
+                for (CardQuantity entry : cards) {
+                    quantities.merge(entry.card().getCardId(), entry.quantity(), Integer::sum);
+                }
+                if (replace) {
+                    deckDAO.replaceDeckCards(deck.getDeckId(), quantities);
+                } else {
+                    deckDAO.addCardsToDeck(deck.getDeckId(), quantities);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
     private Card createCardViaFactory(String name, GameType type) {
         CardFactory factory;
         switch (type) {
@@ -138,6 +323,12 @@ public class DeckService {
         return factory.createCard(name);
     }
 
+    private void requireCopies(int copies) {
+        if (copies < 1) {
+            throw new IllegalArgumentException("Il numero di copie deve essere positivo.");
+        }
+    }
+
     private void requireCaller(User caller, String message) {
         if (caller == null) {
             throw new SecurityException(message);
@@ -0,0 +1,188 @@
+package Services.card;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Formati di import/export dei mazzi.
+ *
+ * TESTO (decklist classica), una carta per riga:
+ *     4 Lightning Bolt
+ *     2x Counterspell
+ *     Island                  (quantita' 1)
+ *     1996 World Champion     (quantita' 1: senza 'x' un numero oltre MAX_QUANTITY fa parte del nome)
+ * Righe vuote e commenti ('#' o '//') sono ignorati; la stessa carta su piu' righe somma le quantita'.
+ *
+ * BINARIO (compatto, per id di carta):
+ *     'T' 'D' versione(1)
+ *     per ogni carta, in ordine di id crescente: varint(id - idPrecedente) varint(quantita')
+ *     varint(0)                (terminatore: il delta di id e' sempre >= 1)
+ * I varint sono LEB128 senza segno (7 bit per byte, bit alto = continua): un mazzo da 60 carte
+ * con id vicini occupa poche decine di byte.
+ *
+ * Lettura e scrittura lavorano in streaming: i lettori consumano l'input una riga/voce alla volta,
+ * gli scrittori emettono ogni voce appena la ricevono (es. direttamente da un cursore JDBC).
+ */
+public final class DecklistCodec {
+
+    private static final Pattern TEXT_LINE = Pattern.compile("^(\\d+)\\s*([xX])?\\s+(.+)$");
+    private static final int MAX_QUANTITY = 999;
+
+    private static final byte[] BINARY_MAGIC = {'T', 'D'};
+    private static final int BINARY_VERSION = 1;
+
+    private DecklistCodec() { }
+
+    // ====================================================================================
+    // TESTO
+    // ====================================================================================
+    // Nome -> quantita', nell'ordine di prima comparsa
+    public static Map<String, Integer> readText(Reader reader) throws IOException {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        BufferedReader lines = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("//")) {
+                continue;
+            }
+
+            int quantity = 1;
+            String name = line;
+            Matcher m = TEXT_LINE.matcher(line);
+            if (m.matches() && (m.group(2) != null || isQuantityRange(m.group(1)))) {
+                quantity = parseQuantity(m.group(1), lineNumber);
+                name = m.group(3).strip();
+            }
+            quantities.merge(name, quantity, Integer::sum);
+        }
+        return quantities;
+    }
+
+    public static void writeTextLine(Writer writer, String cardName, int quantity) throws IOException {
+        writer.write(quantity + " " + cardName + System.lineSeparator());
+    }
+
+    // Numero iniziale senza 'x': e' una quantita' solo se non supera MAX_QUANTITY (es. "1996 World Champion" e' un nome)
+    private static boolean isQuantityRange(String digits) {
+        return digits.length() <= String.valueOf(MAX_QUANTITY).length() && Integer.parseInt(digits) <= MAX_QUANTITY;
+    }
+
+    private static int parseQuantity(String digits, int lineNumber) {
+        int quantity;
+        try {
+            quantity = Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            quantity = -1;
+        }
+        if (quantity < 1 || quantity > MAX_QUANTITY) {
+            throw new IllegalArgumentException("Quantita' non valida alla riga " + lineNumber + ": " + digits);
+        }
+        return quantity;
+    }
+
+    // ====================================================================================
+    // BINARIO
+    // ====================================================================================
+    // Id carta -> quantita', in ordine di id
+    public static Map<Integer, Integer> readBinary(InputStream in) throws IOException {
+        for (byte expected : BINARY_MAGIC) {
+            if (readByte(in) != expected) {
+                throw new IllegalArgumentException("Formato mazzo binario non riconosciuto.");
+            }
+        }
+        int version = readByte(in);
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("Versione del formato mazzo non supportata: " + version);
+        }
+
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        long cardId = 0;
+        while (true) {
+            long delta = readVarint(in);
+            if (delta == 0) {
+                return quantities;
+            }
+            cardId += delta;
+            long quantity = readVarint(in);
+            if (cardId > Integer.MAX_VALUE || quantity < 1 || quantity > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Voce del mazzo binario non valida (id " + cardId + ").");
+            }
+            quantities.put((int) cardId, (int) quantity);
+        }
+    }
+
+    // Scrittore incrementale: add() in ordine di id crescente, poi close() scrive il terminatore
+    public static BinaryWriter binaryWriter(OutputStream out) throws IOException {
+        return new BinaryWriter(out);
+    }
+
+    public static final class BinaryWriter implements AutoCloseable {
+        private final OutputStream out;
+        private int lastCardId;
+
+        private BinaryWriter(OutputStream out) throws IOException {
+            this.out = out;
+            out.write(BINARY_MAGIC);
+            out.write(BINARY_VERSION);
+        }
+
+        public void add(int cardId, int quantity) throws IOException {
+            if (cardId <= lastCardId) {
+                throw new IllegalArgumentException("Le carte vanno scritte in ordine di id crescente.");
+            }
+            if (quantity < 1 || quantity > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantita' non valida: " + quantity);
+            }
+            writeVarint(out, cardId - lastCardId);
+            writeVarint(out, quantity);
+            lastCardId = cardId;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeVarint(out, 0);
+            out.flush();
+        }
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint troppo lungo nel mazzo binario.");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Mazzo binario troncato.");
+        }
+        return b;
+    }
+}
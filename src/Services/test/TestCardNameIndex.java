@@ -0,0 +1,89 @@
+package Services.test;
+
+import DomainModel.GameType;
+import DomainModel.card.Card;
+import Services.card.CardNameIndex;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCardNameIndex {
+
+    private CardNameIndex index;
+
+    private static Card card(int id, String name) {
+        Card card = new Card(name, GameType.YUGIOH);
+        card.setCardId(id);
+        return card;
+    }
+
+    private static List<String> names(List<Card> cards) {
+        return cards.stream().map(Card::getName).toList();
+    }
+
+    @BeforeEach
+    void setup() {
+        index = new CardNameIndex(List.of(
+                card(1, "Dark Magician"),
+                card(2, "Magician of Faith"),
+                card(3, "Dark Magician Girl"),
+                card(4, "Blue-Eyes White Dragon"),
+                card(5, "Magician")));
+    }
+
+    @Test
+    void substringMatchesAreRankedByRelevance() {
+        assertEquals(List.of("Magician", "Magician of Faith", "Dark Magician", "Dark Magician Girl"),
+                names(index.search("MAGICIAN", 10)));
+    }
+
+    @Test
+    void tokensMatchInAnyOrder() {
+        assertEquals(List.of("Dark Magician Girl"), names(index.search("girl dark", 10)));
+    }
+
+    @Test
+    void shortQueriesAndLimitAreSupported() {
+        assertEquals(List.of("Blue-Eyes White Dragon"), names(index.search("-e", 10)));
+        assertEquals(2, index.search("magician", 2).size());
+    }
+
+    @Test
+    void pagesFollowTheUnpagedOrderWithoutGapsOrRepeats() {
+        index.add(card(6, "Magician"));   // stesso nome: decide l'id
+
+        List<Card> all = index.search("magician", Integer.MAX_VALUE);
+        assertEquals(5, all.size());
+
+        List<Card> paged = new ArrayList<>();
+        for (int offset = 0; offset < all.size() + 2; offset += 2) {
+            paged.addAll(index.search("magician", 2, offset));
+        }
+        assertEquals(all, paged);
+        assertEquals(List.of(5, 6), index.search("magician", 2, 0).stream().map(Card::getCardId).toList());
+    }
+
+    @Test
+    void incrementalUpdatesAreVisible() {
+        index.remove(4);
+        assertTrue(index.search("dragon", 10).isEmpty());
+
+        index.add(card(2, "Faithful Dragon"));
+        assertEquals(List.of("Faithful Dragon"), names(index.search("dragon", 10)));
+        assertEquals(List.of("Magician", "Dark Magician", "Dark Magician Girl"), names(index.search("magician", 10)));
+    }
+
+    @Test
+    void largeCatalogSearchStaysSelective() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            cards.add(card(i, "Card number " + i));
+        }
+        CardNameIndex big = new CardNameIndex(cards);
+
+        assertEquals(List.of("Card number 99999"), names(big.search("99999", 10)));
+    }
+}
@@ -107,6 +107,11 @@ public class TestCardService {
 
         List<Card> results = cardService.searchCardsByName(GameType.YUGIOH, "magician");
         assertEquals(2, results.size());
+
+        // Tutti gli overload usano lo stesso motore: le pagine ricompongono la lista completa
+        List<Card> firstPage = cardService.searchCardsByName(GameType.YUGIOH, "magician", 1);
+        List<Card> secondPage = cardService.searchCardsByName(GameType.YUGIOH, "magician", 1, 1);
+        assertEquals(results, List.of(firstPage.getFirst(), secondPage.getFirst()));
         assertThrows(IllegalArgumentException.class, () -> cardService.searchCardsByName(GameType.YUGIOH, " "));
     }
 
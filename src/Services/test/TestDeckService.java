@@ -9,11 +9,17 @@ import ORM.connection.DatabaseConnection;
 import ORM.dao.CardDAO;
 import ORM.dao.UserDAO;
 import Services.card.DeckService;
+import Services.card.DecklistCodec;
 import org.junit.jupiter.api.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.Statement;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -168,4 +174,63 @@ public class TestDeckService {
         deckService.deleteDeck(owner, deck.getDeckId());
         assertThrows(IllegalArgumentException.class, () -> deckService.getDeckById(deck.getDeckId()));
     }
+
+    @Test
+    @Order(10)
+    void test10_bulkAddReplaceAndRemoveCards() throws Exception {
+        Deck deck = deckService.createDeck(owner, "Bulk", GameType.MAGIC);
+        cardDAO.addCard(new Card("Counterspell", GameType.MAGIC));
+
+        // Carta esistente + carte nuove (create in blocco), un nome ripetuto vale piu' copie
+        deckService.addCardsToDeck(owner, deck.getDeckId(),
+                List.of("Counterspell", "Lightning Bolt", "Giant Growth", "Lightning Bolt"));
+        assertEquals(3, deckService.getCardsInDeck(deck.getDeckId()).size());
+        assertEquals(4, deckService.getDeckById(deck.getDeckId()).getDeckSize());
+
+        deckService.replaceDeckCards(owner, deck.getDeckId(), List.of("Shock", "Counterspell"));
+        List<Card> replaced = deckService.getCardsInDeck(deck.getDeckId());
+        assertEquals(List.of("Counterspell", "Shock"),
+                replaced.stream().map(Card::getName).sorted().toList());
+
+        deckService.removeCardsFromDeck(owner, deck.getDeckId(), replaced.stream().map(Card::getCardId).toList());
+        assertEquals(0, deckService.getCardsInDeck(deck.getDeckId()).size());
+
+        // Una carta incompatibile annulla tutto il blocco
+        cardDAO.addCard(new Card("Pikachu", GameType.POKEMON));
+        assertThrows(IllegalArgumentException.class,
+                () -> deckService.addCardsToDeck(owner, deck.getDeckId(), List.of("Island", "Pikachu")));
+        assertEquals(0, deckService.getCardsInDeck(deck.getDeckId()).size());
+        assertNull(cardDAO.getCardByName("Island"));
+    }
+
+    @Test
+    @Order(11)
+    void test11_cardCopiesAndQuantityAwareImportExport() throws Exception {
+        Deck deck = deckService.createDeck(owner, "Copies", GameType.MAGIC);
+
+        deckService.addCardToDeck(owner, deck.getDeckId(), "Island");
+        deckService.addCardToDeck(owner, deck.getDeckId(), "Island", 3);
+        int islandId = cardDAO.getCardByName("Island").getCardId();
+        Deck loaded = deckService.getDeckById(deck.getDeckId());
+        assertEquals(1, loaded.getDistinctCardCount());
+        assertEquals(4, loaded.getQuantity(islandId));
+
+        deckService.removeCardCopies(owner, deck.getDeckId(), islandId, 3);
+        assertEquals(1, deckService.getDeckById(deck.getDeckId()).getQuantity(islandId));
+        deckService.removeCardCopies(owner, deck.getDeckId(), islandId, 1);
+        assertEquals(0, deckService.getCardsInDeck(deck.getDeckId()).size());
+
+        Deck imported = deckService.importDeckFromText(owner, "Imported", GameType.MAGIC,
+                new StringReader("4 Lightning Bolt\n20 Mountain\n"));
+        StringWriter text = new StringWriter();
+        deckService.exportDeckAsText(imported.getDeckId(), text);
+        Map<String, Integer> exported = DecklistCodec.readText(new StringReader(text.toString()));
+        assertEquals(Map.of("Lightning Bolt", 4, "Mountain", 20), exported);
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        deckService.exportDeckAsBinary(imported.getDeckId(), binary);
+        Deck copy = deckService.importDeckFromBinary(owner, "Copy", GameType.MAGIC,
+                new ByteArrayInputStream(binary.toByteArray()));
+        assertEquals(24, deckService.getDeckById(copy.getDeckId()).getDeckSize());
+    }
 }
@@ -0,0 +1,107 @@
+package Services.test;
+
+import Services.card.DecklistCodec;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDecklistCodec {
+
+    @Test
+    void readTextParsesQuantitiesCommentsAndDuplicates() throws Exception {
+        String decklist = """
+                # Mono red
+                4 Lightning Bolt
+                2x Goblin Guide
+
+                // sideboard
+                Mountain
+                1 Lightning Bolt
+                """;
+
+        Map<String, Integer> cards = DecklistCodec.readText(new StringReader(decklist));
+
+        assertEquals(List.of("Lightning Bolt", "Goblin Guide", "Mountain"), List.copyOf(cards.keySet()));
+        assertEquals(5, cards.get("Lightning Bolt"));
+        assertEquals(2, cards.get("Goblin Guide"));
+        assertEquals(1, cards.get("Mountain"));
+    }
+
+    @Test
+    void readTextRejectsInvalidQuantityWithLineNumber() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> DecklistCodec.readText(new StringReader("1 Island\n0 Forest\n")));
+        assertTrue(e.getMessage().contains("riga 2"));
+    }
+
+    @Test
+    void readTextKeepsLeadingDigitsOfACardNameWithoutQuantityMarker() throws Exception {
+        String decklist = """
+                1996 World Champion
+                2 1996 World Champion
+                3x 1996 World Champion
+                """;
+
+        Map<String, Integer> cards = DecklistCodec.readText(new StringReader(decklist));
+        assertEquals(Map.of("1996 World Champion", 6), cards);
+
+        // Con la 'x' il numero e' sempre una quantita'
+        assertThrows(IllegalArgumentException.class,
+                () -> DecklistCodec.readText(new StringReader("1996x World Champion\n")));
+    }
+
+    @Test
+    void writtenTextCanBeReadBack() throws Exception {
+        StringWriter out = new StringWriter();
+        DecklistCodec.writeTextLine(out, "Dark Magician", 3);
+        DecklistCodec.writeTextLine(out, "Pot of Greed", 1);
+
+        Map<String, Integer> cards = DecklistCodec.readText(new StringReader(out.toString()));
+        assertEquals(Map.of("Dark Magician", 3, "Pot of Greed", 1), cards);
+    }
+
+    @Test
+    void binaryRoundTripKeepsIdsAndQuantities() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DecklistCodec.BinaryWriter writer = DecklistCodec.binaryWriter(out)) {
+            writer.add(3, 4);
+            writer.add(4, 1);
+            writer.add(200_000, 2);
+        }
+
+        Map<Integer, Integer> cards = DecklistCodec.readBinary(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(List.of(3, 4, 200_000), List.copyOf(cards.keySet()));
+        assertEquals(4, cards.get(3));
+        assertEquals(1, cards.get(4));
+        assertEquals(2, cards.get(200_000));
+
+        // header (3) + 2 byte per le prime due voci + 3+1 per l'id grande + terminatore
+        assertEquals(3 + 2 + 2 + 4 + 1, out.size());
+    }
+
+    @Test
+    void binaryWriterRequiresAscendingIds() throws Exception {
+        DecklistCodec.BinaryWriter writer = DecklistCodec.binaryWriter(new ByteArrayOutputStream());
+        writer.add(10, 1);
+        assertThrows(IllegalArgumentException.class, () -> writer.add(10, 1));
+        assertThrows(IllegalArgumentException.class, () -> writer.add(5, 1));
+    }
+
+    @Test
+    void readBinaryRejectsBadHeaderAndTruncatedInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DecklistCodec.readBinary(new ByteArrayInputStream(new byte[]{'X', 'D', 1, 0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> DecklistCodec.readBinary(new ByteArrayInputStream(new byte[]{'T', 'D', 9, 0})));
+        assertThrows(EOFException.class,
+                () -> DecklistCodec.readBinary(new ByteArrayInputStream(new byte[]{'T', 'D', 1, 5})));
+    }
+}
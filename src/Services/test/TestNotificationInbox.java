@@ -0,0 +1,137 @@
+package Services.test;
+
+import DomainModel.GameType;
+import DomainModel.user.Notification;
+import Services.user.NotificationInbox;
+import Utils.primitive.IntArrayList;
+import org.junit.jupiter.api.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNotificationInbox {
+
+    // Orologio spostabile a mano per provare il TTL
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-10T10:00:00Z");
+
+        void advance(Duration d) { now = now.plus(d); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    private MutableClock clock;
+    private NotificationInbox inbox;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock();
+        inbox = new NotificationInbox(Duration.ofHours(1), 3, clock, null);
+    }
+
+    private static List<String> messages(List<Notification> notifications) {
+        return notifications.stream().map(Notification::message).toList();
+    }
+
+    @Test
+    void drainByGameTypeKeepsOtherGamesAndSendOrder() {
+        inbox.add(1, "magic-1", GameType.MAGIC);
+        inbox.add(1, "global", null);
+        inbox.add(1, "pokemon", GameType.POKEMON);
+
+        assertEquals(List.of("magic-1", "global"), messages(inbox.drain(1, GameType.MAGIC)));
+        assertEquals(1, inbox.pendingCount(1));
+        assertEquals(List.of("pokemon"), messages(inbox.drain(1, null)));
+        assertEquals(List.of(), inbox.drain(1, null));
+    }
+
+    @Test
+    void capDropsNewNotificationsAndReportsThem() {
+        inbox.addAll(IntArrayList.of(5, 6), "a", null);
+        inbox.add(5, "b", null);
+        inbox.add(5, "c", null);
+        inbox.add(5, "d", null);
+        inbox.add(5, "e", null);
+
+        List<String> drained = messages(inbox.drain(5, null));
+        assertEquals(List.of("a", "b", "c"), drained.subList(0, 3));
+        assertTrue(drained.get(3).contains("2 notifiche non consegnate"));
+        assertEquals(2, inbox.getOverflowCount());
+        assertEquals(List.of("a"), messages(inbox.drain(6, null)));
+    }
+
+    @Test
+    void expiredNotificationsAreNotDeliveredAndArePurged() {
+        inbox.add(1, "old", GameType.YUGIOH);
+        inbox.add(2, "old", null);
+        clock.advance(Duration.ofMinutes(45));
+        inbox.add(1, "new", GameType.YUGIOH);
+        clock.advance(Duration.ofMinutes(30));
+
+        assertEquals(2, inbox.purgeExpired());
+        assertEquals(0, inbox.pendingCount(2));
+        assertEquals(List.of("new"), messages(inbox.drain(1, GameType.YUGIOH)));
+    }
+
+    @Test
+    void deliverKeepsOutboxIdsAndRespectsCap() {
+        Instant createdAt = clock.instant();
+        for (long id = 1; id <= 4; id++) {
+            boolean accepted = inbox.deliver(new Notification(id, 9, "outbox-" + id, GameType.POKEMON, createdAt));
+            assertEquals(id <= 3, accepted);
+        }
+
+        List<Notification> drained = inbox.drain(9, GameType.POKEMON);
+        assertEquals(List.of(1L, 2L, 3L, 0L), drained.stream().map(Notification::notificationId).toList());
+        assertTrue(drained.get(3).message().contains("1 notifiche non consegnate"));
+    }
+
+    @Test
+    void concurrentProducersAndDrainersDeliverEachNotificationOnce() throws Exception {
+        NotificationInbox shared = new NotificationInbox(Duration.ofHours(1), 100_000, clock, null);
+        int producers = 4;
+        int perProducer = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger delivered = new AtomicInteger();
+        try {
+            for (int p = 0; p < producers; p++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        shared.add(42, "n" + i, i % 2 == 0 ? GameType.MAGIC : null);
+                    }
+                    return null;
+                });
+            }
+            Future<?> drainer = pool.submit(() -> {
+                start.await();
+                while (delivered.get() < producers * perProducer) {
+                    delivered.addAndGet(shared.drain(42, null).size());
+                }
+                return null;
+            });
+            start.countDown();
+            drainer.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(producers * perProducer, delivered.get());
+        assertEquals(0, shared.pendingCount(42));
+    }
+}
@@ -0,0 +1,108 @@
+package Services.test;
+
+import Services.tournament.TournamentStatusScheduler;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.time.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTournamentStatusScheduler {
+
+    private static void awaitRuns(TournamentStatusScheduler scheduler, long runs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.getTotalRuns() < runs && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(scheduler.getTotalRuns() >= runs, "Esecuzione non avvenuta");
+    }
+
+    @Test
+    void startRunsSyncAndRecordsStats() throws Exception {
+        try (TournamentStatusScheduler scheduler =
+                     new TournamentStatusScheduler(() -> 3, Duration.ofHours(1), Duration.ZERO)) {
+            scheduler.start();
+            awaitRuns(scheduler, 1);
+
+            assertEquals(3, scheduler.getLastRun().changes());
+            assertNull(scheduler.getLastRun().error());
+            assertEquals(3, scheduler.getTotalChanges());
+        }
+    }
+
+    @Test
+    void failedRunIsRecordedAndSchedulerKeepsGoing() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        try (TournamentStatusScheduler scheduler = new TournamentStatusScheduler(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new SQLException("db down");
+            }
+            return 1;
+        }, Duration.ofHours(1), Duration.ZERO)) {
+            scheduler.start();
+            awaitRuns(scheduler, 1);
+            assertEquals("db down", scheduler.getLastRun().error());
+
+            assertTrue(scheduler.triggerNow());
+            awaitRuns(scheduler, 2);
+            assertEquals(1, scheduler.getLastRun().changes());
+        }
+    }
+
+    @Test
+    void errorThrownByTheTaskDoesNotStopThePeriodicRuns() throws Exception {
+        CountDownLatch calls = new CountDownLatch(2);
+        try (TournamentStatusScheduler scheduler = new TournamentStatusScheduler(() -> {
+            calls.countDown();
+            if (calls.getCount() == 1) {
+                throw new AssertionError("bug nel task");
+            }
+            return 0;
+        }, Duration.ofMillis(20), Duration.ZERO)) {
+            scheduler.start();
+            // La seconda esecuzione arriva dal ripianificatore, non da triggerNow
+            assertTrue(calls.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void triggerNowDoesNotQueueTwice() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try (TournamentStatusScheduler scheduler = new TournamentStatusScheduler(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }, Duration.ofHours(1), Duration.ZERO)) {
+            scheduler.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Un'esecuzione e' in corso: se ne puo' accodare una sola
+            assertTrue(scheduler.triggerNow());
+            assertFalse(scheduler.triggerNow());
+
+            release.countDown();
+            awaitRuns(scheduler, 2);
+        }
+    }
+
+    @Test
+    void nextRunIsBroughtForwardToMidnight() {
+        ZoneId zone = ZoneId.of("Europe/Rome");
+        Clock lateEvening = Clock.fixed(LocalDateTime.of(2026, 3, 10, 23, 59, 0).atZone(zone).toInstant(), zone);
+        try (TournamentStatusScheduler scheduler =
+                     new TournamentStatusScheduler(() -> 0, Duration.ofMinutes(15), Duration.ZERO, lateEvening)) {
+            Duration delay = scheduler.nextDelay();
+            assertTrue(delay.compareTo(Duration.ofMinutes(2)) < 0);
+            assertTrue(delay.compareTo(Duration.ofMinutes(1)) >= 0);
+        }
+    }
+}
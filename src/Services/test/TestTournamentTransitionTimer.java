@@ -0,0 +1,134 @@
+package Services.test;
+
+import DomainModel.GameType;
+import DomainModel.tournament.Tournament;
+import DomainModel.tournament.TournamentStatus;
+import Services.tournament.TournamentService;
+import Services.tournament.TournamentStatusChangeEvent;
+import Services.tournament.TournamentTransitionTimer;
+import Utils.primitive.IntArrayList;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTournamentTransitionTimer {
+
+    // TournamentService in memoria: lo stato dei tornei e' una mappa, le transizioni sono decise dal test
+    private static class FakeTournamentService extends TournamentService {
+        final Map<Integer, Tournament> tournaments = new HashMap<>();
+        final LinkedBlockingQueue<List<Integer>> evaluated = new LinkedBlockingQueue<>();
+        TournamentStatus nextStatus;
+
+        FakeTournamentService() {
+            super((Connection) null);
+        }
+
+        @Override
+        public List<Tournament> getActiveTournamentSummaries() {
+            return new ArrayList<>(tournaments.values());
+        }
+
+        @Override
+        public synchronized List<TournamentStatusChangeEvent> updateTournamentStatuses(Collection<Integer> ids) {
+            List<TournamentStatusChangeEvent> events = new ArrayList<>();
+            for (int id : ids) {
+                Tournament t = tournaments.get(id);
+                if (nextStatus != null && t != null) {
+                    events.add(new TournamentStatusChangeEvent(id, t.getName(), t.getGameType(),
+                            t.getStatus(), nextStatus, IntArrayList.of(7)));
+                    t.setStatus(nextStatus);
+                }
+            }
+            evaluated.add(List.copyOf(ids));
+            return events;
+        }
+
+        @Override
+        public synchronized Map<Integer, Tournament> getTournamentSummaries(Collection<Integer> ids) {
+            Map<Integer, Tournament> result = new HashMap<>();
+            for (int id : ids) {
+                if (tournaments.containsKey(id)) {
+                    result.put(id, tournaments.get(id));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static Tournament tournament(int id, TournamentStatus status, LocalDate deadline, LocalDate start) {
+        Tournament t = new Tournament("T" + id, GameType.MAGIC);
+        t.setTournamentId(id);
+        t.setStatus(status);
+        t.setDeadline(deadline);
+        t.setStartDate(start);
+        return t;
+    }
+
+    @Test
+    void dueTournamentIsEvaluatedAndRescheduled() throws Exception {
+        LocalDate today = LocalDate.now();
+        FakeTournamentService service = new FakeTournamentService();
+        // Deadline oggi: la transizione APPROVED -> READY e' gia' scaduta
+        service.tournaments.put(1, tournament(1, TournamentStatus.APPROVED, today, today.plusDays(5)));
+        service.nextStatus = TournamentStatus.READY;
+
+        List<TournamentStatusChangeEvent> published = new CopyOnWriteArrayList<>();
+        try (TournamentTransitionTimer timer = new TournamentTransitionTimer(service, published::addAll)) {
+            timer.start();
+
+            assertEquals(List.of(1), service.evaluated.poll(5, TimeUnit.SECONDS));
+            waitUntil(() -> timer.nextDueAt() != null && published.size() == 1);
+
+            assertEquals(TournamentStatus.READY, published.getFirst().getNewStatus());
+            // Ora READY: prossima scadenza al giorno di inizio
+            assertEquals(today.plusDays(5).atStartOfDay(ZoneId.systemDefault()).toInstant(), timer.nextDueAt());
+        }
+    }
+
+    @Test
+    void touchEvaluatesImmediately() throws Exception {
+        LocalDate today = LocalDate.now();
+        FakeTournamentService service = new FakeTournamentService();
+        service.tournaments.put(2, tournament(2, TournamentStatus.APPROVED, today.plusDays(3), today.plusDays(5)));
+
+        try (TournamentTransitionTimer timer = new TournamentTransitionTimer(service, events -> { })) {
+            timer.start();
+            assertNull(service.evaluated.poll(200, TimeUnit.MILLISECONDS));
+
+            timer.touch(2);
+            assertEquals(List.of(2), service.evaluated.poll(5, TimeUnit.SECONDS));
+            waitUntil(() -> timer.size() == 1);
+        }
+    }
+
+    @Test
+    void finishedTournamentLeavesTheQueue() throws Exception {
+        LocalDate today = LocalDate.now();
+        FakeTournamentService service = new FakeTournamentService();
+        service.tournaments.put(3, tournament(3, TournamentStatus.ONGOING, today.minusDays(3), today.minusDays(1)));
+        service.nextStatus = TournamentStatus.FINISHED;
+
+        try (TournamentTransitionTimer timer = new TournamentTransitionTimer(service, events -> { })) {
+            timer.start();
+            assertEquals(List.of(3), service.evaluated.poll(5, TimeUnit.SECONDS));
+            waitUntil(() -> timer.size() == 0);
+            assertNull(timer.nextDueAt());
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -1,41 +1,103 @@
 package Services.tournament;
 
 import DomainModel.tournament.Registration;
+import DomainModel.tournament.RegistrationResult;
 import DomainModel.tournament.Tournament;
 import DomainModel.tournament.TournamentStatus;
 import DomainModel.user.User;
+import ORM.dao.FetchPlan;
+import ORM.dao.NotificationDAO;
 import ORM.dao.RegistrationDAO;
 import ORM.dao.TournamentDAO;
+import ORM.dao.TransactionHook;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RegistrationService {
 
     private final RegistrationDAO registrationDAO;
     private final TournamentDAO tournamentDAO;
+    private TournamentTransitionTimer transitionTimer;   // null = nessun timer (es. nei test)
+    private Consumer<WaitlistPromotion> promotionListener;  // null = promozioni non notificate
+    private NotificationDAO notificationOutbox;             // null = promozioni notificate in memoria dal listener
+    private Runnable outboxListener;
+
+    public RegistrationService(DataSource dataSource) {
+        this.registrationDAO = new RegistrationDAO(dataSource);
+        this.tournamentDAO = new TournamentDAO(dataSource);
+    }
 
     public RegistrationService(Connection connection) {
         this.registrationDAO = new RegistrationDAO(connection);
         this.tournamentDAO = new TournamentDAO(connection);
     }
 
+    // Collega il timer delle transizioni: iscrizioni e cancellazioni fanno rivalutare il torneo (pieno / posto libero)
+    public void setTransitionTimer(TournamentTransitionTimer transitionTimer) {
+        this.transitionTimer = transitionTimer;
+    }
+
+    // Riceve gli utenti promossi dalla lista d'attesa (es. per notificarli via UserSession)
+    public void setPromotionListener(Consumer<WaitlistPromotion> promotionListener) {
+        this.promotionListener = promotionListener;
+    }
+
+    // Collega l'outbox delle notifiche: la notifica all'utente promosso viene scritta nella stessa transazione
+    // della promozione; onWrite viene chiamata dopo il commit (es. NotificationDispatcher::wakeUp).
+    // Il NotificationDAO deve usare lo stesso DataSource del servizio.
+    public void setNotificationOutbox(NotificationDAO notificationOutbox, Runnable onWrite) {
+        this.notificationOutbox = notificationOutbox;
+        this.outboxListener = onWrite;
+    }
+
+    // true = le promozioni sono notificate dal servizio, il listener non deve consegnarle in memoria
+    public boolean hasNotificationOutbox() {
+        return notificationOutbox != null;
+    }
+
     // ====================================================================================
     // 1) REGISTER USER TO TOURNAMENT
     // ====================================================================================
     public void registerUserToTournament(User caller, int tournamentId, Registration reg) throws SQLException {
+        switch (tryRegisterUserToTournament(caller, tournamentId, reg)) {
+            case ACCEPTED -> { }
+            case DUPLICATE -> throw new IllegalStateException("User already registered.");
+            case FULL -> throw new IllegalStateException("Tournament capacity reached.");
+            case CLOSED -> throw new IllegalStateException("Tournament is not open for registration (status or deadline).");
+        }
+    }
+
+    // ====================================================================================
+    // 1a) REGISTER USER TO TOURNAMENT (esito tipizzato)
+    // ====================================================================================
+    // Stato, doppione, capienza e deadline sono verificati in modo atomico dal DB
+    // (RegistrationDAO.admitRegistration): nessun overbooking anche con molte richieste simultanee.
+    public RegistrationResult tryRegisterUserToTournament(User caller, int tournamentId, Registration reg)
+            throws SQLException {
         requireLoggedIn(caller);
 
-        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+        // Serve solo per il GameType: capienza e stato li decide l'UPDATE condizionale
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (tournament == null) {
             throw new IllegalArgumentException("Tournament not found");
         }
+        if (reg.getRegDeck().getGameType() != tournament.getGameType()) {
+            throw new IllegalArgumentException("Deck game type does not match tournament game type.");
+        }
 
-        validateRegistrationRules(tournament, caller, reg);
         reg.setRegistrationDate(LocalDateTime.now());
-        registrationDAO.createRegistration(reg);
+        RegistrationResult result = registrationDAO.admitRegistration(reg, LocalDate.now());
+        if (result == RegistrationResult.ACCEPTED) {
+            touch(tournamentId);
+        }
+        return result;
     }
 
     // ====================================================================================
@@ -44,7 +106,7 @@ public class RegistrationService {
     public void unregisterFromTournament(User caller, int tournamentId) throws SQLException {
         requireLoggedIn(caller);
 
-        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (tournament == null) {
             throw new IllegalArgumentException("Tournament not found");
         }
@@ -58,7 +120,10 @@ public class RegistrationService {
             throw new IllegalStateException("User is not registered.");
         }
 
-        registrationDAO.deleteRegistration(tournamentId, caller.getUserId());
+        Integer promoted = registrationDAO.deleteRegistrationAndPromote(tournamentId, caller.getUserId(), LocalDate.now(),
+                promotionOutbox(tournament));
+        notifyPromotion(tournament, promoted);
+        touch(tournamentId);
     }
 
     // ====================================================================================
@@ -67,7 +132,7 @@ public class RegistrationService {
     public void unregisterUserFromTournament(User caller, int tournamentId, int userId) throws SQLException {
         requireLoggedIn(caller);
 
-        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (tournament == null) {
             throw new IllegalArgumentException("Tournament not found");
         }
@@ -77,7 +142,10 @@ public class RegistrationService {
             throw new IllegalStateException("User is not registered.");
         }
 
-        registrationDAO.deleteRegistration(tournamentId, userId);
+        Integer promoted = registrationDAO.deleteRegistrationAndPromote(tournamentId, userId, LocalDate.now(),
+                promotionOutbox(tournament));
+        notifyPromotion(tournament, promoted);
+        touch(tournamentId);
     }
 
     // ====================================================================================
@@ -87,7 +155,11 @@ public class RegistrationService {
     public int unregisterUserFromApprovedOrReadyTournaments(User caller, int userId) throws SQLException {
         requireLoggedIn(caller);
 
-        List<Registration> registrations = registrationDAO.getRegistrationsByUser(userId);
+        // Anche le liste d'attesa: un utente bannato non deve essere promosso
+        registrationDAO.removeFromAllWaitlists(userId);
+
+        // Servono solo id e stato del torneo: niente organizzatore ne' iscrizioni
+        List<Registration> registrations = registrationDAO.getRegistrationsByUser(userId, FetchPlan.SUMMARY);
         int removed = 0;
 
         for (Registration r : registrations) {
@@ -97,7 +169,10 @@ public class RegistrationService {
             }
             TournamentStatus status = t.getStatus();
             if (status == TournamentStatus.APPROVED || status == TournamentStatus.READY) {
-                registrationDAO.deleteRegistration(t.getTournamentId(), userId);
+                Integer promoted = registrationDAO.deleteRegistrationAndPromote(t.getTournamentId(), userId, LocalDate.now(),
+                        promotionOutbox(t));
+                notifyPromotion(t, promoted);
+                touch(t.getTournamentId());
                 removed++;
             }
         }
@@ -119,7 +194,7 @@ public class RegistrationService {
     public List<Registration> getRegistrationsByTournament(User caller, int tournamentId) throws SQLException {
         requireLoggedIn(caller);
 
-        Tournament tournament = tournamentDAO.getTournamentById(tournamentId);
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (tournament == null) {
             throw new IllegalArgumentException("Tournament not found");
         }
@@ -136,30 +211,103 @@ public class RegistrationService {
     }
 
     // ====================================================================================
-    // HELPERS
+    // 6) WAITLIST
     // ====================================================================================
-    private void validateRegistrationRules(Tournament tournament, User caller, Registration registration)
-            throws SQLException {
-        if (tournament.getStatus() != TournamentStatus.APPROVED) {
-            throw new IllegalStateException("Tournament is not open for registration.");
-        }
-        if (registrationDAO.isUserRegistered(tournament.getTournamentId(), caller.getUserId())) {
-            throw new IllegalStateException("User already registered.");
+    // Lista d'attesa FIFO per i tornei pieni: quando si libera un posto il primo in lista viene iscritto
+    // (stessa transazione della cancellazione) e notificato, senza che i giocatori debbano riprovare.
+    // Restituisce la posizione in lista (da 1), oppure 0 se un posto era gia' libero e l'utente e' stato iscritto.
+    public int joinWaitlist(User caller, int tournamentId, Registration reg) throws SQLException {
+        requireLoggedIn(caller);
+
+        Tournament tournament = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
+        if (tournament == null) {
+            throw new IllegalArgumentException("Tournament not found");
         }
-        if (tournament.isFull()) {
-            throw new IllegalStateException("Tournament capacity reached.");
+        if (tournament.getStatus() != TournamentStatus.APPROVED && tournament.getStatus() != TournamentStatus.READY) {
+            throw new IllegalStateException("Tournament is not open for registration.");
         }
         if (!tournament.isRegistrationOpen()) {
             throw new IllegalStateException("Registration deadline has passed.");
         }
-        if (registration.getRegDeck().getGameType() != tournament.getGameType()) {
+        if (reg.getRegDeck().getGameType() != tournament.getGameType()) {
             throw new IllegalArgumentException("Deck game type does not match tournament game type.");
         }
+        if (registrationDAO.isUserRegistered(tournamentId, caller.getUserId())) {
+            throw new IllegalStateException("User already registered.");
+        }
+
+        reg.setRegistrationDate(LocalDateTime.now());
+        int position = registrationDAO.joinWaitlist(reg);
+
+        // Un posto puo' essersi liberato tra il rifiuto per capienza e l'ingresso in lista.
+        // Se tocca al chiamante lo sa gia' dal valore restituito: niente notifica
+        TransactionHook<Integer> outbox = promotionOutbox(tournament);
+        Integer promoted = registrationDAO.promoteFromWaitlist(tournamentId, LocalDate.now(), outbox == null ? null
+                : userId -> {
+                    if (userId != caller.getUserId()) {
+                        outbox.beforeCommit(userId);
+                    }
+                });
+        if (promoted != null) {
+            touch(tournamentId);
+            if (promoted == caller.getUserId()) {
+                return 0;
+            }
+            notifyPromotion(tournament, promoted);
+            position = registrationDAO.getWaitlistPosition(tournamentId, caller.getUserId());
+        }
+        return position;
     }
 
+    public void leaveWaitlist(User caller, int tournamentId) throws SQLException {
+        requireLoggedIn(caller);
+        if (!registrationDAO.leaveWaitlist(tournamentId, caller.getUserId())) {
+            throw new IllegalStateException("User is not in the waitlist.");
+        }
+    }
+
+    public List<Registration> getWaitlist(User caller, int tournamentId) throws SQLException {
+        requireLoggedIn(caller);
+        return registrationDAO.getWaitlist(tournamentId);
+    }
+
+    // ====================================================================================
+    // HELPERS
+    // ====================================================================================
     private void requireLoggedIn(User caller) {
         if (caller == null) {
             throw new SecurityException("You must be logged in.");
         }
     }
+
+    // Scrittura nell'outbox dentro la transazione della promozione, null senza outbox
+    private TransactionHook<Integer> promotionOutbox(Tournament tournament) {
+        if (notificationOutbox == null) {
+            return null;
+        }
+        String message = TournamentNotifications.waitlistPromoted(tournament.getTournamentId(), tournament.getName());
+        return userId -> notificationOutbox.enqueueNotification(userId, message, tournament.getGameType(), Instant.now());
+    }
+
+    private void notifyPromotion(Tournament tournament, Integer promotedUserId) {
+        if (promotedUserId != null && notificationOutbox != null) {
+            outboxWritten();
+        }
+        if (promotedUserId != null && promotionListener != null) {
+            promotionListener.accept(new WaitlistPromotion(tournament.getTournamentId(), tournament.getName(),
+                    tournament.getGameType(), promotedUserId));
+        }
+    }
+
+    private void outboxWritten() {
+        if (outboxListener != null) {
+            outboxListener.run();
+        }
+    }
+
+    private void touch(int tournamentId) {
+        if (transitionTimer != null) {
+            transitionTimer.touch(tournamentId);
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package Services.tournament;
+
+// Testi delle notifiche inviate agli iscritti di un torneo: condivisi tra l'outbox (TournamentService)
+// e la consegna in memoria dei controller, cosi' il messaggio non dipende dal percorso
+public final class TournamentNotifications {
+
+    private TournamentNotifications() { }
+
+    public static String statusChanged(TournamentStatusChangeEvent e) {
+        return "Il torneo ID " + e.getTournamentId()
+                + " - Nome: " + e.getTournamentName()
+                + " ha cambiato stato da " + e.getOldStatus() + " a " + e.getNewStatus() + ".";
+    }
+
+    public static String tournamentDeleted(int tournamentId, String tournamentName) {
+        return "Il torneo ID " + tournamentId
+                + " - Nome: " + tournamentName + " e' stato cancellato dall'organizzatore.";
+    }
+
+    public static String waitlistPromoted(int tournamentId, String tournamentName) {
+        return "Si e' liberato un posto: sei stato iscritto al torneo ID " + tournamentId
+                + " - Nome: " + tournamentName + " dalla lista d'attesa.";
+    }
+}
@@ -1,26 +1,58 @@
 package Services.tournament;
 
 import DomainModel.GameType;
-import DomainModel.tournament.Registration;
 import DomainModel.tournament.Tournament;
 import DomainModel.tournament.TournamentStatus;
 import DomainModel.user.User;
+import ORM.dao.FetchPlan;
+import ORM.dao.NotificationDAO;
 import ORM.dao.TournamentDAO;
+import ORM.dao.TournamentStatusTransition;
+import ORM.dao.TransactionHook;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class TournamentService {
 
     private final TournamentDAO tournamentDAO;
+    private TournamentTransitionTimer transitionTimer;   // null = nessun timer (es. nei test)
+    private NotificationDAO notificationOutbox;          // null = notifiche consegnate in memoria dai controller
+    private Runnable outboxListener;
+
+    public TournamentService(DataSource dataSource) {
+        this.tournamentDAO = new TournamentDAO(dataSource);
+    }
 
     public TournamentService(Connection connection) {
         this.tournamentDAO = new TournamentDAO(connection);
     }
 
+    // Collega il timer delle transizioni: ogni modifica a un torneo lo fa rivalutare
+    public void setTransitionTimer(TournamentTransitionTimer transitionTimer) {
+        this.transitionTimer = transitionTimer;
+    }
+
+    // Collega l'outbox delle notifiche: cambi di stato e cancellazioni scrivono le notifiche agli iscritti
+    // nella stessa transazione (un INSERT ... SELECT per evento); onWrite viene chiamata dopo il commit
+    // (es. NotificationDispatcher::wakeUp). Il NotificationDAO deve usare lo stesso DataSource del servizio.
+    public void setNotificationOutbox(NotificationDAO notificationOutbox, Runnable onWrite) {
+        this.notificationOutbox = notificationOutbox;
+        this.outboxListener = onWrite;
+    }
+
+    // true = le notifiche ai partecipanti partono dal servizio, i controller non devono inviarle
+    public boolean hasNotificationOutbox() {
+        return notificationOutbox != null;
+    }
+
     // ============================================================================
     // 1) CREATE TOURNAMENT
     // ============================================================================
@@ -30,13 +62,14 @@ public class TournamentService {
         t.setStatus(TournamentStatus.PENDING);
         validateTournament(t);
         tournamentDAO.createTournament(t);
+        touch(t.getTournamentId());
     }
 
     // ============================================================================
     // 2) UPDATE TOURNAMENT (ONLY PENDING)
     // ============================================================================
     public void updateTournament(User caller, Tournament updated) throws SQLException {
-        Tournament existing = tournamentDAO.getTournamentById(updated.getTournamentId());
+        Tournament existing = tournamentDAO.getTournamentById(updated.getTournamentId(), FetchPlan.SUMMARY);
         if (existing == null) {
             throw new IllegalArgumentException("Tournament not found.");
         }
@@ -44,35 +77,45 @@ public class TournamentService {
         checkTournamentIsPending(existing);
         validateTournament(updated);
         tournamentDAO.updateTournament(updated);
+        touch(updated.getTournamentId());
     }
 
     // ============================================================================
     // 3) DELETE TOURNAMENT
     // ============================================================================
     public void deleteTournament(User caller, int tournamentId) throws SQLException {
-        Tournament t = tournamentDAO.getTournamentById(tournamentId);
+        Tournament t = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (t == null) {
             throw new IllegalArgumentException("Tournament not found.");
         }
 
-        tournamentDAO.deleteTournament(tournamentId);
+        if (notificationOutbox == null) {
+            tournamentDAO.deleteTournament(tournamentId);
+        } else {
+            String message = TournamentNotifications.tournamentDeleted(tournamentId, t.getName());
+            tournamentDAO.deleteTournament(tournamentId, id -> notificationOutbox.enqueueForTournamentParticipants(
+                    id, message, t.getGameType(), Instant.now()));
+            outboxWritten();
+        }
+        touch(tournamentId);
     }
 
     // ============================================================================
     // 4) APPROVE / REJECT
     // ============================================================================
     public void approveTournament(User caller, int tournamentId) throws SQLException {
-        Tournament t = tournamentDAO.getTournamentById(tournamentId);
+        Tournament t = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (t.getStatus() != TournamentStatus.PENDING) {
             throw new IllegalStateException("Only PENDING tournaments can be approved.");
         }
 
         t.setStatus(TournamentStatus.APPROVED);
         tournamentDAO.updateTournament(t);
+        touch(tournamentId);
     }
 
     public void rejectTournament(User caller, int tournamentId) throws SQLException {
-        Tournament t = tournamentDAO.getTournamentById(tournamentId);
+        Tournament t = tournamentDAO.getTournamentById(tournamentId, FetchPlan.SUMMARY);
         if (t.getStatus() != TournamentStatus.PENDING) {
             throw new IllegalStateException("Only PENDING tournaments can be rejected.");
         }
@@ -84,52 +127,38 @@ public class TournamentService {
     // ============================================================================
     // 5) AUTO UPDATE (READY / CLOSED)
     // ============================================================================
+    // Le transizioni sono calcolate nel DB (TournamentDAO.applyStatusTransitions): il costo dipende
+    // dai tornei che cambiano stato, non dal numero totale di tornei.
     public List<TournamentStatusChangeEvent> updateTournamentStatusesAutomatically() throws SQLException {
-        List<Tournament> tournaments = tournamentDAO.getAllTournaments();
-        LocalDate today = LocalDate.now();
-        List<TournamentStatusChangeEvent> events = new ArrayList<>();
-
-        for (Tournament t : tournaments) {
-            // READY -> APPROVED if it was READY because "full" but a slot becomes available again,
-            // and the registration window is still open (deadline not reached).
-            if (t.getStatus() == TournamentStatus.READY
-                    && today.isBefore(t.getStartDate())
-                    && !t.isFull()
-                    && t.isRegistrationOpen()) {
-                TournamentStatus old = t.getStatus();
-                t.setStatus(TournamentStatus.APPROVED);
-                tournamentDAO.updateTournament(t);
-                events.add(buildStatusChangeEvent(t, old, TournamentStatus.APPROVED));
-                continue;
-            }
-
-            // APPROVED -> READY quando deadline raggiunta/superata (giorno incluso) o torneo full
-            if (t.getStatus() == TournamentStatus.APPROVED &&
-                    (t.isFull() || !today.isBefore(t.getDeadline()))) {
-                TournamentStatus old = t.getStatus();
-                t.setStatus(TournamentStatus.READY);
-                tournamentDAO.updateTournament(t);
-                events.add(buildStatusChangeEvent(t, old, TournamentStatus.READY));
-            }
+        return applyStatusTransitions(null);
+    }
 
-            // READY -> ONGOING quando data corrente = startDate
-            if (t.getStatus() == TournamentStatus.READY && today.isEqual(t.getStartDate())) {
-                TournamentStatus old = t.getStatus();
-                t.setStatus(TournamentStatus.ONGOING);
-                tournamentDAO.updateTournament(t);
-                events.add(buildStatusChangeEvent(t, old, TournamentStatus.ONGOING));
-            }
+    // Solo i tornei indicati (usata da TournamentTransitionTimer per i tornei in scadenza)
+    public List<TournamentStatusChangeEvent> updateTournamentStatuses(Collection<Integer> tournamentIds)
+            throws SQLException {
+        return applyStatusTransitions(tournamentIds);
+    }
 
-            // READY/ONGOING -> FINISHED quando data corrente > startDate
-            if ((t.getStatus() == TournamentStatus.READY || t.getStatus() == TournamentStatus.ONGOING)
-                    && today.isAfter(t.getStartDate())) {
-                TournamentStatus old = t.getStatus();
-                t.setStatus(TournamentStatus.FINISHED);
-                tournamentDAO.updateTournament(t);
-                events.add(buildStatusChangeEvent(t, old, TournamentStatus.FINISHED));
+    private List<TournamentStatusChangeEvent> applyStatusTransitions(Collection<Integer> tournamentIds)
+            throws SQLException {
+        if (notificationOutbox == null) {
+            return toEvents(tournamentDAO.applyStatusTransitions(LocalDate.now(), tournamentIds));
+        }
+        List<TournamentStatusChangeEvent> events = new ArrayList<>();
+        TransactionHook<List<TournamentStatusTransition>> enqueue = transitions -> {
+            Instant now = Instant.now();
+            events.addAll(toEvents(transitions));
+            for (TournamentStatusChangeEvent e : events) {
+                if (!e.getRegisteredUserIds().isEmpty()) {
+                    notificationOutbox.enqueueForTournamentParticipants(
+                            e.getTournamentId(), TournamentNotifications.statusChanged(e), e.getGameType(), now);
+                }
             }
+        };
+        tournamentDAO.applyStatusTransitions(LocalDate.now(), tournamentIds, enqueue);
+        if (!events.isEmpty()) {
+            outboxWritten();
         }
-
         return events;
     }
 
@@ -143,20 +172,34 @@ public class TournamentService {
         return tournamentDAO.getTournamentById(tournamentId);
     }
 
+    // Liste per i menu: organizzatore completo, numero di iscritti dal contatore (iscrizioni non caricate)
     public List<Tournament> getAllTournaments(User caller) throws SQLException {
-        return tournamentDAO.getAllTournaments();
+        return tournamentDAO.getAllTournaments(FetchPlan.WITH_ORGANIZER);
     }
 
     public List<Tournament> getTournamentsByOrganizer(User caller, int organizerId) throws SQLException {
-        return tournamentDAO.getTournamentsByOrganizer(organizerId);
+        return tournamentDAO.getTournamentsByOrganizer(organizerId, FetchPlan.WITH_ORGANIZER);
     }
 
     public List<Tournament> getTournamentsByGameType(GameType gameType) throws SQLException {
-        return tournamentDAO.getTournamentsByGameType(gameType);
+        return tournamentDAO.getTournamentsByGameType(gameType, FetchPlan.WITH_ORGANIZER);
     }
 
     public List<Tournament> getTournamentsByStatus(TournamentStatus status) throws SQLException {
-        return tournamentDAO.getTournamentsByStatus(status);
+        return tournamentDAO.getTournamentsByStatus(status, FetchPlan.WITH_ORGANIZER);
+    }
+
+    // Tornei che possono ancora cambiare stato per effetto della data (profilo SUMMARY)
+    public List<Tournament> getActiveTournamentSummaries() throws SQLException {
+        List<Tournament> active = new ArrayList<>();
+        for (TournamentStatus status : List.of(TournamentStatus.APPROVED, TournamentStatus.READY, TournamentStatus.ONGOING)) {
+            active.addAll(tournamentDAO.getTournamentsByStatus(status, FetchPlan.SUMMARY));
+        }
+        return active;
+    }
+
+    public Map<Integer, Tournament> getTournamentSummaries(Collection<Integer> tournamentIds) throws SQLException {
+        return tournamentDAO.getTournamentsByIds(tournamentIds, FetchPlan.SUMMARY);
     }
 
     // ============================================================================
@@ -180,24 +223,31 @@ public class TournamentService {
         }
     }
 
-    private TournamentStatusChangeEvent buildStatusChangeEvent(Tournament t, TournamentStatus oldStatus, TournamentStatus newStatus) {
-        List<Integer> userIds = t.getRegistrations() == null
-                ? List.of()
-                : t.getRegistrations().stream()
-                .map(Registration::getUser)
-                .filter(u -> u != null)
-                .map(User::getUserId)
-                .distinct()
-                .toList();
-
-        return new TournamentStatusChangeEvent(
-                t.getTournamentId(),
-                t.getName(),
-                t.getGameType(),
-                oldStatus,
-                newStatus,
-                userIds
-        );
+    private List<TournamentStatusChangeEvent> toEvents(List<TournamentStatusTransition> transitions) {
+        List<TournamentStatusChangeEvent> events = new ArrayList<>(transitions.size());
+        for (TournamentStatusTransition t : transitions) {
+            events.add(new TournamentStatusChangeEvent(
+                    t.tournamentId(),
+                    t.tournamentName(),
+                    t.gameType(),
+                    t.oldStatus(),
+                    t.newStatus(),
+                    t.registeredUserIds()
+            ));
+        }
+        return events;
+    }
+
+    private void outboxWritten() {
+        if (outboxListener != null) {
+            outboxListener.run();
+        }
+    }
+
+    private void touch(int tournamentId) {
+        if (transitionTimer != null) {
+            transitionTimer.touch(tournamentId);
+        }
     }
 
     private void checkTournamentIsPending(Tournament tournament) {
@@ -0,0 +1,45 @@
+package Services.tournament;
+
+import DomainModel.GameType;
+import DomainModel.tournament.TournamentStatus;
+import Utils.primitive.IntArrayList;
+
+/*
+ * Cambio di stato di un torneo prodotto dall'aggiornamento automatico degli stati.
+ * Contiene gli id degli utenti iscritti (lista primitiva, senza boxing), a cui TournamentStatusController
+ * invia la notifica.
+ */
+public class TournamentStatusChangeEvent {
+
+    private final int tournamentId;
+    private final String tournamentName;
+    private final GameType gameType;
+    private final TournamentStatus oldStatus;
+    private final TournamentStatus newStatus;
+    private final IntArrayList registeredUserIds;
+
+    public TournamentStatusChangeEvent(int tournamentId, String tournamentName, GameType gameType,
+                                       TournamentStatus oldStatus, TournamentStatus newStatus,
+                                       IntArrayList registeredUserIds) {
+        this.tournamentId = tournamentId;
+        this.tournamentName = tournamentName;
+        this.gameType = gameType;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.registeredUserIds = IntArrayList.copyOf(registeredUserIds);
+    }
+
+    // GETTER
+    public int getTournamentId() { return tournamentId; }
+    public String getTournamentName() { return tournamentName; }
+    public GameType getGameType() { return gameType; }
+    public TournamentStatus getOldStatus() { return oldStatus; }
+    public TournamentStatus getNewStatus() { return newStatus; }
+    public IntArrayList getRegisteredUserIds() { return registeredUserIds; }
+
+    @Override
+    public String toString() {
+        return "TournamentStatusChangeEvent{id=" + tournamentId + ", " + oldStatus + " -> " + newStatus
+                + ", utenti=" + registeredUserIds.size() + "}";
+    }
+}
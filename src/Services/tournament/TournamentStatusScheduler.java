@@ -0,0 +1,149 @@
+package Services.tournament;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Esegue in background la sincronizzazione degli stati dei tornei, al posto della sync sincrona
+ * all'ingresso dei menu.
+ *
+ *  - una esecuzione all'avvio, poi ogni 'interval' (+ jitter casuale fino a 'maxJitter')
+ *  - in ogni caso una esecuzione subito dopo mezzanotte, quando deadline e startDate "scattano"
+ *  - single-flight: un solo thread, e triggerNow() non accoda una nuova esecuzione se ce n'e' gia' una in attesa
+ *  - statistiche dell'ultima esecuzione (durata, cambi di stato, eventuale errore)
+ */
+public class TournamentStatusScheduler implements AutoCloseable {
+
+    // La sincronizzazione vera e propria: restituisce il numero di cambi di stato applicati
+    @FunctionalInterface
+    public interface SyncTask {
+        int run() throws SQLException;
+    }
+
+    public record RunStats(Instant startedAt, Duration duration, int changes, String error) { }
+
+    // Margine dopo la mezzanotte, per non eseguire a cavallo del cambio di data
+    private static final Duration MIDNIGHT_GRACE = Duration.ofSeconds(5);
+
+    private final SyncTask task;
+    private final Duration interval;
+    private final Duration maxJitter;
+    private final Clock clock;
+
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private ScheduledFuture<?> nextRun;     // usato solo dal thread dello scheduler
+
+    private volatile RunStats lastRun;
+    private volatile long totalRuns;
+    private volatile long totalChanges;
+
+    public TournamentStatusScheduler(SyncTask task, Duration interval, Duration maxJitter) {
+        this(task, interval, maxJitter, Clock.systemDefaultZone());
+    }
+
+    public TournamentStatusScheduler(SyncTask task, Duration interval, Duration maxJitter, Clock clock) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("L'intervallo deve essere positivo.");
+        }
+        this.task = task;
+        this.interval = interval;
+        this.maxJitter = maxJitter;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tournament-status-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ====================================================================================
+    // AVVIO / ARRESTO
+    // ====================================================================================
+    public void start() {
+        triggerNow();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Richiede una esecuzione il prima possibile; false se ce n'e' gia' una in attesa
+    public boolean triggerNow() {
+        if (executor.isShutdown() || !pending.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(this::runAndReschedule);
+        return true;
+    }
+
+    // ====================================================================================
+    // ESECUZIONE
+    // ====================================================================================
+    // Gira sempre sul thread dello scheduler: le esecuzioni non si sovrappongono mai.
+    // La prossima esecuzione periodica viene ripianificata a partire da quella appena fatta, anche se il task
+    // e' terminato con un Error: l'executor lo scarterebbe in silenzio e lo scheduler si fermerebbe per sempre.
+    private void runAndReschedule() {
+        pending.set(false);
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+        try {
+            runOnce();
+        } finally {
+            if (!executor.isShutdown()) {
+                nextRun = executor.schedule(this::runAndReschedule, nextDelay().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void runOnce() {
+        Instant start = clock.instant();
+        long t0 = System.nanoTime();
+        int changes = 0;
+        String error = null;
+        try {
+            changes = task.run();
+        } catch (SQLException | RuntimeException e) {
+            error = e.getMessage();
+            System.err.println("❌ Sincronizzazione stati tornei fallita: " + e.getMessage());
+        } catch (Error e) {
+            System.err.println("❌ Sincronizzazione stati tornei interrotta da un errore: " + e);
+            throw e;
+        }
+        lastRun = new RunStats(start, Duration.ofNanos(System.nanoTime() - t0), changes, error);
+        totalRuns++;
+        totalChanges += changes;
+    }
+
+    // Prossimo intervallo (con jitter), anticipato alla prossima mezzanotte se arriva prima
+    public Duration nextDelay() {
+        Duration delay = interval;
+        if (!maxJitter.isZero() && !maxJitter.isNegative()) {
+            delay = delay.plusMillis(ThreadLocalRandom.current().nextLong(maxJitter.toMillis() + 1));
+        }
+
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = LocalDate.now(clock).plusDays(1).atStartOfDay(clock.getZone());
+        Duration untilMidnight = Duration.between(now, midnight).plus(MIDNIGHT_GRACE);
+        return untilMidnight.compareTo(delay) < 0 ? untilMidnight : delay;
+    }
+
+    // ====================================================================================
+    // STATISTICHE
+    // ====================================================================================
+    public RunStats getLastRun() { return lastRun; }
+    public long getTotalRuns() { return totalRuns; }
+    public long getTotalChanges() { return totalChanges; }
+}
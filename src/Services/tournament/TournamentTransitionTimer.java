@@ -0,0 +1,264 @@
+package Services.tournament;
+
+import DomainModel.tournament.Tournament;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/*
+ * Coda di priorita' con il prossimo istante in cui ogni torneo attivo puo' cambiare stato:
+ *
+ *   APPROVED -> inizio del giorno di deadline            (APPROVED -> READY)
+ *   READY    -> inizio del giorno di startDate           (READY -> ONGOING), se non e' gia' iniziato
+ *            -> inizio del giorno dopo startDate         (-> FINISHED)
+ *   ONGOING  -> inizio del giorno dopo startDate         (ONGOING -> FINISHED)
+ *
+ * Un thread dedicato dorme fino alla prima scadenza, rivaluta in blocco solo i tornei scaduti
+ * (TournamentService.updateTournamentStatuses) e li ripianifica in base al nuovo stato.
+ * I cambiamenti che non dipendono dalla data (torneo pieno, posto liberato, approvazione, modifica)
+ * arrivano da touch(id), chiamata dai servizi: il torneo viene rivalutato subito.
+ *
+ * Inserimento e ripianificazione costano O(log n); le voci sostituite restano nella coda e vengono
+ * scartate quando arrivano in testa (confronto con la voce corrente del torneo).
+ */
+public class TournamentTransitionTimer implements AutoCloseable {
+
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private record Entry(Instant dueAt, int tournamentId) { }
+
+    private final TournamentService tournamentService;
+    private final Consumer<List<TournamentStatusChangeEvent>> listener;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+            (a, b) -> a.dueAt().compareTo(b.dueAt()));
+    private final Map<Integer, Entry> current = new HashMap<>();
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public TournamentTransitionTimer(TournamentService tournamentService,
+                                     Consumer<List<TournamentStatusChangeEvent>> listener) {
+        this(tournamentService, listener, Clock.systemDefaultZone());
+    }
+
+    public TournamentTransitionTimer(TournamentService tournamentService,
+                                     Consumer<List<TournamentStatusChangeEvent>> listener, Clock clock) {
+        this.tournamentService = tournamentService;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    // ====================================================================================
+    // AVVIO / ARRESTO
+    // ====================================================================================
+    // Ricostruisce la coda dal DB (tornei APPROVED/READY/ONGOING) e avvia il thread
+    public void start() throws SQLException {
+        rebuild();
+        running = true;
+        worker = new Thread(this::runLoop, "tournament-transition-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public void rebuild() throws SQLException {
+        List<Tournament> active = tournamentService.getActiveTournamentSummaries();
+        lock.lock();
+        try {
+            queue.clear();
+            current.clear();
+            for (Tournament t : active) {
+                scheduleLocked(t.getTournamentId(), nextTransition(t));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ====================================================================================
+    // PIANIFICAZIONE
+    // ====================================================================================
+    // Il torneo e' cambiato (creato, modificato, approvato, iscrizioni): rivalutarlo subito
+    public void touch(int tournamentId) {
+        schedule(tournamentId, clock.instant());
+    }
+
+    public void schedule(Tournament tournament) {
+        schedule(tournament.getTournamentId(), nextTransition(tournament));
+    }
+
+    private void schedule(int tournamentId, Instant dueAt) {
+        lock.lock();
+        try {
+            scheduleLocked(tournamentId, dueAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleLocked(int tournamentId, Instant dueAt) {
+        if (dueAt == null) {
+            current.remove(tournamentId);
+            return;
+        }
+        Entry entry = new Entry(dueAt, tournamentId);
+        current.put(tournamentId, entry);
+        queue.add(entry);
+        changed.signal();
+    }
+
+    // Prossimo istante in cui lo stato del torneo puo' cambiare per effetto della data; null = mai
+    Instant nextTransition(Tournament t) {
+        LocalDate day = switch (t.getStatus()) {
+            case APPROVED -> t.getDeadline();
+            case READY -> LocalDate.now(clock).isBefore(t.getStartDate()) ? t.getStartDate() : t.getStartDate().plusDays(1);
+            case ONGOING -> t.getStartDate().plusDays(1);
+            default -> null;
+        };
+        return day == null ? null : day.atStartOfDay(clock.getZone()).toInstant();
+    }
+
+    // ====================================================================================
+    // THREAD DI VALUTAZIONE
+    // ====================================================================================
+    private void runLoop() {
+        while (running) {
+            List<Integer> due;
+            try {
+                due = awaitDue();
+            } catch (InterruptedException e) {
+                return;
+            }
+            evaluate(due);
+        }
+    }
+
+    // Attende la prima scadenza e restituisce tutti i tornei scaduti (voci sostituite scartate)
+    private List<Integer> awaitDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Entry head = queue.peek();
+                if (head != null && current.get(head.tournamentId()) != head) {
+                    queue.poll();
+                    continue;
+                }
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                long waitNanos = Duration.between(clock.instant(), head.dueAt()).toNanos();
+                if (waitNanos > 0) {
+                    changed.awaitNanos(Math.min(waitNanos, TimeUnit.HOURS.toNanos(1)));
+                    continue;
+                }
+
+                List<Integer> due = new ArrayList<>();
+                Instant now = clock.instant();
+                while (!queue.isEmpty() && !queue.peek().dueAt().isAfter(now)) {
+                    Entry entry = queue.poll();
+                    if (current.get(entry.tournamentId()) == entry) {
+                        current.remove(entry.tournamentId());
+                        due.add(entry.tournamentId());
+                    }
+                }
+                if (!due.isEmpty()) {
+                    return due;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evaluate(List<Integer> tournamentIds) {
+        try {
+            List<TournamentStatusChangeEvent> events = tournamentService.updateTournamentStatuses(tournamentIds);
+            if (!events.isEmpty()) {
+                listener.accept(events);
+            }
+
+            // Ripianifica in base allo stato aggiornato (i tornei eliminati escono dalla coda).
+            // Se nel frattempo e' arrivato un touch() per lo stesso torneo, vince quello.
+            Map<Integer, Tournament> tournaments = tournamentService.getTournamentSummaries(tournamentIds);
+            Instant now = clock.instant();
+            lock.lock();
+            try {
+                for (Tournament t : tournaments.values()) {
+                    if (current.containsKey(t.getTournamentId())) {
+                        continue;
+                    }
+                    Instant next = nextTransition(t);
+                    // Scadenza gia' passata ma nessun cambio applicato: si riprova piu' tardi, senza ciclare
+                    if (next != null && !next.isAfter(now)) {
+                        next = now.plus(RETRY_DELAY);
+                    }
+                    scheduleLocked(t.getTournamentId(), next);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("❌ Rivalutazione tornei " + tournamentIds + " fallita: " + e.getMessage());
+            Instant retryAt = clock.instant().plus(RETRY_DELAY);
+            lock.lock();
+            try {
+                for (int id : tournamentIds) {
+                    if (!current.containsKey(id)) {
+                        scheduleLocked(id, retryAt);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // ====================================================================================
+    // STATO
+    // ====================================================================================
+    public int size() {
+        lock.lock();
+        try {
+            return current.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Prossima scadenza in coda, oppure null
+    public Instant nextDueAt() {
+        lock.lock();
+        try {
+            while (!queue.isEmpty() && current.get(queue.peek().tournamentId()) != queue.peek()) {
+                queue.poll();
+            }
+            return queue.isEmpty() ? null : queue.peek().dueAt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package Services.tournament;
+
+import DomainModel.GameType;
+
+// Utente passato dalla lista d'attesa agli iscritti di un torneo (vedi RegistrationService)
+public record WaitlistPromotion(int tournamentId, String tournamentName, GameType gameType, int userId) { }
@@ -0,0 +1,120 @@
+package Services.user;
+
+import DomainModel.user.Notification;
+import ORM.dao.NotificationDAO;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Consegna le notifiche dell'outbox (righe di notifications con dispatched_at NULL) alla casella in memoria.
+ *
+ * I servizi scrivono le notifiche nella stessa transazione della modifica (es. cambio di stato di un torneo)
+ * e chiamano wakeUp() dopo il commit: il thread preleva le righe a blocchi (NotificationDAO.claimUndispatched,
+ * una sola UPDATE ... RETURNING per blocco) e le passa a NotificationInbox.deliver. Senza wakeUp() controlla
+ * comunque ogni pollInterval (righe scritte da altre JVM o rimaste dopo un errore).
+ *
+ * Se la JVM si ferma prima della consegna le righe restano nell'outbox e partono al riavvio; quelle gia'
+ * prelevate vengono ricaricate da NotificationInbox.restore().
+ */
+public class NotificationDispatcher implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(30);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final NotificationDAO notificationDAO;
+    private final NotificationInbox inbox;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public NotificationDispatcher(NotificationDAO notificationDAO, NotificationInbox inbox) {
+        this(notificationDAO, inbox, DEFAULT_BATCH_SIZE, DEFAULT_POLL_INTERVAL);
+    }
+
+    public NotificationDispatcher(NotificationDAO notificationDAO, NotificationInbox inbox,
+                                  int batchSize, Duration pollInterval) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("La dimensione del blocco deve essere positiva.");
+        }
+        if (pollInterval == null || pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("Intervallo di controllo outbox non valido.");
+        }
+        this.notificationDAO = notificationDAO;
+        this.inbox = inbox;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+    }
+
+    // ====================================================================================
+    // AVVIO / ARRESTO
+    // ====================================================================================
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Nuove righe nell'outbox: consegnarle subito. Chiamate ripetute prima del giro valgono una sola
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    // ====================================================================================
+    // CONSEGNA
+    // ====================================================================================
+    // Un giro completo: preleva e consegna finche' l'outbox non e' vuoto; restituisce le notifiche consegnate
+    public int dispatchPending() throws SQLException {
+        int delivered = 0;
+        while (true) {
+            List<Notification> batch = notificationDAO.claimUndispatched(batchSize, Instant.now());
+            for (Notification notification : batch) {
+                if (inbox.deliver(notification)) {
+                    delivered++;
+                }
+            }
+            if (batch.size() < batchSize) {
+                return delivered;
+            }
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            Duration wait = pollInterval;
+            try {
+                dispatchPending();
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("❌ Consegna notifiche dall'outbox fallita: " + e.getMessage());
+                wait = RETRY_DELAY;
+            }
+            try {
+                if (wakeUps.tryAcquire(wait.toMillis(), TimeUnit.MILLISECONDS)) {
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
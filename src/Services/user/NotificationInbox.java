@@ -0,0 +1,314 @@
+package Services.user;
+
+import DomainModel.GameType;
+import DomainModel.user.Notification;
+import ORM.dao.NotificationDAO;
+import Utils.primitive.IntArrayList;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Caselle di notifiche degli utenti, condivise da tutte le sessioni della JVM.
+ *
+ * - Ogni utente ha una coda lock-free per GameType piu' una per le notifiche senza gioco:
+ *   la lettura per gioco svuota solo le code che corrispondono (costo proporzionale alle notifiche lette).
+ * - Limite per utente: oltre maxPerUser le nuove notifiche vengono scartate e contate; alla lettura
+ *   l'utente riceve un avviso con il numero di quelle perse.
+ * - TTL: le notifiche piu' vecchie di ttl non vengono consegnate; purgeExpired() le rimuove e libera
+ *   le caselle vuote (utenti che non accedono piu' non fanno crescere la memoria).
+ * - Persistenza opzionale (NotificationDAO): ogni notifica viene anche scritta nella tabella notifications,
+ *   cancellata quando viene letta, e restore() ricarica quelle pendenti all'avvio. Gli errori del DB
+ *   vengono segnalati ma non bloccano la consegna in memoria.
+ */
+public class NotificationInbox {
+
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+    public static final int DEFAULT_MAX_PER_USER = 200;
+
+    private static final int GLOBAL_QUEUE = GameType.values().length;   // notifiche senza gioco
+
+    private final ConcurrentHashMap<Integer, UserInbox> inboxes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final Duration ttl;
+    private final int maxPerUser;
+    private final Clock clock;
+    private final NotificationDAO notificationDAO;   // null = solo memoria
+
+    public NotificationInbox() {
+        this(DEFAULT_TTL, DEFAULT_MAX_PER_USER, Clock.systemUTC(), null);
+    }
+
+    public NotificationInbox(NotificationDAO notificationDAO) {
+        this(DEFAULT_TTL, DEFAULT_MAX_PER_USER, Clock.systemUTC(), notificationDAO);
+    }
+
+    public NotificationInbox(Duration ttl, int maxPerUser, Clock clock, NotificationDAO notificationDAO) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL notifiche non valido.");
+        }
+        if (maxPerUser < 1) {
+            throw new IllegalArgumentException("Il limite di notifiche per utente deve essere positivo.");
+        }
+        this.ttl = ttl;
+        this.maxPerUser = maxPerUser;
+        this.clock = clock;
+        this.notificationDAO = notificationDAO;
+    }
+
+    // -------------------------------------------------------------
+    // INVIO
+    // -------------------------------------------------------------
+    public void add(int userId, String message, GameType gameType) {
+        addAll(IntArrayList.of(userId), message, gameType);
+    }
+
+    // Stesso messaggio a piu' utenti: posti riservati prima, poi un solo batch sul DB per gli accettati
+    public void addAll(IntArrayList userIds, String message, GameType gameType) {
+        IntArrayList accepted = new IntArrayList(userIds.size());
+        List<UserInbox> targets = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            int userId = userIds.get(i);
+            UserInbox inbox = reserve(userId);
+            if (inbox != null) {
+                accepted.add(userId);
+                targets.add(inbox);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        long[] ids = persist(accepted, message, gameType, now);
+        for (int i = 0; i < accepted.size(); i++) {
+            Notification notification = new Notification(ids[i], accepted.get(i), message, gameType, now);
+            targets.get(i).offer(new Entry(sequence.incrementAndGet(), notification));
+        }
+    }
+
+    // Notifica gia' salvata altrove (outbox, vedi NotificationDispatcher): solo consegna in memoria.
+    // Restituisce false se la casella e' piena; la riga viene allora cancellata come le altre perse
+    public boolean deliver(Notification notification) {
+        UserInbox inbox = reserve(notification.userId());
+        if (inbox == null) {
+            if (notification.notificationId() > 0) {
+                forget(List.of(notification.notificationId()));
+            }
+            return false;
+        }
+        inbox.offer(new Entry(sequence.incrementAndGet(), notification));
+        return true;
+    }
+
+    // -------------------------------------------------------------
+    // LETTURA
+    // -------------------------------------------------------------
+    // Notifiche dell'utente per il gioco selezionato (null = tutte), nell'ordine di invio; vengono rimosse
+    public List<Notification> drain(int userId, GameType selectedGameType) {
+        UserInbox inbox = inboxes.get(userId);
+        if (inbox == null) {
+            return List.of();
+        }
+
+        Instant cutoff = clock.instant().minus(ttl);
+        List<Entry> drained = new ArrayList<>();
+        List<Long> persistedIds = new ArrayList<>();
+        int queuesWithResults = 0;
+        for (int q = 0; q <= GLOBAL_QUEUE; q++) {
+            if (selectedGameType != null && q != selectedGameType.ordinal() && q != GLOBAL_QUEUE) {
+                continue;
+            }
+            int before = drained.size();
+            Entry entry;
+            while ((entry = inbox.poll(q)) != null) {
+                if (entry.notification().notificationId() > 0) {
+                    persistedIds.add(entry.notification().notificationId());
+                }
+                if (entry.notification().createdAt().isAfter(cutoff)) {
+                    drained.add(entry);
+                }
+            }
+            if (drained.size() > before) {
+                queuesWithResults++;
+            }
+        }
+        if (queuesWithResults > 1) {
+            drained.sort(Comparator.comparingLong(Entry::sequence));
+        }
+
+        List<Notification> notifications = new ArrayList<>(drained.size() + 1);
+        for (Entry entry : drained) {
+            notifications.add(entry.notification());
+        }
+        int lost = inbox.dropped.getAndSet(0);
+        if (lost > 0) {
+            notifications.add(new Notification(0, userId,
+                    "⚠️ " + lost + " notifiche non consegnate: casella piena.", null, clock.instant()));
+        }
+        forget(persistedIds);
+        return notifications;
+    }
+
+    public int pendingCount(int userId) {
+        UserInbox inbox = inboxes.get(userId);
+        return inbox == null ? 0 : inbox.size.get();
+    }
+
+    // Notifiche scartate per casella piena dall'avvio (tutti gli utenti)
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    // -------------------------------------------------------------
+    // MANUTENZIONE
+    // -------------------------------------------------------------
+    // Rimuove le notifiche scadute e le caselle rimaste vuote; restituisce quante notifiche ha rimosso
+    public int purgeExpired() {
+        Instant cutoff = clock.instant().minus(ttl);
+        AtomicInteger removed = new AtomicInteger();
+        for (Integer userId : inboxes.keySet()) {
+            inboxes.computeIfPresent(userId, (key, inbox) -> {
+                removed.addAndGet(inbox.removeExpired(cutoff));
+                return inbox.isEmpty() ? null : inbox;
+            });
+        }
+        if (notificationDAO != null) {
+            try {
+                notificationDAO.deleteNotificationsCreatedBefore(cutoff);
+            } catch (SQLException e) {
+                System.err.println("❌ Pulizia notifiche scadute fallita: " + e.getMessage());
+            }
+        }
+        return removed.get();
+    }
+
+    // Ricarica dal DB le notifiche non lette e non scadute (all'avvio); restituisce quante ne ha caricate
+    public int restore() throws SQLException {
+        if (notificationDAO == null) {
+            return 0;
+        }
+        int restored = 0;
+        List<Long> overflow = new ArrayList<>();
+        for (Notification notification : notificationDAO.getNotificationsCreatedAfter(clock.instant().minus(ttl))) {
+            UserInbox inbox = reserve(notification.userId());
+            if (inbox == null) {
+                overflow.add(notification.notificationId());
+                continue;
+            }
+            inbox.offer(new Entry(sequence.incrementAndGet(), notification));
+            restored++;
+        }
+        forget(overflow);
+        return restored;
+    }
+
+    // ====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    //Riserva un posto nella casella dell'utente (creandola se serve); null se la casella e' piena.
+    // compute e' atomico rispetto a purgeExpired: una casella con posti riservati non e' mai vuota
+    private UserInbox reserve(int userId) {
+        boolean[] accepted = new boolean[1];
+        UserInbox inbox = inboxes.compute(userId, (key, current) -> {
+            UserInbox target = current != null ? current : new UserInbox();
+            accepted[0] = target.tryReserve(maxPerUser);
+            return target;
+        });
+        if (!accepted[0]) {
+            overflowCount.incrementAndGet();
+            return null;
+        }
+        return inbox;
+    }
+
+    private long[] persist(IntArrayList userIds, String message, GameType gameType, Instant createdAt) {
+        if (notificationDAO != null) {
+            try {
+                return notificationDAO.createNotifications(userIds, message, gameType, createdAt);
+            } catch (SQLException e) {
+                System.err.println("❌ Salvataggio notifiche fallito (restano solo in memoria): " + e.getMessage());
+            }
+        }
+        return new long[userIds.size()];
+    }
+
+    private void forget(List<Long> persistedIds) {
+        if (notificationDAO == null || persistedIds.isEmpty()) {
+            return;
+        }
+        try {
+            notificationDAO.deleteNotifications(persistedIds.stream().mapToLong(Long::longValue).toArray());
+        } catch (SQLException e) {
+            System.err.println("❌ Cancellazione notifiche lette fallita: " + e.getMessage());
+        }
+    }
+
+    private static int queueIndex(GameType gameType) {
+        return gameType == null ? GLOBAL_QUEUE : gameType.ordinal();
+    }
+
+    private record Entry(long sequence, Notification notification) { }
+
+    private static final class UserInbox {
+        private final List<ConcurrentLinkedQueue<Entry>> queues = new ArrayList<>(GLOBAL_QUEUE + 1);
+        private final AtomicInteger size = new AtomicInteger();      // posti occupati o riservati
+        private final AtomicInteger dropped = new AtomicInteger();   // scartate dall'ultima lettura
+
+        private UserInbox() {
+            for (int q = 0; q <= GLOBAL_QUEUE; q++) {
+                queues.add(new ConcurrentLinkedQueue<>());
+            }
+        }
+
+        private boolean tryReserve(int max) {
+            if (size.incrementAndGet() > max) {
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void offer(Entry entry) {
+            queues.get(queueIndex(entry.notification().gameType())).offer(entry);
+        }
+
+        private Entry poll(int queue) {
+            Entry entry = queues.get(queue).poll();
+            if (entry != null) {
+                size.decrementAndGet();
+            }
+            return entry;
+        }
+
+        //In ogni coda le notifiche sono in ordine di arrivo: le scadute stanno in testa
+        private int removeExpired(Instant cutoff) {
+            int removed = 0;
+            for (ConcurrentLinkedQueue<Entry> queue : queues) {
+                Entry head;
+                while ((head = queue.peek()) != null && !head.notification().createdAt().isAfter(cutoff)) {
+                    if (queue.remove(head)) {
+                        size.decrementAndGet();
+                        removed++;
+                    }
+                }
+            }
+            return removed;
+        }
+
+        private boolean isEmpty() {
+            return size.get() == 0 && dropped.get() == 0;
+        }
+    }
+}
@@ -4,14 +4,21 @@ import DomainModel.user.Role;
 import DomainModel.user.User;
 import ORM.dao.UserDAO;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 
 public class UserService {
 
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+
     private final UserDAO userDAO;
 
+    public UserService(DataSource dataSource) {
+        this.userDAO = new UserDAO(dataSource);
+    }
+
     public UserService(Connection connection) {
         this.userDAO = new UserDAO(connection);
     }
@@ -127,14 +134,19 @@ public class UserService {
     // 8.1) RECUPERO UTENTI By Name CON FUZZY SEARCH
     // ============================================================
     public List<User> searchUsersByName(String keyword) throws SQLException {
+        return searchUsersByName(keyword, DEFAULT_SEARCH_LIMIT, 0);
+    }
+
+    // Filtro e paginazione nel DB; gli utenti restituiti non contengono la password
+    public List<User> searchUsersByName(String keyword, int limit, int offset) throws SQLException {
         if (keyword == null || keyword.isBlank()) {
             throw new IllegalArgumentException("Nome non valido");
         }
+        if (limit <= 0 || offset < 0) {
+            throw new IllegalArgumentException("Paginazione non valida.");
+        }
 
-        List<User> allUsers = userDAO.getAllUsers();
-        return allUsers.stream()
-                .filter(u -> u.getUsername().toLowerCase().contains(keyword.toLowerCase()))
-                .toList();
+        return userDAO.searchUsersByName(keyword, limit, offset);
     }
 
     // ============================================================
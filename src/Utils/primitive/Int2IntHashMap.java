@@ -0,0 +1,202 @@
+package Utils.primitive;
+
+import java.util.Arrays;
+
+/*
+ * Mappa int -> int senza boxing (stile Int2IntOpenHashMap): chiavi e valori in due array paralleli,
+ * open addressing con scansione lineare. Lo 0 fa da slot libero; il valore della chiave 0 e' tenuto a parte.
+ * Una chiave assente vale 0 (get), come un contatore mai incrementato.
+ */
+public final class Int2IntHashMap {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private int[] values;
+    private boolean hasZero;
+    private int zeroValue;
+    private int size;
+
+    public Int2IntHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    public Int2IntHashMap(int expectedSize) {
+        int capacity = PrimitiveHashing.capacityFor(expectedSize, MIN_CAPACITY);
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    //0 se la chiave e' assente
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZero ? zeroValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZero : find(key) >= 0;
+    }
+
+    //Ritorna il valore precedente (0 se assente)
+    public int put(int key, int value) {
+        if (key == 0) {
+            int previous = zeroValue;
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        insert(slot, key, value);
+        return 0;
+    }
+
+    //Somma delta al valore della chiave (0 se assente); ritorna il nuovo valore
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            put(0, zeroValue + delta);
+            return zeroValue;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        insert(slot, key, delta);
+        return delta;
+    }
+
+    //Ritorna il valore precedente (0 se assente)
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZero) return 0;
+            int previous = zeroValue;
+            hasZero = false;
+            zeroValue = 0;
+            size--;
+            return previous;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return 0;
+        }
+        int previous = values[slot];
+        removeAt(slot);
+        size--;
+        return previous;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    //Chiavi in ordine di slot (non di inserimento)
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (hasZero) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    // ====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    //Slot della chiave se presente, altrimenti -(slot libero + 1)
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = PrimitiveHashing.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    private void insert(int freeSlot, int key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            freeSlot = find(key);
+        }
+        int slot = -(freeSlot + 1);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            if (PrimitiveHashing.canShift(PrimitiveHashing.mix(keys[next]) & mask, hole, next)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = -(find(oldKeys[i]) + 1);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package Utils.primitive;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/*
+ * Mappa int -> oggetto senza boxing delle chiavi (stile Int2ObjectOpenHashMap):
+ * chiavi e valori in due array paralleli, open addressing con scansione lineare.
+ * Lo 0 fa da slot libero; il valore associato alla chiave 0 e' tenuto a parte.
+ */
+public final class Int2ObjectHashMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private boolean hasZero;
+    private Object zeroValue;
+    private int size;
+
+    public Int2ObjectHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    public Int2ObjectHashMap(int expectedSize) {
+        int capacity = PrimitiveHashing.capacityFor(expectedSize, MIN_CAPACITY);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == 0) {
+            return hasZero ? (V) zeroValue : null;
+        }
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value != null || containsKey(key) ? value : defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZero : find(key) >= 0;
+    }
+
+    //Ritorna il valore precedente (null se assente)
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        insert(slot, key, value);
+        return null;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == 0) {
+            if (!hasZero) return null;
+            V previous = (V) zeroValue;
+            hasZero = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        removeAt(slot);
+        size--;
+        return previous;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    //Chiavi in ordine di slot (non di inserimento)
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (hasZero) {
+            action.accept(0, (V) zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZero = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    // ====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    //Slot della chiave se presente, altrimenti -(slot libero + 1)
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = PrimitiveHashing.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    private void insert(int freeSlot, int key, Object value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            freeSlot = find(key);
+        }
+        int slot = -(freeSlot + 1);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            if (PrimitiveHashing.canShift(PrimitiveHashing.mix(keys[next]) & mask, hole, next)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = -(find(oldKeys[i]) + 1);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package Utils.primitive;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/*
+ * Insieme di int senza boxing: open addressing con scansione lineare su un solo array.
+ * Lo 0 fa da slot libero, quindi la presenza del valore 0 e' tenuta a parte (hasZero).
+ * Usato per deduplicare gli id utente prima di una notifica di massa.
+ */
+public final class IntHashSet {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private boolean hasZero;
+    private int size;
+
+    public IntHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    public IntHashSet(int expectedSize) {
+        keys = new int[PrimitiveHashing.capacityFor(expectedSize, MIN_CAPACITY)];
+    }
+
+    //true se il valore non c'era
+    public boolean add(int value) {
+        if (value == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int slot = find(value);
+        if (slot >= 0) {
+            return false;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            slot = find(value);
+        }
+        keys[-(slot + 1)] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return value == 0 ? hasZero : find(value) >= 0;
+    }
+
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int slot = find(value);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        size--;
+        return true;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public void forEach(IntConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[size];
+        int i = 0;
+        if (hasZero) {
+            values[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                values[i++] = key;
+            }
+        }
+        return values;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    // ====================================================================================
+    // PRIVATE UTILITIES
+    // ====================================================================================
+    //Slot del valore se presente, altrimenti -(slot libero + 1)
+    private int find(int value) {
+        int mask = keys.length - 1;
+        int slot = PrimitiveHashing.mix(value) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            if (PrimitiveHashing.canShift(PrimitiveHashing.mix(keys[next]) & mask, hole, next)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = keys;
+        keys = new int[capacity];
+        for (int key : old) {
+            if (key != 0) {
+                keys[-(find(key) + 1)] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package Utils.primitive;
+
+// Funzioni comuni alle tabelle hash con chiavi int (IntHashSet, Int2ObjectHashMap, Int2IntHashMap)
+final class PrimitiveHashing {
+
+    private PrimitiveHashing() { }
+
+    //Mescola i bit dell'id: id consecutivi finiscono in slot lontani
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    //Potenza di due con fattore di carico <= 0.5
+    static int capacityFor(int expectedSize, int minCapacity) {
+        int capacity = minCapacity;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    //Cancellazione con backward shift: la voce in next (con slot naturale home) puo' riempire
+    // il buco solo se home non cade nell'intervallo circolare (hole, next]
+    static boolean canShift(int home, int hole, int next) {
+        return hole <= next
+                ? (home <= hole || home > next)
+                : (home <= hole && home > next);
+    }
+}
@@ -0,0 +1,124 @@
+package Utils.test;
+
+import Utils.primitive.Int2IntHashMap;
+import Utils.primitive.Int2ObjectHashMap;
+import Utils.primitive.IntArrayList;
+import Utils.primitive.IntHashSet;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPrimitiveCollections {
+
+    @Test
+    void intArrayListGrowsAndCopies() {
+        IntArrayList list = new IntArrayList();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * 2);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(998, list.get(499));
+        assertTrue(list.contains(1998));
+        assertFalse(list.contains(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1000));
+
+        IntArrayList copy = IntArrayList.copyOf(list);
+        list.add(-1);
+        assertEquals(1000, copy.size());
+        assertEquals(IntArrayList.of(1, 2, 3), IntArrayList.of(1, 2, 3));
+        assertEquals(6, IntArrayList.of(1, 2, 3).stream().sum());
+    }
+
+    @Test
+    void intHashSetMatchesJavaUtilSetUnderRandomOperations() {
+        Random random = new Random(11);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000) - 100;   // comprende lo 0 e valori negativi
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int value = -100; value < 1_900; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "valore " + value);
+        }
+        Set<Integer> iterated = new HashSet<>();
+        set.forEach(iterated::add);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void int2ObjectMapMatchesJavaUtilMapUnderRandomOperations() {
+        Random random = new Random(23);
+        Int2ObjectHashMap<String> map = new Int2ObjectHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_500);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.remove(key), map.remove(key));
+                case 1 -> assertEquals(expected.computeIfAbsent(key, k -> "c" + k),
+                        map.computeIfAbsent(key, k -> "c" + k));
+                default -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 1_500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<Integer, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+        assertEquals(expected.keySet(),
+                Arrays.stream(map.keys()).boxed().collect(Collectors.toSet()));
+        assertEquals("none", map.getOrDefault(-5, "none"));
+    }
+
+    @Test
+    void int2IntMapMatchesJavaUtilMapUnderRandomOperations() {
+        Random random = new Random(37);
+        Int2IntHashMap map = new Int2IntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_500) - 10;   // comprende lo 0 e chiavi negative
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    Integer previous = expected.remove(key);
+                    assertEquals(previous == null ? 0 : previous, map.remove(key));
+                }
+                case 1 -> assertEquals(expected.merge(key, 3, Integer::sum), map.addTo(key, 3));
+                default -> {
+                    Integer previous = expected.put(key, i);
+                    assertEquals(previous == null ? 0 : previous, map.put(key, i));
+                }
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -10; key < 1_490; key++) {
+            assertEquals(expected.getOrDefault(key, 0), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+        assertEquals(-1, map.getOrDefault(-50, -1));
+    }
+}